@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.benchmarks;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.perft.PerftSuite;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The positions the benchmarks run on: the positions of the perft suite.
+ *
+ * @author Tom Sandmann
+ */
+final class BenchmarkPositions {
+
+    /**
+     * A position that has a legal move of every type for white: b7b8 is a
+     * promotion, b7xa8 a capture promotion, e5xd6 an en passant capture, O-O
+     * castling, h1xh5 a capture and h1h2 a normal move.
+     */
+    static final String ALL_MOVE_TYPES = "r3k3/1P6/8/3pP2n/8/8/8/4K2R w K d6 0 1";
+
+    private BenchmarkPositions() {
+    }
+
+    /**
+     *
+     * @return The FEN strings of the perft suite.
+     */
+    static List<String> perftFENs() {
+        List<String> FENs = new ArrayList<>();
+        for (String entry : PerftSuite.STANDARD) {
+            FENs.add(PerftSuite.parse(entry).FEN);
+        }
+        return FENs;
+    }
+
+    /**
+     *
+     * @return A chess board for every position of the perft suite.
+     */
+    static List<ChessBoard> perftBoards() {
+        List<ChessBoard> boards = new ArrayList<>();
+        for (String FEN : perftFENs()) {
+            ChessBoard chessBoard = new ChessBoard();
+            chessBoard.loadFEN(FEN);
+            boards.add(chessBoard);
+        }
+        return boards;
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.benchmarks;
+
+import com.tomirio.schakert.chessboard.BoardState;
+import com.tomirio.schakert.chessboard.ChessBoard;
+
+/**
+ * Preallocated stack of board states, used by {@link CopyMakeBenchmark} to
+ * measure copy-make against make/unmake. Every ply copies the state on top of
+ * the stack into the next slot; undoing a ply only decrements the stack
+ * pointer. No states are allocated after construction.
+ *
+ * @author Tom Sandmann
+ */
+final class BoardStateStack {
+
+    /**
+     * The preallocated states.
+     */
+    private final BoardState[] states;
+    /**
+     * Index of the state on top of the stack.
+     */
+    private int top;
+
+    /**
+     *
+     * @param maxPlies The maximum number of plies the stack can hold on top of
+     * the root state.
+     */
+    public BoardStateStack(int maxPlies) {
+        states = new BoardState[maxPlies + 1];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new BoardState();
+        }
+        top = 0;
+    }
+
+    /**
+     * Reset the stack and store the state of the given board as the root.
+     *
+     * @param chessBoard The chess board.
+     * @return The root state.
+     */
+    public BoardState reset(ChessBoard chessBoard) {
+        top = 0;
+        states[0].copyFrom(chessBoard);
+        return states[0];
+    }
+
+    /**
+     * Copy the state on top of the stack into the next slot.
+     *
+     * @return The new top of the stack, which can be modified freely.
+     */
+    public BoardState push() {
+        if (top + 1 == states.length) {
+            throw new IllegalStateException("The maximum number of plies (" + (states.length - 1) + ") is reached!");
+        }
+        states[top + 1].copyFrom(states[top]);
+        return states[++top];
+    }
+
+    /**
+     * Store the current state of a chess board in the next slot. Restoring
+     * the board after a move is then done with
+     * <code>chessBoard.loadState(stack.peek())</code> followed by
+     * {@link #pop()}.
+     *
+     * @param chessBoard The chess board.
+     * @return The new top of the stack.
+     */
+    public BoardState push(ChessBoard chessBoard) {
+        if (top + 1 == states.length) {
+            throw new IllegalStateException("The maximum number of plies (" + (states.length - 1) + ") is reached!");
+        }
+        states[top + 1].copyFrom(chessBoard);
+        return states[++top];
+    }
+
+    /**
+     * Discard the state on top of the stack.
+     *
+     * @return The state that is on top of the stack after popping.
+     */
+    public BoardState pop() {
+        if (top == 0) {
+            throw new IllegalStateException("Cannot pop the root state!");
+        }
+        return states[--top];
+    }
+
+    /**
+     *
+     * @return The state on top of the stack.
+     */
+    public BoardState peek() {
+        return states[top];
+    }
+
+    /**
+     *
+     * @return The number of plies on top of the root state.
+     */
+    public int size() {
+        return top;
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.benchmarks;
+
+import com.tomirio.schakert.chessboard.BoardState;
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.moves.Move;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The copy-make counterpart of {@link MakeUnmakeBenchmark}: the state is
+ * pushed on a {@link BoardStateStack} before the move and the board is
+ * restored from it afterwards. Restoring recreates the pieces, which makes the
+ * generated move stale, so it is looked up again before every invocation
+ * (outside of the measurement).
+ *
+ * @author Tom Sandmann
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CopyMakeBenchmark {
+
+    @Param({"NormalMove", "CaptureMove", "CastlingMove", "EnPassantMove",
+        "PromotionMove", "CapturePromotionMove"})
+    public String moveType;
+
+    private ChessBoard chessBoard;
+
+    private BoardStateStack stack;
+
+    private BoardState copy;
+
+    private Move move;
+
+    @Setup(Level.Trial)
+    public void setupBoard() {
+        chessBoard = new ChessBoard();
+        chessBoard.loadFEN(BenchmarkPositions.ALL_MOVE_TYPES);
+        stack = new BoardStateStack(1);
+        stack.reset(chessBoard);
+        copy = new BoardState();
+    }
+
+    @Setup(Level.Invocation)
+    public void setupMove() {
+        move = MakeUnmakeBenchmark.findMove(chessBoard, moveType);
+    }
+
+    @Benchmark
+    public long copyMake() {
+        stack.push(chessBoard);
+        move.doMove();
+        chessBoard.loadState(stack.peek());
+        stack.pop();
+        return chessBoard.getZobristKey();
+    }
+
+    /**
+     * Only the copy of the primitive state, which is what copy-make costs on
+     * a board that is nothing but a {@link BoardState}.
+     *
+     * @return The copied state.
+     */
+    @Benchmark
+    public BoardState copyState() {
+        copy.copyFrom(stack.peek());
+        return copy;
+    }
+
+}
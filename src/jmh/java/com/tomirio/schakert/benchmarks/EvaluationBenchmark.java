@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.benchmarks;
+
+import com.tomirio.schakert.agent.Evaluation;
+import com.tomirio.schakert.chessboard.ChessBoard;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Static evaluation of all perft positions.
+ *
+ * @author Tom Sandmann
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    private List<ChessBoard> boards;
+
+    private Evaluation evaluation;
+
+    @Setup
+    public void setup() {
+        boards = BenchmarkPositions.perftBoards();
+        evaluation = new Evaluation();
+    }
+
+    @Benchmark
+    public void evaluate(Blackhole blackhole) {
+        for (ChessBoard chessBoard : boards) {
+            blackhole.consume(evaluation.evaluate(chessBoard, chessBoard.getHasTurn(), chessBoard.getHasTurn()));
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.benchmarks;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.game.EPDParser;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of all perft positions with the reusable single pass parser, with
+ * and without loading them into an existing chess board, and through
+ * {@link ChessBoard#loadFEN}.
+ *
+ * @author Tom Sandmann
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FENParserBenchmark {
+
+    private List<String> FENs;
+
+    private ChessBoard chessBoard;
+
+    private EPDParser epdParser;
+
+    @Setup
+    public void setup() {
+        FENs = BenchmarkPositions.perftFENs();
+        chessBoard = new ChessBoard();
+        epdParser = new EPDParser();
+    }
+
+    @Benchmark
+    public ChessBoard loadFEN() {
+        for (String FEN : FENs) {
+            chessBoard.loadFEN(FEN);
+        }
+        return chessBoard;
+    }
+
+    @Benchmark
+    public ChessBoard parseEPD() {
+        for (String FEN : FENs) {
+            epdParser.parse(FEN, chessBoard);
+        }
+        return chessBoard;
+    }
+
+    @Benchmark
+    public EPDParser parseEPDWithoutLoading() {
+        for (String FEN : FENs) {
+            epdParser.parse(FEN);
+        }
+        return epdParser;
+    }
+
+}
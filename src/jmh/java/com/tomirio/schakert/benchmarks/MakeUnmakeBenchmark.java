@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.benchmarks;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.moves.Move;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A <code>doMove</code>/<code>undoMove</code> round trip for every subclass of
+ * {@link Move}.
+ *
+ * @author Tom Sandmann
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MakeUnmakeBenchmark {
+
+    @Param({"NormalMove", "CaptureMove", "CastlingMove", "EnPassantMove",
+        "PromotionMove", "CapturePromotionMove"})
+    public String moveType;
+
+    private ChessBoard chessBoard;
+
+    private Move move;
+
+    @Setup
+    public void setup() {
+        chessBoard = new ChessBoard();
+        chessBoard.loadFEN(BenchmarkPositions.ALL_MOVE_TYPES);
+        move = findMove(chessBoard, moveType);
+    }
+
+    /**
+     * Find the first legal move of a given class.
+     *
+     * @param chessBoard The chess board.
+     * @param moveType The simple name of the class of the move.
+     * @return The move.
+     */
+    static Move findMove(ChessBoard chessBoard, String moveType) {
+        for (Move candidate : chessBoard.getPossibleMoves(chessBoard.getHasTurn())) {
+            if (candidate.getClass().getSimpleName().equals(moveType)) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("No legal move of type " + moveType);
+    }
+
+    @Benchmark
+    public long makeUnmake() {
+        move.doMove();
+        move.undoMove();
+        return chessBoard.getZobristKey();
+    }
+
+}
@@ -16,15 +16,18 @@
  */
 package com.tomirio.schakert.agent;
 
+import com.tomirio.schakert.book.PolyglotBook;
 import com.tomirio.schakert.chessboard.ChessBoard;
 import com.tomirio.schakert.chessboard.ChessPiece;
 import com.tomirio.schakert.chessboard.Colour;
+import com.tomirio.schakert.chessboard.PieceType;
 import com.tomirio.schakert.game.Player;
 import com.tomirio.schakert.moves.Move;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.concurrent.Callable;
-import javafx.util.Pair;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  *
@@ -33,23 +36,125 @@ import javafx.util.Pair;
 public class AI extends Player implements Callable<Move> {
 
     /**
-     * Skipped nodes
+     * Default size of the transposition table in megabytes.
      */
-    protected static int skippedNodes = 0;
+    public static final int DEFAULT_HASH_SIZE = 16;
+    /**
+     * The largest supported search depth.
+     */
+    public static final int MAX_DEPTH = 64;
+    /**
+     * Score of a checkmate at the root. Checkmates further away score lower by
+     * one per ply, so the search prefers the shortest mate.
+     */
+    public static final double MATE_SCORE = 1000000;
+    /**
+     * The interval between two progress reports to the search listeners in
+     * milliseconds, see {@link SearchListener#searchProgress}.
+     */
+    public static final long PROGRESS_INTERVAL = 100;
+    /**
+     * Maximum number of plies a mate can be away.
+     */
+    private static final int MAX_PLY = 1000;
+    /**
+     * Ordering score of the move stored in the transposition table.
+     */
+    private static final int HASH_MOVE_SCORE = 1000000;
+    /**
+     * Ordering score of captures, before adding MVV-LVA.
+     */
+    private static final int CAPTURE_SCORE = 1000;
 
     /**
-     * Evaluation class
+     * The evaluation function, {@link Evaluation} by default.
      */
-    public final Evaluation eval;
+    private Evaluator eval;
     /**
      * The search depth
      */
     public int searchDepth;
-
     /**
-     * Visited nodes
+     * The transposition table, which may be shared with other agents.
+     */
+    private TranspositionTable table;
+    /**
+     * <code>True</code> if every search starts a new search in the
+     * transposition table.
+     */
+    private boolean ageTable = true;
+    /**
+     * The maximum duration of a search in milliseconds, 0 if there is none.
+     */
+    private long timeLimit;
+    /**
+     * The moment the current search has to stop, see
+     * {@link System#nanoTime()}, 0 if there is no time limit.
+     */
+    private long deadline;
+    /**
+     * The maximum number of nodes of a search, 0 if there is none.
+     */
+    private long nodeLimit;
+    /**
+     * Set by {@link #stop()}, from any thread.
+     */
+    private volatile boolean stopRequested;
+    /**
+     * <code>True</code> if the current iteration was aborted, its results
+     * are not valid.
+     */
+    private boolean aborted;
+    /**
+     * The listeners that are notified of the progress of the search.
      */
-    private final HashSet<Integer> visitedNodes;
+    private final List<SearchListener> listeners;
+    /**
+     * The depth of the running iteration.
+     */
+    private int iterationDepth;
+    /**
+     * The moment of the next progress report, see {@link System#nanoTime()}.
+     */
+    private long nextProgressReport;
+    /**
+     * The statistics of the current or last search.
+     */
+    private SearchStatistics statistics;
+    /**
+     * The pawn hash table and evaluation cache probes and hits before the
+     * current search.
+     */
+    private long pawnTableProbes, pawnTableHits, evaluationCacheProbes, evaluationCacheHits;
+    /**
+     * The principal variation of every ply, see {@link #updatePrincipalVariation}.
+     */
+    private Move[][] principalVariation;
+    /**
+     * The length of the principal variation of every ply.
+     */
+    private int[] principalVariationLength;
+    /**
+     * The best move at the root of the last completed search.
+     */
+    private Move rootBestMove;
+    /**
+     * The opening book, <code>null</code> if there is none.
+     */
+    private PolyglotBook book;
+    /**
+     * The last full move of the game in which a book move is played.
+     */
+    private int bookDepth;
+    /**
+     * <code>True</code> to play the book move with the highest weight,
+     * <code>False</code> to choose in proportion to the weights.
+     */
+    private boolean bestBookMove;
+    /**
+     * Chooses between the book moves.
+     */
+    private final Random random = new Random();
 
     /**
      * The AI
@@ -58,10 +163,154 @@ public class AI extends Player implements Callable<Move> {
      * @param chessBoard The chess board.
      */
     public AI(Colour playerColour, ChessBoard chessBoard) {
+        this(playerColour, chessBoard, new TranspositionTable(DEFAULT_HASH_SIZE));
+    }
+
+    /**
+     * An AI that uses a given transposition table. Agents that search the
+     * same position on their own boards in parallel can share their table, so
+     * that they profit from each others results.
+     *
+     * @param playerColour The colour the AI plays with.
+     * @param chessBoard The chess board.
+     * @param table The transposition table.
+     */
+    public AI(Colour playerColour, ChessBoard chessBoard, TranspositionTable table) {
         super(playerColour, chessBoard);
-        visitedNodes = new HashSet();
         searchDepth = 3;
         eval = new Evaluation();
+        this.table = table;
+        listeners = new CopyOnWriteArrayList<>();
+        statistics = new SearchStatistics();
+    }
+
+    /**
+     *
+     * @return The evaluation function.
+     */
+    public Evaluator getEvaluator() {
+        return eval;
+    }
+
+    /**
+     * Replace the evaluation function. Must not be called during a search.
+     *
+     * @param evaluator The evaluation function.
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        eval = evaluator;
+    }
+
+    /**
+     *
+     * @return The transposition table.
+     */
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * Replace the transposition table by an empty one. Must not be called
+     * during a search.
+     *
+     * @param sizeInMegaBytes The size of the new table in megabytes.
+     */
+    public void setHashSize(int sizeInMegaBytes) {
+        table = new TranspositionTable(sizeInMegaBytes);
+    }
+
+    /**
+     * Set whether every search starts a new search in the transposition
+     * table, see {@link TranspositionTable#newSearch()}. Agents that share a
+     * table must not do this themselves, because they search at the same
+     * time: the caller starts a new search in the table once, before the
+     * agents start.
+     *
+     * @param ageTable <code>True</code> (the default) if the agent starts a
+     * new search in the table, <code>False</code> if the caller does.
+     */
+    public void setAgeTable(boolean ageTable) {
+        this.ageTable = ageTable;
+    }
+
+    /**
+     * Use an opening book. As long as the position is in the book and the
+     * full move number of the board is at most the book depth, the move is
+     * taken from the book without a search. The full move number counts the
+     * moves of the game, also those before a position set up from a FEN
+     * string.
+     *
+     * @param book The book, <code>null</code> to stop using a book.
+     * @param bookDepth The last full move of the game in which a book move is
+     * played.
+     * @param bestBookMove <code>True</code> to play the move with the highest
+     * weight, <code>False</code> to choose at random in proportion to the
+     * weights.
+     */
+    public void setBook(PolyglotBook book, int bookDepth, boolean bestBookMove) {
+        this.book = book;
+        this.bookDepth = bookDepth;
+        this.bestBookMove = bestBookMove;
+    }
+
+    /**
+     *
+     * @param timeLimit The maximum duration of the next searches in
+     * milliseconds, 0 for no limit.
+     */
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     *
+     * @param nodeLimit The maximum number of nodes, including quiescence
+     * nodes, of the next searches, 0 for no limit. Unlike a time limit, a node
+     * limit gives the same result on every run and on every machine.
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Stop the current search as soon as possible. The search returns the
+     * best move of the last completed iteration. Can be called from any
+     * thread. If no search is running, the next search stops immediately,
+     * until {@link #resetStop()} is called.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Allow searches to run again after {@link #stop()}.
+     */
+    public void resetStop() {
+        stopRequested = false;
+    }
+
+    /**
+     *
+     * @param listener The listener to notify of the progress of every search.
+     */
+    public void addSearchListener(SearchListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeSearchListener(SearchListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     *
+     * @return The statistics of the current or last search.
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
     }
 
     @Override
@@ -70,45 +319,141 @@ public class AI extends Player implements Callable<Move> {
     }
 
     /**
-     * Generate the next set moves for the given colour.
+     * Search the current position with iterative deepening, from depth 1 up to
+     * the search depth. Every iteration starts with the best moves of the
+     * previous one, through the transposition table. The search ends early if
+     * the time or node limit is exceeded or {@link #stop()} is called. If the
+     * position is in the opening book, the book move is returned without a
+     * search.
      *
-     * @param node The root node.
-     * @param hasTurn The colour for which we want to generate the moves.
-     * @return ArrayList containing all the future chess boards.
+     * @return The move, or <code>null</code> if there are no legal moves.
      */
-    private ArrayList<Node> generateChildNodes(Node parentNode, Colour hasTurn) {
-        ArrayList<Node> childNodes = new ArrayList<>();
-        ArrayList<ChessPiece> pieces = chessBoard.getPieces(hasTurn);
-        for (ChessPiece piece : pieces) {
-            ArrayList<Move> succesivePieceMoves = piece.getPossibleMoves();
-            for (Move move : succesivePieceMoves) {
-                Node childNode = new Node(parentNode, move);
-                childNodes.add(childNode);
+    @Override
+    public Move getPlay() {
+        statistics = new SearchStatistics();
+        statistics.start();
+        if (book != null && chessBoard.getFullMoveNumber() <= bookDepth) {
+            Move bookMove = book.getMove(chessBoard, bestBookMove, random);
+            if (bookMove != null) {
+                statistics.stop();
+                for (SearchListener listener : listeners) {
+                    listener.searchFinished(bookMove, statistics);
+                }
+                return bookMove;
+            }
+        }
+        if (eval instanceof Evaluation) {
+            Evaluation evaluation = (Evaluation) eval;
+            pawnTableProbes = evaluation.getPawnEvaluation().getProbes();
+            pawnTableHits = evaluation.getPawnEvaluation().getHits();
+            evaluationCacheProbes = evaluation.getCache().getProbes();
+            evaluationCacheHits = evaluation.getCache().getHits();
+        }
+        deadline = (timeLimit > 0) ? System.nanoTime() + timeLimit * 1000000 : 0;
+        aborted = false;
+        if (ageTable) {
+            table.newSearch();
+        }
+        int maxDepth = Math.min(searchDepth, MAX_DEPTH);
+        principalVariation = new Move[maxDepth + 1][maxDepth + 1];
+        principalVariationLength = new int[maxDepth + 1];
+        rootBestMove = null;
+        Move bestMove = null;
+        nextProgressReport = System.nanoTime() + PROGRESS_INTERVAL * 1000000;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            iterationDepth = depth;
+            double score = negaMax(depth, 0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            if (aborted) {
+                break;
+            }
+            bestMove = rootBestMove;
+            updateEvaluationStatistics();
+            statistics.iterationFinished(depth);
+            List<String> pv = getPrincipalVariation();
+            for (SearchListener listener : listeners) {
+                listener.iterationFinished(depth, score, pv, statistics);
             }
         }
-        return childNodes;
+        if (bestMove == null) {
+            // Not even the first iteration was completed.
+            bestMove = (rootBestMove != null) ? rootBestMove : getAnyMove();
+        }
+        updateEvaluationStatistics();
+        statistics.stop();
+        for (SearchListener listener : listeners) {
+            listener.searchFinished(bestMove, statistics);
+        }
+        return bestMove;
+    }
+
+    /**
+     * Copy the pawn hash table and evaluation cache counters of the current
+     * search into the statistics, if the evaluation has them.
+     */
+    private void updateEvaluationStatistics() {
+        if (!(eval instanceof Evaluation)) {
+            return;
+        }
+        PawnEvaluation pawnEvaluation = ((Evaluation) eval).getPawnEvaluation();
+        statistics.pawnTable(pawnEvaluation.getProbes() - pawnTableProbes,
+                pawnEvaluation.getHits() - pawnTableHits);
+        EvaluationCache cache = ((Evaluation) eval).getCache();
+        statistics.evaluationCache(cache.getProbes() - evaluationCacheProbes,
+                cache.getHits() - evaluationCacheHits);
     }
 
     /**
      *
-     * @return The move
+     * @return The first legal move, or <code>null</code> if there is none.
      */
-    @Override
-    public Move getPlay() {
-        long startTime = System.nanoTime();
-        Node rootNode = new Node();
-        Pair<Node, Double> toPlay = negaMax(rootNode, searchDepth, Double.NEGATIVE_INFINITY,
-                Double.POSITIVE_INFINITY, playerColour);
-        long endTime = System.nanoTime();
-        double elapsedTime = (endTime - startTime) / Math.pow(10, 9);
-        System.out.println("Searched nodes:" + visitedNodes.size());
-        System.out.println("Skipped nodes:" + skippedNodes);
-        System.out.println("Elapsed time:" + elapsedTime);
-        System.out.println("Nodes per second:" + skippedNodes / elapsedTime + "\n");
-        visitedNodes.clear();
-        skippedNodes = 0;
-        Move move = toPlay.getKey().getRootMove();
-        return move;
+    private Move getAnyMove() {
+        ArrayList<Move> moves = chessBoard.getPossibleMoves(chessBoard.getHasTurn());
+        return moves.isEmpty() ? null : moves.get(0);
+    }
+
+    /**
+     * Check whether the search has to stop, and report the progress of the
+     * search to the listeners now and then.
+     *
+     * @return <code>True</code> if the search was aborted.
+     */
+    private boolean checkAborted() {
+        if (!aborted && (stopRequested || (deadline != 0 && System.nanoTime() - deadline > 0)
+                || (nodeLimit > 0 && statistics.getTotalNodes() >= nodeLimit))) {
+            aborted = true;
+        }
+        if (!aborted && (statistics.getTotalNodes() & 255) == 0 && !listeners.isEmpty()) {
+            reportProgress();
+        }
+        return aborted;
+    }
+
+    /**
+     * Notify the listeners of the progress of the running iteration, if the
+     * progress interval passed since the last report.
+     */
+    private void reportProgress() {
+        long now = System.nanoTime();
+        if (now - nextProgressReport < 0) {
+            return;
+        }
+        nextProgressReport = now + PROGRESS_INTERVAL * 1000000;
+        for (SearchListener listener : listeners) {
+            listener.searchProgress(iterationDepth, statistics);
+        }
+    }
+
+    /**
+     *
+     * @return The principal variation of the last completed iteration in long
+     * algebraic notation.
+     */
+    private List<String> getPrincipalVariation() {
+        List<String> pv = new ArrayList<>();
+        for (int i = 0; i < principalVariationLength[0]; i++) {
+            pv.add(principalVariation[0][i].toLongAlgebraicString());
+        }
+        return pv;
     }
 
     @Override
@@ -127,69 +472,238 @@ public class AI extends Player implements Callable<Move> {
      * <b>"Negamax always searches for the maximum value for all its nodes"</b>
      * The prevailing search routine is <b>negamax</b>, and for good reason.
      * It's clear, simple, and can be extended from something very basic all the
-     * way to parallel search. Once you get it working the next step is replace
-     * the evaluation call with <b>quiescence search</b> at the leaf nodes (to
-     * prevent terrible, terrible blunders because of an abrupt search horizon)
+     * way to parallel search. At the leaf nodes the evaluation is replaced by
+     * a <b>quiescence search</b> (to prevent terrible, terrible blunders
+     * because of an abrupt search horizon).
      *
      * <h1>Techniques to add:</h1>
-     * - Null Move Pruning - Check Extension - Late Move Reduction - NegaMax
-     * search - Quiescence search - Move Ordering
+     * - Null Move Pruning - Check Extension - Late Move Reduction
      *
      * <h1>Monitoring the application</h1>
-     * See VisualVM, which is a free and good java profiler.
+     * See {@link SearchStatistics} and {@link SearchMonitor}, and VisualVM,
+     * which is a free and good java profiler.
      * @see
      * <a href="http://stackoverflow.com/questions/17379849/simple-minimax-evaluation-function-for-chess-position">
      * http://stackoverflow.com/questions/17379849/simple-minimax-evaluation-function-for-chess-position
      * </a>
      *
-     * <h1>Debugging move generation</h1>
-     * <b>Perft</b>, (performance test, move path enumeration) a debugging
-     * function to walk the move generation tree of strictly legal moves to
-     * count all the leaf nodes of a certain depth, which can be compared to
-     * predetermined values and used to isolate bugs.
-     *
-     * @param node The node we want to evaluate.
-     * @param depth The depth.
+     * @param depth The remaining depth.
+     * @param ply The distance to the root.
      * @param alpha Alpha used in alpha-beta pruning.
      * @param beta Beta used in alpha-beta pruning.
-     * @param hasTurn The colour of the player.
-     * @return The best value possible See
-     * http://stackoverflow.com/questions/25615312/negamax-chess-algorithm-how-to-use-final-return
+     * @return The score of the position, relative to the side to move.
      */
-    public Pair<Node, Double> negaMax(Node node, int depth, double alpha, double beta, Colour hasTurn) {
-        if (depth == 0 || chessBoard.inStalemate()
-                || chessBoard.inCheckmate(Colour.Black)
-                || chessBoard.inCheckmate(Colour.White)) {
-            return new Pair<>(node, eval.evaluate(chessBoard, playerColour, hasTurn));
+    public double negaMax(int depth, int ply, double alpha, double beta) {
+        principalVariationLength[ply] = 0;
+        if (checkAborted()) {
+            return 0;
         }
-        ArrayList<Node> childNodes = generateChildNodes(node, hasTurn);
+        if (ply > 0 && (chessBoard.isRepetition()
+                || (chessBoard.isFiftyMoveRuleDraw() && !chessBoard.getKing(chessBoard.getHasTurn()).inCheck()))) {
+            // A repeated position can be repeated again, so it is a draw. In
+            // check, the search finds out whether the fifty-move rule or mate
+            // comes first.
+            return 0;
+        }
+        if (depth == 0) {
+            return quiescence(alpha, beta);
+        }
+        statistics.node();
+        double originalAlpha = alpha;
+        long key = chessBoard.getZobristKey();
+        int hashMove = TranspositionTable.NO_MOVE;
+        statistics.tableProbe();
+        TranspositionEntry entry = table.probe(key);
+        if (entry != null) {
+            statistics.tableHit();
+            hashMove = entry.getMove();
+            if (ply > 0 && entry.getDepth() >= depth) {
+                double score = scoreFromTable(entry.getScore(), ply);
+                if (entry.getBound() == TranspositionEntry.EXACT
+                        || (entry.getBound() == TranspositionEntry.LOWER_BOUND && score >= beta)
+                        || (entry.getBound() == TranspositionEntry.UPPER_BOUND && score <= alpha)) {
+                    statistics.tableCutoff();
+                    return score;
+                }
+            }
+        }
+
+        Colour hasTurn = chessBoard.getHasTurn();
+        ArrayList<Move> moves = chessBoard.getPossibleMoves(hasTurn);
+        if (moves.isEmpty()) {
+            // Checkmate or stalemate.
+            return chessBoard.getKing(hasTurn).inCheck() ? -MATE_SCORE + ply : 0;
+        }
+        orderMoves(moves, hashMove);
         double bestValue = Double.NEGATIVE_INFINITY;
-        Node bestNode = node;
-        for (Node child : childNodes) {
-            child.move.doMove();
-            /*
-            This is the time whether we know what the best play is for the 
-            resulting board configuration. If we do know that, we use this value.
-            Lets make the hash of the current chessboard the key to get the transpoition entry.
-            If we do not know this, we search it.
-             */
-            Pair<Node, Double> result = negaMax(child, depth - 1, -beta, -alpha, hasTurn.getOpposite());
-            child.move.undoMove();
-            double v = -result.getValue();
-//            if (child.move.isCaptureMove()) {
-//                System.out.println("Het stuk dat werd gecaptured was:" + child.move.getNewPos());
-//                System.out.println("De waarde van eval was " + v + " met de volgende kleur aan zet:" + hasTurn);
-//                System.out.println("Het bord was als volgt:\n" + chessBoard);
-//            }
-            if (v >= bestValue) {
+        Move bestMove = null;
+        for (int i = 0; i < moves.size(); i++) {
+            Move move = moves.get(i);
+            move.doMove();
+            double v = -negaMax(depth - 1, ply + 1, -beta, -alpha);
+            move.undoMove();
+            if (aborted) {
+                return 0;
+            }
+            if (bestMove == null || v > bestValue) {
                 bestValue = v;
-                bestNode = result.getKey();
+                bestMove = move;
+                if (ply == 0) {
+                    rootBestMove = move;
+                }
+                if (v > alpha) {
+                    alpha = v;
+                    updatePrincipalVariation(ply, move);
+                }
             }
-            alpha = Math.max(alpha, v);
             if (alpha >= beta) {
-                return new Pair<>(bestNode, bestValue);
+                statistics.betaCutoff(i == 0);
+                break;
+            }
+        }
+        int bound = (bestValue <= originalAlpha) ? TranspositionEntry.UPPER_BOUND
+                : (bestValue >= beta) ? TranspositionEntry.LOWER_BOUND : TranspositionEntry.EXACT;
+        table.store(key, depth, scoreToTable(bestValue, ply), bound, TranspositionTable.moveCode(bestMove));
+        return bestValue;
+    }
+
+    /**
+     * Search captures only, until the position is quiet.
+     *
+     * @param alpha Alpha used in alpha-beta pruning.
+     * @param beta Beta used in alpha-beta pruning.
+     * @return The score of the position, relative to the side to move.
+     */
+    private double quiescence(double alpha, double beta) {
+        if (checkAborted()) {
+            return 0;
+        }
+        statistics.quiescenceNode();
+        Colour hasTurn = chessBoard.getHasTurn();
+        double standPat = eval.evaluate(chessBoard, hasTurn, hasTurn);
+        if (standPat >= beta) {
+            return standPat;
+        }
+        alpha = Math.max(alpha, standPat);
+        ArrayList<Move> captures = new ArrayList<>();
+        for (Move move : chessBoard.getPossibleMoves(hasTurn)) {
+            if (move.isCaptureMove()) {
+                captures.add(move);
+            }
+        }
+        orderMoves(captures, TranspositionTable.NO_MOVE);
+        for (Move capture : captures) {
+            capture.doMove();
+            double v = -quiescence(-beta, -alpha);
+            capture.undoMove();
+            if (aborted) {
+                return 0;
+            }
+            if (v >= beta) {
+                return v;
+            }
+            alpha = Math.max(alpha, v);
+        }
+        return alpha;
+    }
+
+    /**
+     * Order the moves: the move from the transposition table first, then the
+     * captures by most valuable victim, least valuable attacker (MVV-LVA),
+     * then the other moves.
+     *
+     * @param moves The moves.
+     * @param hashMove The code of the move from the transposition table.
+     */
+    private void orderMoves(List<Move> moves, int hashMove) {
+        int[] scores = new int[moves.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = orderingScore(moves.get(i), hashMove);
+        }
+        // Insertion sort, the lists are short.
+        for (int i = 1; i < scores.length; i++) {
+            Move move = moves.get(i);
+            int score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                scores[j + 1] = scores[j];
+                moves.set(j + 1, moves.get(j));
+                j--;
             }
+            scores[j + 1] = score;
+            moves.set(j + 1, move);
+        }
+    }
+
+    private int orderingScore(Move move, int hashMove) {
+        if (hashMove != TranspositionTable.NO_MOVE && TranspositionTable.moveCode(move) == hashMove) {
+            return HASH_MOVE_SCORE;
+        }
+        if (move.isCaptureMove()) {
+            ChessPiece victim = chessBoard.getPiece(move.getNewPos());
+            // The victim of an en passant capture is not on the new position.
+            int victimRank = (victim == null) ? rank(PieceType.Pawn) : rank(victim.getType());
+            return CAPTURE_SCORE + 10 * victimRank - rank(move.getInvolvedPiece().getType());
+        }
+        return 0;
+    }
+
+    /**
+     *
+     * @param type The piece type.
+     * @return The rank of the piece type in value, from 1 for a pawn to 6 for
+     * the king.
+     */
+    private static int rank(PieceType type) {
+        switch (type) {
+            case Pawn:
+                return 1;
+            case Knight:
+                return 2;
+            case Bishop:
+                return 3;
+            case Rook:
+                return 4;
+            case Queen:
+                return 5;
+            default:
+                return 6;
+        }
+    }
+
+    /**
+     * Make the principal variation of a ply the move followed by the principal
+     * variation of the next ply.
+     *
+     * @param ply The ply.
+     * @param move The move that raised alpha.
+     */
+    private void updatePrincipalVariation(int ply, Move move) {
+        principalVariation[ply][0] = move;
+        int length = principalVariationLength[ply + 1];
+        System.arraycopy(principalVariation[ply + 1], 0, principalVariation[ply], 1, length);
+        principalVariationLength[ply] = length + 1;
+    }
+
+    /**
+     * Mate scores are stored relative to the position instead of the root.
+     */
+    private static double scoreToTable(double score, int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score + ply;
+        } else if (score <= -MATE_SCORE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static double scoreFromTable(double score, int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score - ply;
+        } else if (score <= -MATE_SCORE + MAX_PLY) {
+            return score + ply;
         }
-        return new Pair<>(bestNode, bestValue);
+        return score;
     }
+
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.agent;
+
+import com.tomirio.schakert.chessboard.Colour;
+import com.tomirio.schakert.chessboard.PieceAccumulator;
+import com.tomirio.schakert.chessboard.PieceType;
+
+/**
+ * The first layer of a {@link NeuralNetwork} for the pieces on a chess board,
+ * from the perspective of both sides. The chess board calls
+ * {@link #update} whenever a piece is placed or removed, which adds or
+ * subtracts one column of feature weights. Making or unmaking a move therefore
+ * costs a few additions per hidden neuron instead of a full pass over all
+ * pieces.
+ *
+ * @author Tom Sandmann
+ */
+public final class Accumulator implements PieceAccumulator {
+
+    /**
+     * The network.
+     */
+    private final NeuralNetwork network;
+    /**
+     * The accumulator from the perspective of white.
+     */
+    private final short[] white;
+    /**
+     * The accumulator from the perspective of black.
+     */
+    private final short[] black;
+
+    /**
+     * Create the accumulator of an empty board.
+     *
+     * @param network The network.
+     */
+    public Accumulator(NeuralNetwork network) {
+        this.network = network;
+        white = new short[network.hiddenSize];
+        black = new short[network.hiddenSize];
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        System.arraycopy(network.featureBiases, 0, white, 0, network.hiddenSize);
+        System.arraycopy(network.featureBiases, 0, black, 0, network.hiddenSize);
+    }
+
+    @Override
+    public void update(PieceType type, Colour colour, int square, int sign) {
+        int whiteColumn = NeuralNetwork.feature(type, colour, square, Colour.White) * network.hiddenSize;
+        int blackColumn = NeuralNetwork.feature(type, colour, square, Colour.Black) * network.hiddenSize;
+        if (sign > 0) {
+            add(white, whiteColumn);
+            add(black, blackColumn);
+        } else {
+            subtract(white, whiteColumn);
+            subtract(black, blackColumn);
+        }
+    }
+
+    private void add(short[] accumulator, int column) {
+        short[] weights = network.featureWeights;
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] += weights[column + i];
+        }
+    }
+
+    private void subtract(short[] accumulator, int column) {
+        short[] weights = network.featureWeights;
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] -= weights[column + i];
+        }
+    }
+
+    /**
+     *
+     * @param sideToMove The colour of the player having turn.
+     * @return The score relative to the side to move in centipawns.
+     */
+    public int evaluate(Colour sideToMove) {
+        return (sideToMove == Colour.White) ? network.evaluate(white, black) : network.evaluate(black, white);
+    }
+
+    /**
+     *
+     * @return The network of this accumulator.
+     */
+    public NeuralNetwork getNetwork() {
+        return network;
+    }
+
+}
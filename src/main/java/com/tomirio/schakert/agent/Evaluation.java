@@ -21,53 +21,47 @@ import static com.tomirio.schakert.chessboard.ChessBoard.COLS;
 import static com.tomirio.schakert.chessboard.ChessBoard.ROWS;
 import com.tomirio.schakert.chessboard.ChessPiece;
 import com.tomirio.schakert.chessboard.Colour;
-import com.tomirio.schakert.chessboard.Position;
-import java.util.NoSuchElementException;
+import com.tomirio.schakert.chessboard.PieceSquareTables;
+import com.tomirio.schakert.chessboard.PieceType;
+import com.tomirio.schakert.chesspieces.King;
 
 /**
+ * The hand-written evaluation: material, tapered piece-square tables, pawn
+ * structure and king safety.
  *
  * @author Tom Sandmann
  */
-public class Evaluation {
+public class Evaluation implements Evaluator {
 
     /**
-     * Bishop piece value.
+     * Penalty for a king that is in check.
      */
-    private final int B;
+    private static final int IN_CHECK_PENALTY = 100;
     /**
-     * King piece value.
+     * Middle game bonus for a pawn directly in front of the king, on the file
+     * of the king or an adjacent file.
      */
-    private final int K;
-
+    private static final int SHIELD_NEAR_BONUS = 10;
     /**
-     * Knight piece value.
+     * Middle game bonus for a pawn two squares in front of the king.
      */
-    private final int N;
+    private static final int SHIELD_FAR_BONUS = 5;
 
     /**
-     * Pawn piece value.
+     * The pawn structure evaluation with its hash table.
      */
-    private final int P;
+    private final PawnEvaluation pawnEvaluation;
     /**
-     * Queen piece value.
+     * The cache of evaluated positions.
      */
-    private final int Q;
-
-    /**
-     * Rook piece value.
-     */
-    private final int R;
+    private final EvaluationCache cache;
 
     /**
      * Constructor.
      */
     public Evaluation() {
-        N = 300;
-        Q = 900;
-        P = 100;
-        K = 20000;
-        R = 500;
-        B = 330;
+        pawnEvaluation = new PawnEvaluation(PawnEvaluation.DEFAULT_HASH_SIZE);
+        cache = new EvaluationCache(EvaluationCache.DEFAULT_HASH_SIZE);
     }
 
     /**
@@ -79,6 +73,16 @@ public class Evaluation {
      * minus the heuristic score for the enemy colour. If however this player
      * does not have turn, we negate the difference in heurstic values.
      *
+     * The material and piece-square scores are maintained incrementally by the
+     * chess board, so the evaluation takes constant time. The piece-square
+     * score is tapered: it is interpolated between the middle game and the end
+     * game tables by the game phase, which decreases smoothly as pieces leave
+     * the board. The pawn structure is looked up in the pawn hash table and
+     * the pawn shield in front of each king is added to the middle game
+     * score. Checkmate and stalemate are detected by the search. Scores are
+     * cached by the Zobrist key of the chess board, see
+     * {@link EvaluationCache}.
+     *
      * @param chessBoard The chess board.
      * @param playerColour The colour of the player for which we we want to
      * evaluate the board.
@@ -86,177 +90,111 @@ public class Evaluation {
      * @return Value indicating the 'goodness' of the current board for the
      * given colour of the player.
      */
+    @Override
     public double evaluate(ChessBoard chessBoard, Colour playerColour, Colour hasTurn) {
-
-        double myEvaluationScore = evaluateBoard(chessBoard, playerColour);
-        double enemyEvaluationScore = evaluateBoard(chessBoard, playerColour.getOpposite());
-        double heuristicValue = myEvaluationScore - enemyEvaluationScore;
+        long key = chessBoard.getZobristKey();
+        int sideToMoveScore = cache.probe(key);
+        if (sideToMoveScore == EvaluationCache.MISS) {
+            int whiteScore = getWhiteScore(chessBoard);
+            sideToMoveScore = (chessBoard.getHasTurn() == Colour.White) ? whiteScore : -whiteScore;
+            cache.store(key, sideToMoveScore);
+        }
+        int whiteScore = (chessBoard.getHasTurn() == Colour.White) ? sideToMoveScore : -sideToMoveScore;
+        double heuristicValue = (playerColour == Colour.White) ? whiteScore : -whiteScore;
         return (playerColour == hasTurn) ? heuristicValue : -heuristicValue;
     }
 
     /**
-     * Evaluates the chessboard based on the given colour.
+     * Compute the score of a chess board from the point of view of white.
      *
      * @param chessBoard The chess board.
-     * @param colour The colour of the player.
-     * @return An approximation of the relative score of the position of the
-     * pieces for the player with the given colour on the given chess board.
+     * @return The score for white.
      */
-    private double evaluateBoard(ChessBoard chessBoard, Colour colour) {
-        if (chessBoard.inCheckmate(colour)) {
-            return Double.NEGATIVE_INFINITY;
-        }
-        int sum = 0;
-        for (int row = 0; row < ROWS; row++) {
-            for (int col = 0; col < COLS; col++) {
-                if (chessBoard.isOccupiedPosition(row, col)) {
-                    ChessPiece p = chessBoard.getPiece(row, col);
-                    if (p.getColour().equals(colour)) {
-                        sum += this.getPieceValue(p, chessBoard);
-                    }
-                }
-            }
-        }
-        return sum;
+    private int getWhiteScore(ChessBoard chessBoard) {
+        pawnEvaluation.evaluate(chessBoard);
+        int middleGameScore = chessBoard.getMiddleGamePieceSquareScore() + pawnEvaluation.getMiddleGameScore()
+                + getPawnShield(chessBoard, Colour.White) - getPawnShield(chessBoard, Colour.Black);
+        int endGameScore = chessBoard.getEndGamePieceSquareScore() + pawnEvaluation.getEndGameScore();
+        int positionalScore = PieceSquareTables.taper(middleGameScore, endGameScore, chessBoard.getGamePhase());
+        return chessBoard.getMaterialScore() + positionalScore
+                - getCheckPenalty(chessBoard, Colour.White) + getCheckPenalty(chessBoard, Colour.Black);
     }
 
     /**
-     * Methods for looking up the bonus for specific chess types based on the
-     * position on a given chess board.
+     * Get the bonus for the own pawns on the two ranks in front of the king.
+     *
+     * @param chessBoard The chess board.
+     * @param colour The colour of the king.
+     * @return The pawn shield bonus.
      */
-    private int getBishopBonus(Colour colour, Position pos) {
-        int weight = 0;
-        switch (colour) {
-            case White:
-                weight = PieceSquareTables.BISHOP_TABLE[pos.getRow()][pos.getColumn()];
-                break;
-            case Black:
-                // Mirrored access
-                weight = PieceSquareTables.BISHOP_TABLE[7 - pos.getRow()][pos.getColumn()];
-                break;
-            default:
-                break;
+    private int getPawnShield(ChessBoard chessBoard, Colour colour) {
+        King king = chessBoard.getKing(colour);
+        int forward = (colour == Colour.White) ? -1 : 1;
+        int shield = 0;
+        for (int col = king.getColumn() - 1; col <= king.getColumn() + 1; col++) {
+            if (col < 0 || col >= COLS) {
+                continue;
+            }
+            if (isOwnPawn(chessBoard, king.getRow() + forward, col, colour)) {
+                shield += SHIELD_NEAR_BONUS;
+            } else if (isOwnPawn(chessBoard, king.getRow() + 2 * forward, col, colour)) {
+                shield += SHIELD_FAR_BONUS;
+            }
         }
-        return weight;
-
+        return shield;
     }
 
-    private int getKingBonus(Colour colour, Position pos, ChessBoard chessBoard) {
-        int weight = 0;
-        int[][] king_table;
-        // Determine if we need to use middle game or endgame tables.
-        if (chessBoard.getQueens(Colour.White).isEmpty()
-                && chessBoard.getQueens(Colour.Black).isEmpty()) {
-            // We are in end game
-            king_table = PieceSquareTables.KING_TABLE_END;
-        } else {
-            king_table = PieceSquareTables.KING_TABLE_MIDDLE;
+    private static boolean isOwnPawn(ChessBoard chessBoard, int row, int col, Colour colour) {
+        if (row < 0 || row >= ROWS) {
+            return false;
         }
-        switch (colour) {
-            case White:
-                weight = king_table[pos.getRow()][pos.getColumn()];
-                break;
-            case Black:
-                // Mirrored access
-                weight = king_table[7 - pos.getRow()][pos.getColumn()];
-                break;
-            default:
-                break;
-        }
-        if (chessBoard.getKing(colour).inCheck()) {
-            // If the king is in check, we substract a penalty of 100
-            return weight - 100;
-        }
-        return weight;
+        ChessPiece p = chessBoard.getPiece(row, col);
+        return p != null && p.getType() == PieceType.Pawn && p.getColour() == colour;
     }
 
-    private int getKnightBonus(Colour colour, Position pos) {
-        int weight = 0;
-        switch (colour) {
-            case White:
-                weight = PieceSquareTables.KNIGHT_TABLE[pos.getRow()][pos.getColumn()];
-                break;
-            case Black:
-                // Mirrored access
-                weight = PieceSquareTables.KNIGHT_TABLE[7 - pos.getRow()][pos.getColumn()];
-                break;
-            default:
-                break;
-        }
-        return weight;
+    /**
+     *
+     * @return The evaluation cache, which keeps its own statistics.
+     */
+    public EvaluationCache getCache() {
+        return cache;
     }
 
-    private int getPawnBonus(Colour colour, Position pos) {
-        int weight = 0;
-        switch (colour) {
-            case White:
-                weight = PieceSquareTables.PAWN_TABLE[pos.getRow()][pos.getColumn()];
-                break;
-            case Black:
-                weight = PieceSquareTables.PAWN_TABLE[7 - pos.getRow()][pos.getColumn()];
-                break;
-            default:
-                break;
-        }
-        return weight;
+    /**
+     * Get the pawn structure evaluation, which keeps the statistics of the
+     * pawn hash table.
+     *
+     * @return The pawn structure evaluation.
+     */
+    public PawnEvaluation getPawnEvaluation() {
+        return pawnEvaluation;
     }
 
     /**
-     * Get the piece value.
      *
-     * @param piece The chess piece.
      * @param chessBoard The chess board.
-     * @return
+     * @param colour The colour of the king.
+     * @return The penalty if the king is in check, 0 otherwise.
      */
-    public int getPieceValue(ChessPiece piece, ChessBoard chessBoard) {
-        switch (piece.getType()) {
-            case Bishop:
-                return B + getBishopBonus(piece.getColour(), piece.getPos());
-            case Rook:
-                return R + getRookBonus(piece.getColour(), piece.getPos());
-            case King:
-                return K + getKingBonus(piece.getColour(), piece.getPos(), chessBoard);
-            case Knight:
-                return N + getKnightBonus(piece.getColour(), piece.getPos());
-            case Pawn:
-                return P + getPawnBonus(piece.getColour(), piece.getPos());
-            case Queen:
-                return Q + getQueenBonus(piece.getColour(), piece.getPos());
-            default:
-                throw new NoSuchElementException();
-        }
+    private int getCheckPenalty(ChessBoard chessBoard, Colour colour) {
+        return chessBoard.getKing(colour).inCheck() ? IN_CHECK_PENALTY : 0;
     }
 
-    private int getQueenBonus(Colour colour, Position pos) {
-        int weight = 0;
-        switch (colour) {
-            case White:
-                weight = PieceSquareTables.QUEEN_TABLE[pos.getRow()][pos.getColumn()];
-                break;
-            case Black:
-                // Mirrored access
-                weight = PieceSquareTables.QUEEN_TABLE[7 - pos.getRow()][pos.getColumn()];
-                break;
-            default:
-                break;
-        }
-        return weight;
-    }
-
-    private int getRookBonus(Colour colour, Position pos) {
-        int weight = 0;
-        switch (colour) {
-            case White:
-                weight = PieceSquareTables.ROOK_TABLE[pos.getRow()][pos.getColumn()];
-                break;
-            case Black:
-                // Mirrored access
-                weight = PieceSquareTables.ROOK_TABLE[7 - pos.getRow()][pos.getColumn()];
-                break;
-            default:
-                break;
-        }
-        return weight;
+    /**
+     * Get the piece value, the material value plus the tapered piece-square
+     * bonus.
+     *
+     * @param piece The chess piece.
+     * @param chessBoard The chess board, which determines the game phase.
+     * @return The value of the piece on its current square.
+     */
+    public int getPieceValue(ChessPiece piece, ChessBoard chessBoard) {
+        PieceType type = piece.getType();
+        int square = piece.getRow() * COLS + piece.getColumn();
+        return PieceSquareTables.PIECE_VALUES[type.ordinal()] + PieceSquareTables.taper(
+                PieceSquareTables.getMiddleGameBonus(type, piece.getColour(), square),
+                PieceSquareTables.getEndGameBonus(type, piece.getColour(), square),
+                chessBoard.getGamePhase());
     }
 
 }
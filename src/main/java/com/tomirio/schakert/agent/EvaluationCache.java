@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.agent;
+
+import java.util.Arrays;
+
+/**
+ * Direct-mapped cache of static evaluations. Within one search the same leaf
+ * positions are evaluated many times, through transpositions and the
+ * re-searches of iterative deepening. The cache is keyed by the Zobrist key of
+ * the position, which includes the side to move, and stores the score relative
+ * to the side to move. Entries are always replaced.
+ *
+ * @author Tom Sandmann
+ */
+public class EvaluationCache {
+
+    /**
+     * Default size of the cache in megabytes.
+     */
+    public static final int DEFAULT_HASH_SIZE = 1;
+    /**
+     * Returned by {@link #probe} if the cache does not contain the position.
+     */
+    public static final int MISS = Integer.MIN_VALUE;
+    /**
+     * Number of bytes used per entry.
+     */
+    private static final int ENTRY_SIZE = 12;
+
+    /**
+     * The keys of the entries.
+     */
+    private final long[] keys;
+    /**
+     * The scores of the entries.
+     */
+    private final int[] scores;
+    /**
+     * Mask to map a key to an index.
+     */
+    private final int mask;
+    /**
+     * The number of probes.
+     */
+    private long probes;
+    /**
+     * The number of probes that found the position.
+     */
+    private long hits;
+
+    /**
+     *
+     * @param sizeInMegaBytes The size of the cache in megabytes. The number of
+     * entries is rounded down to a power of two.
+     */
+    public EvaluationCache(int sizeInMegaBytes) {
+        long entries = Math.max(1L, ((long) sizeInMegaBytes << 20) / ENTRY_SIZE);
+        int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+        keys = new long[size];
+        scores = new int[size];
+        mask = size - 1;
+        clear();
+    }
+
+    /**
+     *
+     * @param key The Zobrist key of the position.
+     * @return The score relative to the side to move, or {@link #MISS}.
+     */
+    public int probe(long key) {
+        int index = (int) key & mask;
+        probes++;
+        if (keys[index] == key && scores[index] != MISS) {
+            hits++;
+            return scores[index];
+        }
+        return MISS;
+    }
+
+    /**
+     *
+     * @param key The Zobrist key of the position.
+     * @param score The score relative to the side to move.
+     */
+    public void store(long key, int score) {
+        int index = (int) key & mask;
+        keys[index] = key;
+        scores[index] = score;
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public final void clear() {
+        // An empty entry never matches, whatever its key.
+        Arrays.fill(scores, MISS);
+    }
+
+    /**
+     *
+     * @return The number of probes.
+     */
+    public long getProbes() {
+        return probes;
+    }
+
+    /**
+     *
+     * @return The number of probes that found the position.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.agent;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.chessboard.Colour;
+
+/**
+ * A static evaluation function used by the search.
+ *
+ * @author Tom Sandmann
+ */
+public interface Evaluator {
+
+    /**
+     * Evaluate a chess board. In order for negaMax to work, the score must be
+     * relative to the side being evaluated.
+     *
+     * @param chessBoard The chess board.
+     * @param playerColour The colour of the player for which we we want to
+     * evaluate the board.
+     * @param hasTurn The colour of the player that has turn.
+     * @return Value indicating the 'goodness' of the current board for the
+     * given colour of the player.
+     */
+    double evaluate(ChessBoard chessBoard, Colour playerColour, Colour hasTurn);
+
+}
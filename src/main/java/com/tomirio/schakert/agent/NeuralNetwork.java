@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.agent;
+
+import com.tomirio.schakert.chessboard.Colour;
+import com.tomirio.schakert.chessboard.PieceType;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The weights of a small quantized neural network for the evaluation, in the
+ * style of an efficiently updatable neural network (NNUE).
+ *
+ * The input layer has one feature per combination of piece colour, piece type
+ * and square, seen from the perspective of each side: 768 features. Its output,
+ * the accumulator, is kept up to date incrementally by an {@link Accumulator}
+ * that is attached to the chess board. The accumulator of the side to move and
+ * that of the other side are clipped to [0, {@link #QA}] and multiplied by the
+ * output weights to give the score.
+ *
+ * The weights are read from a little-endian binary file:
+ * <ol>
+ * <li>int32 magic number {@link #MAGIC}</li>
+ * <li>int32 hidden size <i>H</i></li>
+ * <li>int16 feature weights, <code>768 * H</code>, the <i>H</i> weights of a
+ * feature are consecutive</li>
+ * <li>int16 feature biases, <i>H</i></li>
+ * <li>int16 output weights, <code>2 * H</code>, first for the side to move</li>
+ * <li>int16 output bias, in the same units as the output weights</li>
+ * </ol>
+ * The file is memory mapped and the weights are copied into plain arrays, so
+ * that the loops over the hidden layer can be vectorised by the JIT compiler.
+ *
+ * @author Tom Sandmann
+ */
+public final class NeuralNetwork {
+
+    /**
+     * The number of input features.
+     */
+    public static final int INPUTS = 2 * 6 * 64;
+    /**
+     * The magic number at the start of a network file, "SNN1" in ASCII.
+     */
+    public static final int MAGIC = 0x314E4E53;
+    /**
+     * Quantization of the accumulator, its values are clipped to [0, QA].
+     */
+    public static final int QA = 255;
+    /**
+     * Quantization of the output weights.
+     */
+    public static final int QB = 64;
+    /**
+     * Scale of the output in centipawns.
+     */
+    public static final int SCALE = 400;
+    /**
+     * The largest supported hidden size.
+     */
+    private static final int MAX_HIDDEN_SIZE = 4096;
+
+    /**
+     * The size of the hidden layer.
+     */
+    final int hiddenSize;
+    /**
+     * The feature weights, the column of feature <i>f</i> starts at
+     * <code>f * hiddenSize</code>.
+     */
+    final short[] featureWeights;
+    /**
+     * The feature biases, the initial value of an accumulator.
+     */
+    final short[] featureBiases;
+    /**
+     * The output weights, first those for the side to move.
+     */
+    private final short[] outputWeights;
+    /**
+     * The output bias.
+     */
+    private final int outputBias;
+
+    /**
+     *
+     * @param featureWeights The feature weights.
+     * @param featureBiases The feature biases.
+     * @param outputWeights The output weights.
+     * @param outputBias The output bias.
+     */
+    NeuralNetwork(short[] featureWeights, short[] featureBiases, short[] outputWeights, short outputBias) {
+        this.hiddenSize = featureBiases.length;
+        this.featureWeights = featureWeights;
+        this.featureBiases = featureBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Load a network from a file.
+     *
+     * @param file The network file.
+     * @return The network.
+     * @throws IOException If the file could not be read or is not a valid
+     * network file.
+     */
+    public static NeuralNetwork load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a network file!");
+            }
+            int hiddenSize = buffer.getInt();
+            if (hiddenSize <= 0 || hiddenSize > MAX_HIDDEN_SIZE) {
+                throw new IOException("Unsupported hidden size " + hiddenSize + " in " + file);
+            }
+            long expected = 2L * ((long) INPUTS * hiddenSize + 3L * hiddenSize + 1);
+            if (buffer.remaining() != expected) {
+                throw new IOException(file + " has " + buffer.remaining() + " bytes of weights, expected "
+                        + expected);
+            }
+            short[] featureWeights = new short[INPUTS * hiddenSize];
+            short[] featureBiases = new short[hiddenSize];
+            short[] outputWeights = new short[2 * hiddenSize];
+            buffer.asShortBuffer().get(featureWeights).get(featureBiases).get(outputWeights);
+            buffer.position(buffer.position() + 2 * (featureWeights.length + featureBiases.length
+                    + outputWeights.length));
+            short outputBias = buffer.getShort();
+            for (short weight : outputWeights) {
+                // The output sum is computed in 32 bits.
+                if ((long) Math.abs(weight) * QA * outputWeights.length > Integer.MAX_VALUE) {
+                    throw new IOException("The output weight " + weight + " in " + file + " is too large!");
+                }
+            }
+            return new NeuralNetwork(featureWeights, featureBiases, outputWeights, outputBias);
+        }
+    }
+
+    /**
+     * Get the input feature of a chess piece on a square, seen from the
+     * perspective of one side. For black the board is mirrored vertically, so
+     * both sides see their own pieces in the same way.
+     *
+     * @param type The type of the chess piece.
+     * @param colour The colour of the chess piece.
+     * @param square The square, <code>row * 8 + column</code>.
+     * @param perspective The side from whose perspective the board is seen.
+     * @return The feature, between 0 and {@link #INPUTS}.
+     */
+    static int feature(PieceType type, Colour colour, int square, Colour perspective) {
+        int relativeSquare = (perspective == Colour.White) ? square : square ^ 56;
+        int relativeColour = (colour == perspective) ? 0 : 1;
+        return (relativeColour * 6 + type.ordinal()) * 64 + relativeSquare;
+    }
+
+    /**
+     * Compute the output of the network.
+     *
+     * @param sideToMove The accumulator of the side to move.
+     * @param otherSide The accumulator of the other side.
+     * @return The score relative to the side to move in centipawns.
+     */
+    int evaluate(short[] sideToMove, short[] otherSide) {
+        int sum = 0;
+        for (int i = 0; i < hiddenSize; i++) {
+            sum += Math.min(Math.max(sideToMove[i], 0), QA) * outputWeights[i];
+        }
+        for (int i = 0; i < hiddenSize; i++) {
+            sum += Math.min(Math.max(otherSide[i], 0), QA) * outputWeights[hiddenSize + i];
+        }
+        return (int) ((sum + (long) outputBias * QA) * SCALE / (QA * QB));
+    }
+
+    /**
+     *
+     * @return The size of the hidden layer.
+     */
+    public int getHiddenSize() {
+        return hiddenSize;
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.agent;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.chessboard.Colour;
+import com.tomirio.schakert.chessboard.PieceAccumulator;
+
+/**
+ * Evaluation by a {@link NeuralNetwork}. The first time a chess board is
+ * evaluated an {@link Accumulator} is attached to it, which the board keeps up
+ * to date while moves are made and unmade. Evaluating a position then only
+ * takes the output layer.
+ *
+ * @author Tom Sandmann
+ */
+public class NeuralNetworkEvaluation implements Evaluator {
+
+    /**
+     * The network.
+     */
+    private final NeuralNetwork network;
+
+    /**
+     *
+     * @param network The network.
+     */
+    public NeuralNetworkEvaluation(NeuralNetwork network) {
+        this.network = network;
+    }
+
+    @Override
+    public double evaluate(ChessBoard chessBoard, Colour playerColour, Colour hasTurn) {
+        PieceAccumulator attached = chessBoard.getAccumulator();
+        Accumulator accumulator;
+        if (attached instanceof Accumulator && ((Accumulator) attached).getNetwork() == network) {
+            accumulator = (Accumulator) attached;
+        } else {
+            accumulator = new Accumulator(network);
+            chessBoard.setAccumulator(accumulator);
+        }
+        int sideToMoveScore = accumulator.evaluate(chessBoard.getHasTurn());
+        double heuristicValue = (playerColour == chessBoard.getHasTurn()) ? sideToMoveScore : -sideToMoveScore;
+        return (playerColour == hasTurn) ? heuristicValue : -heuristicValue;
+    }
+
+    /**
+     *
+     * @return The network.
+     */
+    public NeuralNetwork getNetwork() {
+        return network;
+    }
+
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.agent;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import static com.tomirio.schakert.chessboard.ChessBoard.COLS;
+import static com.tomirio.schakert.chessboard.ChessBoard.ROWS;
+import com.tomirio.schakert.chessboard.ChessPiece;
+import com.tomirio.schakert.chessboard.Colour;
+import com.tomirio.schakert.chessboard.PieceType;
+
+/**
+ * Evaluation of the pawn structure: doubled, isolated, backward and passed
+ * pawns. The scores only depend on the pawns, so they are stored in a hash
+ * table keyed by the pawn key of the chess board. The pawn structure rarely
+ * changes between sibling nodes, so almost every evaluation is a table hit.
+ *
+ * All scores are white minus black, separately for the middle game and the
+ * end game.
+ *
+ * @author Tom Sandmann
+ */
+public class PawnEvaluation {
+
+    /**
+     * Default size of the pawn hash table in megabytes.
+     */
+    public static final int DEFAULT_HASH_SIZE = 1;
+    /**
+     * Number of bytes used per entry.
+     */
+    private static final int ENTRY_SIZE = 16;
+
+    private static final int DOUBLED_MIDDLE = -10;
+    private static final int DOUBLED_END = -20;
+    private static final int ISOLATED_MIDDLE = -10;
+    private static final int ISOLATED_END = -15;
+    private static final int BACKWARD_MIDDLE = -8;
+    private static final int BACKWARD_END = -10;
+    /**
+     * Bonus for a passed pawn in the end game, by the number of ranks it has
+     * advanced. Half of it is given in the middle game.
+     */
+    private static final int[] PASSED_END = {0, 5, 10, 20, 35, 60, 100, 0};
+
+    /**
+     * The pawn keys of the entries.
+     */
+    private final long[] keys;
+    /**
+     * The middle game scores of the entries.
+     */
+    private final int[] middleGameScores;
+    /**
+     * The end game scores of the entries.
+     */
+    private final int[] endGameScores;
+    /**
+     * Mask to map a key to an index.
+     */
+    private final int mask;
+    /**
+     * The number of probes.
+     */
+    private long probes;
+    /**
+     * The number of probes that found the pawn structure.
+     */
+    private long hits;
+    /**
+     * The middle game score of the last evaluated pawn structure.
+     */
+    private int middleGameScore;
+    /**
+     * The end game score of the last evaluated pawn structure.
+     */
+    private int endGameScore;
+
+    /**
+     *
+     * @param sizeInMegaBytes The size of the hash table in megabytes. The
+     * number of entries is rounded down to a power of two.
+     */
+    public PawnEvaluation(int sizeInMegaBytes) {
+        long entries = Math.max(1L, ((long) sizeInMegaBytes << 20) / ENTRY_SIZE);
+        int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+        keys = new long[size];
+        middleGameScores = new int[size];
+        endGameScores = new int[size];
+        mask = size - 1;
+        // Key 0 is the structure without pawns, for which the empty entries
+        // hold the correct scores.
+    }
+
+    /**
+     * Evaluate the pawn structure of a chess board, see
+     * {@link #getMiddleGameScore()} and {@link #getEndGameScore()} for the
+     * result.
+     *
+     * @param chessBoard The chess board.
+     */
+    public void evaluate(ChessBoard chessBoard) {
+        long key = chessBoard.getPawnKey();
+        int index = (int) key & mask;
+        probes++;
+        if (keys[index] == key) {
+            hits++;
+            middleGameScore = middleGameScores[index];
+            endGameScore = endGameScores[index];
+            return;
+        }
+        computeScores(chessBoard);
+        keys[index] = key;
+        middleGameScores[index] = middleGameScore;
+        endGameScores[index] = endGameScore;
+    }
+
+    /**
+     *
+     * @return The middle game score of the last evaluated pawn structure.
+     */
+    public int getMiddleGameScore() {
+        return middleGameScore;
+    }
+
+    /**
+     *
+     * @return The end game score of the last evaluated pawn structure.
+     */
+    public int getEndGameScore() {
+        return endGameScore;
+    }
+
+    /**
+     *
+     * @return The number of probes of the hash table.
+     */
+    public long getProbes() {
+        return probes;
+    }
+
+    /**
+     *
+     * @return The number of probes that found the pawn structure.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Compute the scores of the pawn structure of a chess board.
+     *
+     * @param chessBoard The chess board.
+     */
+    private void computeScores(ChessBoard chessBoard) {
+        // Per colour (0 is white, 1 is black) and file: the number of pawns
+        // and the smallest and largest row of a pawn.
+        int[][] count = new int[2][COLS];
+        int[][] minRow = new int[2][COLS];
+        int[][] maxRow = new int[2][COLS];
+        for (int side = 0; side < 2; side++) {
+            for (int col = 0; col < COLS; col++) {
+                minRow[side][col] = ROWS;
+                maxRow[side][col] = -1;
+            }
+        }
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLS; col++) {
+                ChessPiece p = chessBoard.getPiece(row, col);
+                if (p != null && p.getType() == PieceType.Pawn) {
+                    int side = (p.getColour() == Colour.White) ? 0 : 1;
+                    count[side][col]++;
+                    minRow[side][col] = Math.min(minRow[side][col], row);
+                    maxRow[side][col] = Math.max(maxRow[side][col], row);
+                }
+            }
+        }
+
+        middleGameScore = 0;
+        endGameScore = 0;
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLS; col++) {
+                ChessPiece p = chessBoard.getPiece(row, col);
+                if (p != null && p.getType() == PieceType.Pawn) {
+                    int sign = (p.getColour() == Colour.White) ? 1 : -1;
+                    int side = (sign == 1) ? 0 : 1;
+                    scorePawn(chessBoard, row, col, side, sign, count, minRow, maxRow);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the scores of a single pawn.
+     *
+     * @param chessBoard The chess board.
+     * @param row The row of the pawn.
+     * @param col The column of the pawn.
+     * @param side 0 for white, 1 for black.
+     * @param sign 1 for white, -1 for black.
+     * @param count The number of pawns per colour and file.
+     * @param minRow The smallest row of a pawn per colour and file.
+     * @param maxRow The largest row of a pawn per colour and file.
+     */
+    private void scorePawn(ChessBoard chessBoard, int row, int col, int side, int sign,
+            int[][] count, int[][] minRow, int[][] maxRow) {
+        int enemy = 1 - side;
+        // White pawns move to row 0, black pawns to row 7.
+        int forward = -sign;
+        int advanced = (sign == 1) ? 7 - row - 1 : row - 1;
+
+        if (count[side][col] > 1) {
+            // Every pawn on the file gets half of the penalty per extra pawn.
+            int extra = count[side][col] - 1;
+            middleGameScore += sign * DOUBLED_MIDDLE * extra / count[side][col];
+            endGameScore += sign * DOUBLED_END * extra / count[side][col];
+        }
+
+        boolean isolated = true;
+        boolean passed = true;
+        boolean supported = false;
+        for (int file = col - 1; file <= col + 1; file++) {
+            if (file < 0 || file >= COLS) {
+                continue;
+            }
+            // Enemy pawns ahead of this pawn on this or an adjacent file.
+            if ((sign == 1 && minRow[enemy][file] < row) || (sign == -1 && maxRow[enemy][file] > row)) {
+                passed = false;
+            }
+            if (file != col && count[side][file] > 0) {
+                isolated = false;
+                // A friendly pawn on an adjacent file that is level or behind.
+                if ((sign == 1 && maxRow[side][file] >= row) || (sign == -1 && minRow[side][file] <= row)) {
+                    supported = true;
+                }
+            }
+        }
+
+        if (isolated) {
+            middleGameScore += sign * ISOLATED_MIDDLE;
+            endGameScore += sign * ISOLATED_END;
+        } else if (!supported && isStopSquareAttacked(chessBoard, row + forward, col, sign)) {
+            middleGameScore += sign * BACKWARD_MIDDLE;
+            endGameScore += sign * BACKWARD_END;
+        }
+        if (passed && advanced > 0) {
+            middleGameScore += sign * PASSED_END[advanced] / 2;
+            endGameScore += sign * PASSED_END[advanced];
+        }
+    }
+
+    /**
+     * Check whether the square in front of a pawn is attacked by an enemy
+     * pawn.
+     *
+     * @param chessBoard The chess board.
+     * @param stopRow The row of the square in front of the pawn.
+     * @param col The column of the pawn.
+     * @param sign 1 for a white pawn, -1 for a black pawn.
+     * @return <code>True</code> if an enemy pawn attacks the square.
+     */
+    private static boolean isStopSquareAttacked(ChessBoard chessBoard, int stopRow, int col, int sign) {
+        // Enemy pawns attack the stop square from one row further ahead.
+        int attackerRow = stopRow - sign;
+        if (attackerRow < 0 || attackerRow >= ROWS) {
+            return false;
+        }
+        Colour enemy = (sign == 1) ? Colour.Black : Colour.White;
+        for (int file = col - 1; file <= col + 1; file += 2) {
+            if (file >= 0 && file < COLS) {
+                ChessPiece p = chessBoard.getPiece(attackerRow, file);
+                if (p != null && p.getType() == PieceType.Pawn && p.getColour() == enemy) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+}
@@ -1,133 +0,0 @@
-/*
- * Copyright (C) 2016 Tom Sandmann
- *
- * This program is free software: you can redistribute it and/or modify
- * it under the terms of the GNU General Public License as published by
- * the Free Software Foundation, either version 3 of the License, or
- * (at your option) any later version.
- *
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU General Public License for more details.
- *
- * You should have received a copy of the GNU General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- */
-package com.tomirio.schakert.agent;
-
-/**
- *
- * @author Tom Sandmann
- */
-public final class PieceSquareTables {
-
-    /*
-    Tables retrieved from:
-    http://chessprogramming.wikispaces.com/Simplified+evaluation+function
-    All tables are from the perspective of white.
-     */
-    /**
-     * Bishop values.
-     */
-    public final static int[][] BISHOP_TABLE = {
-        {-20, -10, -10, -10, -10, -10, -10, -20},
-        {-10, 0, 0, 0, 0, 0, 0, -10},
-        {-10, 0, 5, 10, 10, 5, 0, -10},
-        {-10, 5, 5, 10, 10, 5, 5, -10},
-        {-10, 0, 10, 10, 10, 10, 0, -10},
-        {-10, 10, 10, 10, 10, 10, 10, -10},
-        {-10, 5, 0, 0, 0, 0, 5, -10},
-        {-20, -10, -10, -10, -10, -10, -10, -20}
-    };
-
-    /**
-     * King values in end game.
-     */
-    public final static int[][] KING_TABLE_END = {
-        {-50, -40, -30, -20, -20, -30, -40, -50},
-        {-30, -20, -10, 0, 0, -10, -20, -30},
-        {-30, -10, 20, 30, 30, 20, -10, -30},
-        {-30, -10, 30, 40, 40, 30, -10, -30},
-        {-30, -10, 30, 40, 40, 30, -10, -30},
-        {-30, -10, 20, 30, 30, 20, -10, -30},
-        {-30, -30, 0, 0, 0, 0, -30, -30},
-        {-50, -30, -30, -30, -30, -30, -30, -50}
-    };
-    /**
-     * we should define where the ending begins. For me it might be either if: -
-     * Both sides have no queens, or - Every side which has a queen has
-     * additionally no other pieces or one minorpiece maximum.
-     *
-     * The 4 pieces (queen, rook, bishop, knight) are divided into major (or
-     * heavy) and minor pieces. The major (or heavy) pieces are the queen and
-     * rooks. The minor pieces are the bishops and knights.
-     */
-    public final static int[][] KING_TABLE_MIDDLE = {
-        {-30, -40, -40, -50, -50, -40, -40, -30},
-        {-30, -40, -40, -50, -50, -40, -40, -30},
-        {-30, -40, -40, -50, -50, -40, -40, -30},
-        {-30, -40, -40, -50, -50, -40, -40, -30},
-        {-20, -30, -30, -40, -40, -30, -30, -20},
-        {-10, -20, -20, -20, -20, -20, -20, -10},
-        {20, 20, 0, 0, 0, 0, 20, 20},
-        {20, 30, 10, 0, 0, 10, 30, 20}
-    };
-
-    /**
-     * Knight values.
-     */
-    public final static int[][] KNIGHT_TABLE = {
-        {-50, -40, -30, -30, -30, -30, -40, -50},
-        {-40, -20, 0, 0, 0, 0, -20, -40},
-        {-30, 0, 10, 15, 15, 10, 0, -30},
-        {-30, 5, 15, 20, 20, 15, 5, -30},
-        {-30, 0, 15, 20, 20, 15, 0, -30},
-        {-30, 5, 10, 15, 15, 10, 5, -30},
-        {-40, -20, 0, 5, 5, 0, -20, -40},
-        {-50, -40, -30, -30, -30, -30, -40, -50}
-    };
-
-    /**
-     * Pawn values.
-     */
-    public final static int[][] PAWN_TABLE = {
-        {0, 0, 0, 0, 0, 0, 0, 0},
-        {50, 50, 50, 50, 50, 50, 50, 50},
-        {10, 10, 20, 30, 30, 20, 10, 10},
-        {5, 5, 10, 25, 25, 10, 5, 5},
-        {0, 0, 0, 20, 20, 0, 0, 0},
-        {5, -5, -10, 0, 0, -10, -5, 5},
-        {5, 10, 10, -20, -20, 10, 10, 5},
-        {0, 0, 0, 0, 0, 0, 0, 0}
-    };
-
-    /**
-     * Queen values.
-     */
-    public final static int[][] QUEEN_TABLE = {
-        {-20, -10, -10, -5, -5, -10, -10, -20},
-        {-10, 0, 0, 0, 0, 0, 0, -10},
-        {-10, 0, 5, 5, 5, 5, 0, -10},
-        {-5, 0, 5, 5, 5, 5, 0, -5},
-        {0, 0, 5, 5, 5, 5, 0, -5},
-        {-10, 5, 5, 5, 5, 5, 0, -10},
-        {-10, 0, 5, 0, 0, 0, 0, -10},
-        {-20, -10, -10, -5, -5, -10, -10, -20}
-    };
-
-    /**
-     * Rook values.
-     */
-    public final static int[][] ROOK_TABLE = {
-        {0, 0, 0, 0, 0, 0, 0, 0},
-        {5, 10, 10, 10, 10, 10, 10, 5},
-        {-5, 0, 0, 0, 0, 0, 0, -5},
-        {-5, 0, 0, 0, 0, 0, 0, -5},
-        {-5, 0, 0, 0, 0, 0, 0, -5},
-        {-5, 0, 0, 0, 0, 0, 0, -5},
-        {-5, 0, 0, 0, 0, 0, 0, -5},
-        {0, 0, 0, 5, 5, 0, 0, 0}
-    };
-
-}
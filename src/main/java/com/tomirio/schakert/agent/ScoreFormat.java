@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.agent;
+
+import java.util.Locale;
+
+/**
+ * Writes search scores for the UCI protocol and for people. A score near
+ * {@link AI#MATE_SCORE} is a mate in a number of moves; an infinite score is a
+ * mate found by the evaluation, whose distance is the length of the principal
+ * variation.
+ *
+ * @author Tom Sandmann
+ */
+public final class ScoreFormat {
+
+    private ScoreFormat() {
+    }
+
+    /**
+     *
+     * @param score The score.
+     * @param pvLength The length of the principal variation, used for mates
+     * found by the evaluation.
+     * @return The number of moves to mate, negative if the side of the score
+     * is mated, or 0 if the score is not a mate.
+     */
+    public static int mateInMoves(double score, int pvLength) {
+        int plies;
+        if (Double.isInfinite(score)) {
+            plies = pvLength;
+        } else if (Math.abs(score) > AI.MATE_SCORE / 2) {
+            plies = (int) (AI.MATE_SCORE - Math.abs(score));
+        } else {
+            return 0;
+        }
+        int moves = Math.max(1, (plies + 1) / 2);
+        return (score > 0) ? moves : -moves;
+    }
+
+    /**
+     * Format a score as <code>cp &lt;centipawns&gt;</code> or
+     * <code>mate &lt;moves&gt;</code>.
+     *
+     * @param score The score, relative to the side to move.
+     * @param pvLength The length of the principal variation, used for mates
+     * found by the evaluation.
+     * @return The score in UCI notation.
+     */
+    public static String toUCI(double score, int pvLength) {
+        int mate = mateInMoves(score, pvLength);
+        return (mate == 0) ? "cp " + Math.round(score) : "mate " + mate;
+    }
+
+    /**
+     * Format a score in pawns, for example <code>+0.35</code>, or as a mate
+     * in a number of moves, for example <code>#3</code> or <code>#-2</code>.
+     *
+     * @param score The score.
+     * @param pvLength The length of the principal variation, used for mates
+     * found by the evaluation.
+     * @return The score.
+     */
+    public static String toPawns(double score, int pvLength) {
+        int mate = mateInMoves(score, pvLength);
+        return (mate == 0) ? String.format(Locale.ROOT, "%+.2f", score / 100) : "#" + mate;
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.agent;
+
+import com.tomirio.schakert.moves.Move;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executor shared by all games to run the searches of their agents. It
+ * has one thread per processor; searches of further games wait in the queue,
+ * up to {@link #QUEUE_CAPACITY} of them. Nothing blocks while waiting for a
+ * search, the result is delivered to a callback of the returned future
+ * instead. A game therefore costs no thread of its own, only its board and a
+ * queued task while its agent is thinking.
+ *
+ * The queue holds {@value #DEFAULT_QUEUE_CAPACITY} searches by default, enough
+ * for thousands of games whose agents think at the same time. It can be
+ * changed with the system property <code>schakert.searchQueueCapacity</code>.
+ * A search that does not fit in the queue is rejected, and its game has to
+ * handle the failed future.
+ *
+ * @author Tom Sandmann
+ */
+public final class SearchExecutor {
+
+    /**
+     * The number of search threads.
+     */
+    public static final int THREADS = Runtime.getRuntime().availableProcessors();
+    /**
+     * The system property with the queue capacity.
+     */
+    public static final String QUEUE_CAPACITY_PROPERTY = "schakert.searchQueueCapacity";
+    /**
+     * The queue capacity if the system property is not set.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 65536;
+    /**
+     * The maximum number of searches that wait for a thread. Further searches
+     * are rejected.
+     */
+    public static final int QUEUE_CAPACITY = Math.max(1,
+            Integer.getInteger(QUEUE_CAPACITY_PROPERTY, DEFAULT_QUEUE_CAPACITY));
+
+    /**
+     * The pool of search threads.
+     */
+    private static final ThreadPoolExecutor EXECUTOR;
+
+    static {
+        AtomicInteger threadNumber = new AtomicInteger();
+        EXECUTOR = new ThreadPoolExecutor(THREADS, THREADS, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "search-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private SearchExecutor() {
+    }
+
+    /**
+     * Let an agent search for its move.
+     *
+     * @param ai The agent.
+     * @return The move of the agent, completed on a search thread. If the
+     * queue is full, the future is completed exceptionally with a
+     * {@link RejectedExecutionException} right away.
+     */
+    public static CompletableFuture<Move> submit(AI ai) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return ai.call();
+                } catch (Exception ex) {
+                    throw new CompletionException(ex);
+                }
+            }, EXECUTOR);
+        } catch (RejectedExecutionException ex) {
+            CompletableFuture<Move> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(ex);
+            return rejected;
+        }
+    }
+
+    /**
+     *
+     * @return The number of searches waiting for a thread.
+     */
+    public static int getQueuedSearches() {
+        return EXECUTOR.getQueue().size();
+    }
+
+    /**
+     *
+     * @return The number of searches that are running.
+     */
+    public static int getActiveSearches() {
+        return EXECUTOR.getActiveCount();
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.agent;
+
+import com.tomirio.schakert.moves.Move;
+import java.util.List;
+
+/**
+ * Receives the progress of the searches of an {@link AI}. The methods are
+ * called on the thread that runs the search, so implementations should return
+ * quickly.
+ *
+ * @author Tom Sandmann
+ */
+public interface SearchListener {
+
+    /**
+     * Called after every completed iteration of iterative deepening.
+     *
+     * @param depth The depth of the iteration.
+     * @param score The score of the best move, relative to the side to move.
+     * @param principalVariation The principal variation in long algebraic
+     * notation.
+     * @param statistics The statistics of the search so far. They keep
+     * changing while the search continues, see {@link SearchStatistics#copy()}.
+     */
+    void iterationFinished(int depth, double score, List<String> principalVariation, SearchStatistics statistics);
+
+    /**
+     * Called regularly while an iteration is running, about every
+     * {@link AI#PROGRESS_INTERVAL} milliseconds, so the number of nodes and
+     * the speed of a long iteration can be followed before it is finished.
+     *
+     * @param depth The depth of the running iteration.
+     * @param statistics The statistics of the search so far.
+     */
+    void searchProgress(int depth, SearchStatistics statistics);
+
+    /**
+     * Called when the search is finished.
+     *
+     * @param bestMove The move that will be played.
+     * @param statistics The final statistics of the search.
+     */
+    void searchFinished(Move bestMove, SearchStatistics statistics);
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.agent;
+
+import com.tomirio.schakert.moves.Move;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Keeps the statistics of the searches of one or more {@link AI}s and exposes
+ * them as an MXBean, so they can be watched with any JMX client (for example
+ * VisualVM or jconsole).
+ *
+ * <pre>
+ * SearchMonitor monitor = new SearchMonitor();
+ * monitor.register("white");
+ * ai.addSearchListener(monitor);
+ * </pre>
+ *
+ * @author Tom Sandmann
+ */
+public class SearchMonitor implements SearchListener, SearchStatisticsMXBean {
+
+    /**
+     * The domain of the object names of the monitors.
+     */
+    public static final String DOMAIN = "com.tomirio.schakert";
+
+    /**
+     * The number of finished searches.
+     */
+    private final AtomicLong searches;
+    /**
+     * The number of nodes of all finished searches.
+     */
+    private final AtomicLong totalNodes;
+    /**
+     * The duration of all finished searches in nanoseconds.
+     */
+    private final AtomicLong totalTime;
+    /**
+     * The statistics of the last finished search.
+     */
+    private volatile SearchStatistics last;
+    /**
+     * The name under which this monitor is registered, or null.
+     */
+    private volatile ObjectName objectName;
+
+    /**
+     * Create a monitor without registering it.
+     */
+    public SearchMonitor() {
+        searches = new AtomicLong();
+        totalNodes = new AtomicLong();
+        totalTime = new AtomicLong();
+        last = new SearchStatistics();
+    }
+
+    /**
+     * Create a monitor and register it under the given name. If it cannot be
+     * registered, the monitor still collects statistics and a warning is
+     * logged, so a front end never fails because of its monitor.
+     *
+     * @param name The name of the monitor.
+     * @return The monitor.
+     */
+    public static SearchMonitor create(String name) {
+        SearchMonitor monitor = new SearchMonitor();
+        try {
+            monitor.register(name);
+        } catch (JMException ex) {
+            Logger.getLogger(SearchMonitor.class.getName()).log(Level.WARNING,
+                    "Could not register the search monitor " + name, ex);
+        }
+        return monitor;
+    }
+
+    /**
+     * Register this monitor with the platform MBean server under the name
+     * <code>com.tomirio.schakert:type=Search,name=&lt;name&gt;</code>.
+     *
+     * @param name The name of the monitor.
+     * @return The object name of the monitor.
+     * @throws JMException If the monitor could not be registered, for example
+     * because the name is already in use.
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName(DOMAIN + ":type=Search,name=" + ObjectName.quote(name));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, objectName);
+        this.objectName = objectName;
+        return objectName;
+    }
+
+    /**
+     * Remove this monitor from the platform MBean server, if it is
+     * registered.
+     */
+    public void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException ex) {
+            Logger.getLogger(SearchMonitor.class.getName()).log(Level.WARNING, null, ex);
+        }
+        objectName = null;
+    }
+
+    @Override
+    public void iterationFinished(int depth, double score, List<String> principalVariation, SearchStatistics statistics) {
+        // Only finished searches are recorded.
+    }
+
+    @Override
+    public void searchProgress(int depth, SearchStatistics statistics) {
+        // Only finished searches are recorded.
+    }
+
+    @Override
+    public void searchFinished(Move bestMove, SearchStatistics statistics) {
+        SearchStatistics copy = statistics.copy();
+        searches.incrementAndGet();
+        totalNodes.addAndGet(copy.getTotalNodes());
+        totalTime.addAndGet(copy.getElapsedTime());
+        last = copy;
+    }
+
+    @Override
+    public long getSearches() {
+        return searches.get();
+    }
+
+    @Override
+    public long getTotalNodes() {
+        return totalNodes.get();
+    }
+
+    @Override
+    public long getTotalTimeMillis() {
+        return totalTime.get() / 1000000;
+    }
+
+    @Override
+    public double getAverageNodesPerSecond() {
+        long time = totalTime.get();
+        return (time == 0) ? 0 : totalNodes.get() / (time / 1000000000.0);
+    }
+
+    @Override
+    public int getLastDepth() {
+        return last.getDepth();
+    }
+
+    @Override
+    public long getLastNodes() {
+        return last.getNodes();
+    }
+
+    @Override
+    public long getLastQuiescenceNodes() {
+        return last.getQuiescenceNodes();
+    }
+
+    @Override
+    public double getLastNodesPerSecond() {
+        return last.getNodesPerSecond();
+    }
+
+    @Override
+    public long getLastTableProbes() {
+        return last.getTableProbes();
+    }
+
+    @Override
+    public long getLastTableHits() {
+        return last.getTableHits();
+    }
+
+    @Override
+    public long getLastTableCutoffs() {
+        return last.getTableCutoffs();
+    }
+
+    @Override
+    public long getLastPawnTableProbes() {
+        return last.getPawnTableProbes();
+    }
+
+    @Override
+    public double getLastPawnTableHitRate() {
+        return last.getPawnTableHitRate();
+    }
+
+    @Override
+    public long getLastEvaluationCacheProbes() {
+        return last.getEvaluationCacheProbes();
+    }
+
+    @Override
+    public double getLastEvaluationCacheHitRate() {
+        return last.getEvaluationCacheHitRate();
+    }
+
+    @Override
+    public double getLastFirstMoveCutoffRate() {
+        return last.getFirstMoveCutoffRate();
+    }
+
+    @Override
+    public double getLastEffectiveBranchingFactor() {
+        return last.getEffectiveBranchingFactor();
+    }
+
+    @Override
+    public long getLastTimeMillis() {
+        return (searches.get() == 0) ? 0 : last.getElapsedTime() / 1000000;
+    }
+
+    @Override
+    public long[] getLastDepthTimesMillis() {
+        List<Long> depthTimes = last.getDepthTimes();
+        long[] millis = new long[depthTimes.size()];
+        for (int i = 0; i < millis.length; i++) {
+            millis[i] = depthTimes.get(i) / 1000000;
+        }
+        return millis;
+    }
+
+}
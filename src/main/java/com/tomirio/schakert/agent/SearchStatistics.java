@@ -0,0 +1,424 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.agent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Counters collected during a single search of the {@link AI}. The search
+ * increments the counters; listeners and monitors read them, or take a
+ * {@link #copy()} if they want to keep them after the search continues.
+ *
+ * @author Tom Sandmann
+ */
+public class SearchStatistics {
+
+    /**
+     * The number of nodes visited by the main search.
+     */
+    private long nodes;
+    /**
+     * The number of nodes visited by the quiescence search.
+     */
+    private long quiescenceNodes;
+    /**
+     * The number of transposition table probes.
+     */
+    private long tableProbes;
+    /**
+     * The number of probes that found an entry of the position.
+     */
+    private long tableHits;
+    /**
+     * The number of hits that ended the search of the node.
+     */
+    private long tableCutoffs;
+    /**
+     * The number of beta cutoffs.
+     */
+    private long betaCutoffs;
+    /**
+     * The number of beta cutoffs caused by the first move that was searched.
+     */
+    private long firstMoveCutoffs;
+    /**
+     * The number of pawn hash table probes.
+     */
+    private long pawnTableProbes;
+    /**
+     * The number of pawn hash table probes that found the pawn structure.
+     */
+    private long pawnTableHits;
+    /**
+     * The number of evaluation cache probes.
+     */
+    private long evaluationCacheProbes;
+    /**
+     * The number of evaluation cache probes that found the position.
+     */
+    private long evaluationCacheHits;
+    /**
+     * The deepest completed iteration.
+     */
+    private int depth;
+    /**
+     * The moment the search started, see {@link System#nanoTime()}.
+     */
+    private long startTime;
+    /**
+     * The duration of the search in nanoseconds, -1 while it is running.
+     */
+    private long elapsedTime;
+    /**
+     * The duration of every completed iteration in nanoseconds, by depth - 1.
+     */
+    private final List<Long> depthTimes;
+    /**
+     * The number of nodes (including quiescence nodes) of every completed
+     * iteration, by depth - 1.
+     */
+    private final List<Long> depthNodes;
+
+    /**
+     * Create empty statistics.
+     */
+    public SearchStatistics() {
+        depthTimes = new ArrayList<>();
+        depthNodes = new ArrayList<>();
+        elapsedTime = -1;
+    }
+
+    /**
+     * Create a copy of other statistics.
+     *
+     * @param other The statistics to copy.
+     */
+    private SearchStatistics(SearchStatistics other) {
+        nodes = other.nodes;
+        quiescenceNodes = other.quiescenceNodes;
+        tableProbes = other.tableProbes;
+        tableHits = other.tableHits;
+        tableCutoffs = other.tableCutoffs;
+        betaCutoffs = other.betaCutoffs;
+        firstMoveCutoffs = other.firstMoveCutoffs;
+        pawnTableProbes = other.pawnTableProbes;
+        pawnTableHits = other.pawnTableHits;
+        evaluationCacheProbes = other.evaluationCacheProbes;
+        evaluationCacheHits = other.evaluationCacheHits;
+        depth = other.depth;
+        startTime = other.startTime;
+        elapsedTime = other.getElapsedTime();
+        depthTimes = new ArrayList<>(other.depthTimes);
+        depthNodes = new ArrayList<>(other.depthNodes);
+    }
+
+    /**
+     *
+     * @return A copy of these statistics that is not updated by the search.
+     */
+    public SearchStatistics copy() {
+        return new SearchStatistics(this);
+    }
+
+    /**
+     * Start the clock.
+     */
+    void start() {
+        startTime = System.nanoTime();
+    }
+
+    /**
+     * Stop the clock.
+     */
+    void stop() {
+        elapsedTime = System.nanoTime() - startTime;
+    }
+
+    /**
+     * Record the completion of an iteration of iterative deepening.
+     *
+     * @param depth The depth of the iteration.
+     */
+    void iterationFinished(int depth) {
+        this.depth = depth;
+        long time = getElapsedTime();
+        long totalNodes = getTotalNodes();
+        for (int i = 0; i < depthTimes.size(); i++) {
+            time -= depthTimes.get(i);
+            totalNodes -= depthNodes.get(i);
+        }
+        depthTimes.add(time);
+        depthNodes.add(totalNodes);
+    }
+
+    void node() {
+        nodes++;
+    }
+
+    void quiescenceNode() {
+        quiescenceNodes++;
+    }
+
+    void tableProbe() {
+        tableProbes++;
+    }
+
+    void tableHit() {
+        tableHits++;
+    }
+
+    void tableCutoff() {
+        tableCutoffs++;
+    }
+
+    /**
+     *
+     * @param firstMove <code>True</code> if the cutoff was caused by the first
+     * move that was searched in the node.
+     */
+    void betaCutoff(boolean firstMove) {
+        betaCutoffs++;
+        if (firstMove) {
+            firstMoveCutoffs++;
+        }
+    }
+
+    /**
+     * Set the pawn hash table counters, which are kept by the evaluation.
+     *
+     * @param probes The number of probes during the search.
+     * @param hits The number of hits during the search.
+     */
+    void pawnTable(long probes, long hits) {
+        pawnTableProbes = probes;
+        pawnTableHits = hits;
+    }
+
+    /**
+     * Set the evaluation cache counters, which are kept by the evaluation.
+     *
+     * @param probes The number of probes during the search.
+     * @param hits The number of hits during the search.
+     */
+    void evaluationCache(long probes, long hits) {
+        evaluationCacheProbes = probes;
+        evaluationCacheHits = hits;
+    }
+
+    /**
+     *
+     * @return The number of nodes visited by the main search.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     *
+     * @return The number of nodes visited by the quiescence search.
+     */
+    public long getQuiescenceNodes() {
+        return quiescenceNodes;
+    }
+
+    /**
+     *
+     * @return The number of nodes visited by the main and the quiescence
+     * search.
+     */
+    public long getTotalNodes() {
+        return nodes + quiescenceNodes;
+    }
+
+    /**
+     *
+     * @return The number of transposition table probes.
+     */
+    public long getTableProbes() {
+        return tableProbes;
+    }
+
+    /**
+     *
+     * @return The number of probes that found an entry of the position.
+     */
+    public long getTableHits() {
+        return tableHits;
+    }
+
+    /**
+     *
+     * @return The number of table hits that ended the search of the node.
+     */
+    public long getTableCutoffs() {
+        return tableCutoffs;
+    }
+
+    /**
+     *
+     * @return The number of pawn hash table probes.
+     */
+    public long getPawnTableProbes() {
+        return pawnTableProbes;
+    }
+
+    /**
+     *
+     * @return The number of pawn hash table probes that found the pawn
+     * structure.
+     */
+    public long getPawnTableHits() {
+        return pawnTableHits;
+    }
+
+    /**
+     *
+     * @return The fraction of pawn hash table probes that found the pawn
+     * structure, between 0 and 1.
+     */
+    public double getPawnTableHitRate() {
+        return (pawnTableProbes == 0) ? 0 : (double) pawnTableHits / pawnTableProbes;
+    }
+
+    /**
+     *
+     * @return The number of evaluation cache probes.
+     */
+    public long getEvaluationCacheProbes() {
+        return evaluationCacheProbes;
+    }
+
+    /**
+     *
+     * @return The number of evaluation cache probes that found the position.
+     */
+    public long getEvaluationCacheHits() {
+        return evaluationCacheHits;
+    }
+
+    /**
+     *
+     * @return The fraction of evaluation cache probes that found the position,
+     * between 0 and 1.
+     */
+    public double getEvaluationCacheHitRate() {
+        return (evaluationCacheProbes == 0) ? 0 : (double) evaluationCacheHits / evaluationCacheProbes;
+    }
+
+    /**
+     *
+     * @return The number of beta cutoffs.
+     */
+    public long getBetaCutoffs() {
+        return betaCutoffs;
+    }
+
+    /**
+     * The fraction of beta cutoffs that was caused by the first move searched.
+     * With perfect move ordering this is 1.
+     *
+     * @return The first move cutoff rate, between 0 and 1.
+     */
+    public double getFirstMoveCutoffRate() {
+        return (betaCutoffs == 0) ? 0 : (double) firstMoveCutoffs / betaCutoffs;
+    }
+
+    /**
+     * The effective branching factor: the number of nodes of the last
+     * completed iteration divided by the number of nodes of the iteration
+     * before it.
+     *
+     * @return The effective branching factor, or 0 if less than two
+     * iterations were completed.
+     */
+    public double getEffectiveBranchingFactor() {
+        int iterations = depthNodes.size();
+        if (iterations < 2 || depthNodes.get(iterations - 2) == 0) {
+            return 0;
+        }
+        return (double) depthNodes.get(iterations - 1) / depthNodes.get(iterations - 2);
+    }
+
+    /**
+     *
+     * @return The deepest completed iteration.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     *
+     * @return The time spent on the search so far in nanoseconds.
+     */
+    public long getElapsedTime() {
+        return (elapsedTime == -1) ? System.nanoTime() - startTime : elapsedTime;
+    }
+
+    /**
+     *
+     * @return The number of main and quiescence nodes per second.
+     */
+    public double getNodesPerSecond() {
+        long time = getElapsedTime();
+        return (time <= 0) ? 0 : getTotalNodes() / (time / 1000000000.0);
+    }
+
+    /**
+     *
+     * @return The time spent on every completed iteration in nanoseconds,
+     * starting with depth 1.
+     */
+    public List<Long> getDepthTimes() {
+        return Collections.unmodifiableList(depthTimes);
+    }
+
+    /**
+     *
+     * @return The number of nodes of every completed iteration, starting with
+     * depth 1.
+     */
+    public List<Long> getDepthNodes() {
+        return Collections.unmodifiableList(depthNodes);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Depth: ").append(depth).append('\n');
+        sb.append("Nodes: ").append(nodes).append('\n');
+        sb.append("Quiescence nodes: ").append(quiescenceNodes).append('\n');
+        sb.append("Table probes: ").append(tableProbes).append(", hits: ").append(tableHits)
+                .append(", cutoffs: ").append(tableCutoffs).append('\n');
+        sb.append("Pawn table probes: ").append(pawnTableProbes).append(", hit rate: ")
+                .append(getPawnTableHitRate()).append('\n');
+        sb.append("Evaluation cache probes: ").append(evaluationCacheProbes).append(", hit rate: ")
+                .append(getEvaluationCacheHitRate()).append('\n');
+        sb.append("First move cutoff rate: ").append(getFirstMoveCutoffRate()).append('\n');
+        sb.append("Effective branching factor: ").append(getEffectiveBranchingFactor()).append('\n');
+        for (int i = 0; i < depthTimes.size(); i++) {
+            sb.append("Depth ").append(i + 1).append(": ").append(depthNodes.get(i)).append(" nodes, ")
+                    .append(depthTimes.get(i) / 1000000).append(" ms\n");
+        }
+        sb.append("Elapsed time: ").append(getElapsedTime() / 1000000000.0).append('\n');
+        sb.append("Nodes per second: ").append((long) getNodesPerSecond()).append('\n');
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.agent;
+
+/**
+ * Management interface of a {@link SearchMonitor}. The <code>Last</code>
+ * attributes describe the last finished search, the <code>Total</code>
+ * attributes all searches since the monitor was created.
+ *
+ * @author Tom Sandmann
+ */
+public interface SearchStatisticsMXBean {
+
+    long getSearches();
+
+    long getTotalNodes();
+
+    long getTotalTimeMillis();
+
+    double getAverageNodesPerSecond();
+
+    int getLastDepth();
+
+    long getLastNodes();
+
+    long getLastQuiescenceNodes();
+
+    double getLastNodesPerSecond();
+
+    long getLastTableProbes();
+
+    long getLastTableHits();
+
+    long getLastTableCutoffs();
+
+    long getLastPawnTableProbes();
+
+    /**
+     *
+     * @return The fraction of pawn hash table probes of the last search that
+     * found the pawn structure.
+     */
+    double getLastPawnTableHitRate();
+
+    long getLastEvaluationCacheProbes();
+
+    /**
+     *
+     * @return The fraction of evaluation cache probes of the last search that
+     * found the position.
+     */
+    double getLastEvaluationCacheHitRate();
+
+    double getLastFirstMoveCutoffRate();
+
+    double getLastEffectiveBranchingFactor();
+
+    long getLastTimeMillis();
+
+    /**
+     *
+     * @return The duration of every iteration of the last search in
+     * milliseconds, starting with depth 1.
+     */
+    long[] getLastDepthTimesMillis();
+
+}
@@ -17,53 +17,68 @@
 package com.tomirio.schakert.agent;
 
 /**
+ * The result of the search of a position, as stored in the
+ * {@link TranspositionTable}.
  *
  * @author Tom Sandmann
  */
 public class TranspositionEntry {
 
-    private final int alpha;
-    private boolean ancient;
-    private final int beta;
+    /**
+     * The score is exact.
+     */
+    public static final int EXACT = 0;
+    /**
+     * The score is a lower bound, the search failed high.
+     */
+    public static final int LOWER_BOUND = 1;
+    /**
+     * The score is an upper bound, the search failed low.
+     */
+    public static final int UPPER_BOUND = 2;
+
+    private final int bound;
     private final int depth;
-    private final int hash;
-    private final int score;
+    private final long key;
+    private final int move;
+    private final double score;
 
-    public TranspositionEntry(int hash, int depth, int score, boolean ancient, int alpha, int beta) {
-        this.hash = hash;
+    /**
+     *
+     * @param key The Zobrist key of the position.
+     * @param depth The remaining depth of the search.
+     * @param score The score, relative to the side to move.
+     * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or
+     * {@link #UPPER_BOUND}.
+     * @param move The code of the best move, see
+     * {@link TranspositionTable#moveCode}.
+     */
+    public TranspositionEntry(long key, int depth, double score, int bound, int move) {
+        this.key = key;
         this.depth = depth;
         this.score = score;
-        this.ancient = ancient;
-        this.alpha = alpha;
-        this.beta = beta;
-    }
-
-    public int getAlpha() {
-        return alpha;
+        this.bound = bound;
+        this.move = move;
     }
 
-    public int getBeta() {
-        return beta;
+    public int getBound() {
+        return bound;
     }
 
     public int getDepth() {
         return depth;
     }
 
-    public int getHash() {
-        return hash;
+    public long getKey() {
+        return key;
     }
 
-    public int getScore() {
-        return score;
+    public int getMove() {
+        return move;
     }
 
-    public boolean isAncient() {
-        return ancient;
-    }
-
-    public void setAncient(boolean ancient) {
-        this.ancient = ancient;
+    public double getScore() {
+        return score;
     }
 
 }
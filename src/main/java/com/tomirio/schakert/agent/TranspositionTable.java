@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.agent;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.moves.Move;
+import java.util.Arrays;
+
+/**
+ * Direct mapped hash table of search results, indexed by the Zobrist key of
+ * the position. An entry is replaced unless it was searched deeper than the
+ * new one and belongs to the current search.
+ *
+ * @author Tom Sandmann
+ */
+public class TranspositionTable {
+
+    /**
+     * The move code used when there is no best move.
+     */
+    public static final int NO_MOVE = -1;
+    /**
+     * Approximate number of bytes used per entry, including the entry object.
+     */
+    private static final int ENTRY_SIZE = 48;
+
+    /**
+     * The entries.
+     */
+    private final TranspositionEntry[] entries;
+    /**
+     * The search that stored each entry.
+     */
+    private final int[] ages;
+    /**
+     * Mask to map a key to an index.
+     */
+    private final int mask;
+    /**
+     * The current search. Agents that share the table read it from their own
+     * threads.
+     */
+    private volatile int age;
+
+    /**
+     *
+     * @param sizeInMegaBytes The size of the table in megabytes. The number of
+     * entries is rounded down to a power of two.
+     */
+    public TranspositionTable(int sizeInMegaBytes) {
+        long size = Math.max(1L, ((long) sizeInMegaBytes << 20) / ENTRY_SIZE);
+        int entryCount = Integer.highestOneBit((int) Math.min(size, 1 << 30));
+        entries = new TranspositionEntry[entryCount];
+        ages = new int[entryCount];
+        mask = entryCount - 1;
+    }
+
+    /**
+     * Get a code that identifies a move in its position. Promotions to
+     * different pieces share a code, the codes are only used to order moves.
+     *
+     * @param move The move, may be <code>null</code>.
+     * @return The code of the move, or {@link #NO_MOVE}.
+     */
+    public static int moveCode(Move move) {
+        if (move == null) {
+            return NO_MOVE;
+        }
+        int from = move.getOrgPos().getRow() * ChessBoard.COLS + move.getOrgPos().getColumn();
+        int to = move.getNewPos().getRow() * ChessBoard.COLS + move.getNewPos().getColumn();
+        return from * ChessBoard.ROWS * ChessBoard.COLS + to;
+    }
+
+    /**
+     * Start a new search, the entries of earlier searches may be replaced by
+     * shallower ones. If agents share the table, this is called once before
+     * they start, see {@link AI#setAgeTable(boolean)}.
+     */
+    public void newSearch() {
+        age++;
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        Arrays.fill(entries, null);
+    }
+
+    /**
+     *
+     * @param key The Zobrist key of the position.
+     * @return The entry of the position, or <code>null</code>.
+     */
+    public TranspositionEntry probe(long key) {
+        TranspositionEntry entry = entries[(int) key & mask];
+        return (entry != null && entry.getKey() == key) ? entry : null;
+    }
+
+    /**
+     *
+     * @param key The Zobrist key of the position.
+     * @param depth The remaining depth of the search.
+     * @param score The score, relative to the side to move.
+     * @param bound The kind of score, see {@link TranspositionEntry}.
+     * @param move The code of the best move, or {@link #NO_MOVE}.
+     */
+    public void store(long key, int depth, double score, int bound, int move) {
+        int index = (int) key & mask;
+        TranspositionEntry old = entries[index];
+        if (old != null && ages[index] == age && old.getKey() != key && old.getDepth() > depth) {
+            return;
+        }
+        entries[index] = new TranspositionEntry(key, depth, score, bound, move);
+        ages[index] = age;
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.book;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.chessboard.ChessPiece;
+import com.tomirio.schakert.chessboard.PieceType;
+import com.tomirio.schakert.moves.Move;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * An opening book in the Polyglot <code>.bin</code> format. The file is a
+ * sequence of 16 byte big-endian entries sorted by key: the 64 bit
+ * {@link PolyglotKey} of a position, a 16 bit move, a 16 bit weight and 32 bits
+ * of learning data. The file is memory mapped and the entries of a position
+ * are found by binary search, so opening a book is cheap and probing it does
+ * not read the whole file. The buffer is only read with absolute gets, so a
+ * book can be probed by several threads at once.
+ *
+ * @see <a href="http://hgm.nubati.net/book_format.html">
+ * http://hgm.nubati.net/book_format.html</a>
+ *
+ * @author Tom Sandmann
+ */
+public class PolyglotBook {
+
+    /**
+     * The size of an entry in bytes.
+     */
+    private static final int ENTRY_SIZE = 16;
+    /**
+     * The piece types to promote to, by the promotion code of a Polyglot move.
+     */
+    private static final String PROMOTIONS = " nbrq";
+
+    /**
+     * The mapped file.
+     */
+    private final MappedByteBuffer buffer;
+    /**
+     * The number of entries.
+     */
+    private final int size;
+
+    /**
+     * A move of the book with its weight.
+     */
+    public static final class Entry {
+
+        /**
+         * The move in long algebraic notation.
+         */
+        public final String move;
+        /**
+         * The weight of the move, higher is better.
+         */
+        public final int weight;
+
+        Entry(String move, int weight) {
+            this.move = move;
+            this.weight = weight;
+        }
+
+        @Override
+        public String toString() {
+            return move + " " + weight;
+        }
+    }
+
+    /**
+     * Open a book.
+     *
+     * @param file The book file.
+     * @throws IOException If the file could not be mapped, is not a Polyglot
+     * book or is larger than the 2 GB that one mapping can hold.
+     */
+    public PolyglotBook(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize % ENTRY_SIZE != 0) {
+                throw new IOException(file + " is not a Polyglot book!");
+            }
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException(file + " is larger than " + Integer.MAX_VALUE + " bytes");
+            }
+            // The mapping stays valid after the channel is closed.
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            size = (int) (fileSize / ENTRY_SIZE);
+        }
+    }
+
+    /**
+     *
+     * @return The number of entries of the book.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the moves of a position.
+     *
+     * @param chessBoard The chess board.
+     * @return The moves of the position in the book, in the order of the book.
+     */
+    public List<Entry> getEntries(ChessBoard chessBoard) {
+        long key = PolyglotKey.key(chessBoard);
+        List<Entry> entries = new ArrayList<>();
+        for (int i = lowerBound(key); i < size && buffer.getLong(offset(i)) == key; i++) {
+            int move = buffer.getShort(offset(i) + 8) & 0xFFFF;
+            int weight = buffer.getShort(offset(i) + 10) & 0xFFFF;
+            entries.add(new Entry(toLongAlgebraic(chessBoard, move), weight));
+        }
+        return entries;
+    }
+
+    /**
+     *
+     * @param index The index of an entry.
+     * @return The offset of the entry in the buffer. The book is at most
+     * {@link Integer#MAX_VALUE} bytes, so the offset of an entry fits in an
+     * int.
+     */
+    private static int offset(int index) {
+        return Math.toIntExact((long) index * ENTRY_SIZE);
+    }
+
+    /**
+     *
+     * @param key The key.
+     * @return The index of the first entry whose key is not smaller than the
+     * given key.
+     */
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(buffer.getLong(offset(middle)), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Convert a Polyglot move to long algebraic notation. Polyglot encodes
+     * castling as the king capturing its own rook.
+     *
+     * @param chessBoard The chess board.
+     * @param move The Polyglot move.
+     * @return The move in long algebraic notation.
+     */
+    private static String toLongAlgebraic(ChessBoard chessBoard, int move) {
+        int toFile = move & 7;
+        int toRank = (move >> 3) & 7;
+        int fromFile = (move >> 6) & 7;
+        int fromRank = (move >> 9) & 7;
+        int promotion = (move >> 12) & 7;
+        ChessPiece p = chessBoard.getPiece(7 - fromRank, fromFile);
+        if (p != null && p.getType() == PieceType.King && fromFile == 4 && fromRank == toRank) {
+            if (toFile == 7) {
+                toFile = 6;
+            } else if (toFile == 0) {
+                toFile = 2;
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append((char) ('a' + fromFile)).append(fromRank + 1).append((char) ('a' + toFile)).append(toRank + 1);
+        if (promotion > 0 && promotion < PROMOTIONS.length()) {
+            sb.append(PROMOTIONS.charAt(promotion));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Choose a book move for the current position.
+     *
+     * @param chessBoard The chess board.
+     * @param best <code>True</code> to choose the move with the highest weight,
+     * <code>False</code> to choose a move at random in proportion to its
+     * weight.
+     * @param random The random number generator.
+     * @return The legal move, or <code>null</code> if the position is not in
+     * the book.
+     */
+    public Move getMove(ChessBoard chessBoard, boolean best, Random random) {
+        List<Entry> entries = getEntries(chessBoard);
+        if (entries.isEmpty()) {
+            return null;
+        }
+        int totalWeight = 0;
+        Entry chosen = entries.get(0);
+        for (Entry entry : entries) {
+            totalWeight += entry.weight;
+            if (entry.weight > chosen.weight) {
+                chosen = entry;
+            }
+        }
+        if (!best && totalWeight > 0) {
+            int pick = random.nextInt(totalWeight);
+            for (Entry entry : entries) {
+                pick -= entry.weight;
+                if (pick < 0) {
+                    chosen = entry;
+                    break;
+                }
+            }
+        }
+        for (Move move : chessBoard.getPossibleMoves(chessBoard.getHasTurn())) {
+            if (move.toLongAlgebraicString().equals(chosen.move)) {
+                return move;
+            }
+        }
+        // A book entry that is not legal here, for example after a key
+        // collision.
+        return null;
+    }
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.chessboard;
+
+/**
+ * A compact, fixed-size snapshot of a chess board that only consists of
+ * primitive values. Copying a state is a single array copy plus a few fields,
+ * so a position can cheaply be handed to another thread, which builds its own
+ * board from it with {@link ChessBoard#ChessBoard(BoardState)}.
+ *
+ * Squares are indexed by <code>row * 8 + column</code>, in the same way as the
+ * rows and columns of {@link ChessBoard}.
+ *
+ * @author Tom Sandmann
+ */
+public final class BoardState {
+
+    /**
+     * Code used for an empty square.
+     */
+    public static final byte EMPTY = 0;
+    /**
+     * White can castle king side.
+     */
+    public static final int WHITE_KING_SIDE = 1;
+    /**
+     * White can castle queen side.
+     */
+    public static final int WHITE_QUEEN_SIDE = 2;
+    /**
+     * Black can castle king side.
+     */
+    public static final int BLACK_KING_SIDE = 4;
+    /**
+     * Black can castle queen side.
+     */
+    public static final int BLACK_QUEEN_SIDE = 8;
+    /**
+     * Value of the en passant square if there is no en passant target square.
+     */
+    public static final byte NO_SQUARE = -1;
+    /**
+     * The number of squares on the board.
+     */
+    public static final int SQUARES = ChessBoard.ROWS * ChessBoard.COLS;
+    /**
+     * All piece types, <code>PieceType.values()</code> copies the array on
+     * every call.
+     */
+    private static final PieceType[] TYPES = PieceType.values();
+
+    /**
+     * The piece codes of all squares, see {@link #pieceCode}.
+     */
+    private final byte[] squares;
+    /**
+     * The castling rights, a combination of the castling flags.
+     */
+    private byte castlingRights;
+    /**
+     * The en passant target square, or {@link #NO_SQUARE}.
+     */
+    private byte enPassantSquare;
+    /**
+     * <code>True</code> if white has turn, <code>False</code> otherwise.
+     */
+    private boolean whiteHasTurn;
+    /**
+     * The number of halfmoves since the last capture or pawn move.
+     */
+    private int halfMoveClock;
+    /**
+     * The number of the full move, starting at 1 and incremented after each
+     * move of black.
+     */
+    private int fullMoveNumber;
+
+    /**
+     * Create an empty state.
+     */
+    public BoardState() {
+        squares = new byte[SQUARES];
+        enPassantSquare = NO_SQUARE;
+        whiteHasTurn = true;
+        fullMoveNumber = 1;
+    }
+
+    /**
+     * Get the code of a chess piece. Codes for white pieces range from 1 to 6,
+     * those for black pieces from 7 to 12. Zero is used for an empty square.
+     *
+     * @param type The type of the chess piece.
+     * @param colour The colour of the chess piece.
+     * @return The code of the chess piece.
+     */
+    public static byte pieceCode(PieceType type, Colour colour) {
+        int code = type.ordinal() + 1;
+        return (byte) ((colour == Colour.White) ? code : code + TYPES.length);
+    }
+
+    /**
+     * Get the colour belonging to a piece code.
+     *
+     * @param code The piece code, may not be {@link #EMPTY}.
+     * @return The colour of the piece.
+     */
+    public static Colour colourOf(byte code) {
+        return (code <= TYPES.length) ? Colour.White : Colour.Black;
+    }
+
+    /**
+     * Get the type belonging to a piece code.
+     *
+     * @param code The piece code, may not be {@link #EMPTY}.
+     * @return The type of the piece.
+     */
+    public static PieceType typeOf(byte code) {
+        return TYPES[(code - 1) % TYPES.length];
+    }
+
+    /**
+     * Overwrite this state with the current state of a chess board.
+     *
+     * @param chessBoard The chess board.
+     */
+    public void copyFrom(ChessBoard chessBoard) {
+        for (int row = 0; row < ChessBoard.ROWS; row++) {
+            for (int col = 0; col < ChessBoard.COLS; col++) {
+                ChessPiece p = chessBoard.getPiece(row, col);
+                squares[row * ChessBoard.COLS + col] = (p == null)
+                        ? EMPTY : pieceCode(p.getType(), p.getColour());
+            }
+        }
+        castlingRights = (byte) chessBoard.getCastlingRights();
+        Position enPassant = chessBoard.getEnPassantTargetSquare();
+        enPassantSquare = (enPassant == null) ? NO_SQUARE
+                : (byte) (enPassant.getRow() * ChessBoard.COLS + enPassant.getColumn());
+        whiteHasTurn = chessBoard.getHasTurn() == Colour.White;
+        halfMoveClock = chessBoard.getHalfMoveClock();
+        fullMoveNumber = chessBoard.getFullMoveNumber();
+    }
+
+    /**
+     * Overwrite this state with another state.
+     *
+     * @param other The state to copy.
+     */
+    public void copyFrom(BoardState other) {
+        System.arraycopy(other.squares, 0, squares, 0, SQUARES);
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        whiteHasTurn = other.whiteHasTurn;
+        halfMoveClock = other.halfMoveClock;
+        fullMoveNumber = other.fullMoveNumber;
+    }
+
+    /**
+     *
+     * @return The castling rights, a combination of the castling flags.
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     *
+     * @param castlingRights The new castling rights.
+     */
+    public void setCastlingRights(int castlingRights) {
+        this.castlingRights = (byte) castlingRights;
+    }
+
+    /**
+     *
+     * @return The en passant target square, or {@link #NO_SQUARE}.
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     *
+     * @param enPassantSquare The new en passant target square, or
+     * {@link #NO_SQUARE}.
+     */
+    public void setEnPassantSquare(int enPassantSquare) {
+        this.enPassantSquare = (byte) enPassantSquare;
+    }
+
+    /**
+     *
+     * @return The colour of the player having turn.
+     */
+    public Colour getHasTurn() {
+        return whiteHasTurn ? Colour.White : Colour.Black;
+    }
+
+    /**
+     *
+     * @param hasTurn The colour of the player having turn.
+     */
+    public void setHasTurn(Colour hasTurn) {
+        whiteHasTurn = hasTurn == Colour.White;
+    }
+
+    /**
+     *
+     * @return The number of halfmoves since the last capture or pawn move.
+     */
+    public int getHalfMoveClock() {
+        return halfMoveClock;
+    }
+
+    /**
+     *
+     * @param halfMoveClock The number of halfmoves since the last capture or
+     * pawn move.
+     */
+    public void setHalfMoveClock(int halfMoveClock) {
+        this.halfMoveClock = halfMoveClock;
+    }
+
+    /**
+     *
+     * @return The number of the full move.
+     */
+    public int getFullMoveNumber() {
+        return fullMoveNumber;
+    }
+
+    /**
+     *
+     * @param fullMoveNumber The number of the full move.
+     */
+    public void setFullMoveNumber(int fullMoveNumber) {
+        this.fullMoveNumber = fullMoveNumber;
+    }
+
+    /**
+     *
+     * @param square The square.
+     * @return The piece code on the square.
+     */
+    public byte getPieceCode(int square) {
+        return squares[square];
+    }
+
+    /**
+     *
+     * @param square The square.
+     * @param code The piece code to put on the square.
+     */
+    public void setPieceCode(int square, byte code) {
+        squares[square] = code;
+    }
+
+}
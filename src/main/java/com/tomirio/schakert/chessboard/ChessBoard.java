@@ -16,10 +16,14 @@
  */
 package com.tomirio.schakert.chessboard;
 
+import com.tomirio.schakert.chesspieces.Bishop;
 import com.tomirio.schakert.chesspieces.King;
+import com.tomirio.schakert.chesspieces.Knight;
+import com.tomirio.schakert.chesspieces.Pawn;
 import com.tomirio.schakert.chesspieces.Queen;
 import com.tomirio.schakert.chesspieces.Rook;
-import com.tomirio.schakert.game.FENParser;
+import com.tomirio.schakert.game.EPDParser;
+import com.tomirio.schakert.game.FENFormatException;
 import com.tomirio.schakert.moves.Move;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -41,6 +45,36 @@ public class ChessBoard {
     public static final int ROWS = 8;
     public static final String START_POSITION
             = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    /**
+     * The layout of the state word: the castling rights in the lowest 4 bits,
+     * the en passant target square in the next 7 bits ({@link #NO_EN_PASSANT}
+     * if there is none), the halfmove clock in the next 16 bits and the
+     * fullmove number in the highest bits.
+     */
+    private static final int CASTLING_RIGHTS_MASK = 0xF;
+    private static final int EN_PASSANT_SHIFT = 4;
+    private static final int EN_PASSANT_MASK = 0x7F;
+    private static final int NO_EN_PASSANT = ROWS * COLS;
+    private static final int HALF_MOVE_CLOCK_SHIFT = 11;
+    private static final int HALF_MOVE_CLOCK_MASK = 0xFFFF;
+    private static final int FULL_MOVE_NUMBER_SHIFT = 27;
+    /**
+     * The castling rights that remain when a piece moves from or to a square.
+     * Moving the king or a rook from its initial square, or capturing a rook
+     * there, removes the castling rights that need it.
+     */
+    private static final int[] CASTLING_RIGHTS_KEPT = new int[ROWS * COLS];
+
+    static {
+        Arrays.fill(CASTLING_RIGHTS_KEPT, CASTLING_RIGHTS_MASK);
+        CASTLING_RIGHTS_KEPT[0] &= ~BoardState.BLACK_QUEEN_SIDE;
+        CASTLING_RIGHTS_KEPT[4] &= ~(BoardState.BLACK_KING_SIDE | BoardState.BLACK_QUEEN_SIDE);
+        CASTLING_RIGHTS_KEPT[7] &= ~BoardState.BLACK_KING_SIDE;
+        CASTLING_RIGHTS_KEPT[56] &= ~BoardState.WHITE_QUEEN_SIDE;
+        CASTLING_RIGHTS_KEPT[60] &= ~(BoardState.WHITE_KING_SIDE | BoardState.WHITE_QUEEN_SIDE);
+        CASTLING_RIGHTS_KEPT[63] &= ~BoardState.WHITE_KING_SIDE;
+    }
+
     /**
      * The black king.
      */
@@ -50,13 +84,15 @@ public class ChessBoard {
      */
     private final ChessPiece[][] board;
     /**
-     * The enPassant target square.
+     * The state of the position that is not visible from the pieces: the
+     * castling rights, the en passant target square, the halfmove clock and
+     * the fullmove number, packed in one word.
      */
-    private Position enPassantTargetSquare;
+    private long state;
     /**
-     * FEN parser.
+     * The parser of {@link #loadFEN}, created on first use.
      */
-    private FENParser fenParser;
+    private EPDParser fenParser;
     /**
      * Colour of the player having turn.
      */
@@ -65,15 +101,80 @@ public class ChessBoard {
      * The white king.
      */
     private King whiteKing;
+    /**
+     * Zobrist key of the pieces on the board, updated whenever a piece is
+     * placed, moved or removed.
+     */
+    private long pieceKey;
+    /**
+     * Zobrist key of the pawns on the board only, used by the pawn hash table
+     * of the evaluation.
+     */
+    private long pawnKey;
+    /**
+     * Material of white minus material of black, updated together with the
+     * Zobrist key.
+     */
+    private int materialScore;
+    /**
+     * Middle game piece-square bonus of white minus that of black, updated
+     * together with the Zobrist key.
+     */
+    private int middleGamePieceSquareScore;
+    /**
+     * End game piece-square bonus of white minus that of black, updated
+     * together with the Zobrist key.
+     */
+    private int endGamePieceSquareScore;
+    /**
+     * The game phase, the sum of the phase weights of all pieces on the
+     * board, see {@link PieceSquareTables#PHASE_WEIGHTS}.
+     */
+    private int gamePhase;
+    /**
+     * The number of pieces on the board, indexed by their
+     * {@link BoardState#pieceCode}.
+     */
+    private final int[] pieceCounts = new int[2 * PieceType.values().length + 1];
+    /**
+     * The accumulator of the pieces on the board, updated together with the
+     * Zobrist key, or <code>null</code>.
+     */
+    private PieceAccumulator accumulator;
+    /**
+     * The Zobrist keys of the positions since the chess board was loaded, the
+     * current position last. Moves push and pop their position, so the history
+     * contains both the moves of the game and those of the search.
+     */
+    private long[] keyHistory = new long[256];
+    /**
+     * The state word of every position of the history, so undoing a move only
+     * has to take the previous one.
+     */
+    private long[] stateHistory = new long[256];
+    /**
+     * The number of positions in the history.
+     */
+    private int historySize;
 
     /**
      * Constructor.
      */
     public ChessBoard() {
         board = new ChessPiece[ROWS][COLS];
-        fenParser = new FENParser(START_POSITION, this);
-        fenParser.parse();
-        hasTurn = fenParser.getHasTurn();
+        loadFEN(START_POSITION);
+    }
+
+    /**
+     * Create an independent chess board from a board state. This is cheaper
+     * than parsing a FEN string and is used to give parallel workers their own
+     * board.
+     *
+     * @param state The board state.
+     */
+    public ChessBoard(BoardState state) {
+        board = new ChessPiece[ROWS][COLS];
+        loadState(state);
     }
 
     /**
@@ -101,6 +202,16 @@ public class ChessBoard {
                 board[index][inner] = null;
             }
         }
+        pieceKey = 0L;
+        pawnKey = 0L;
+        materialScore = 0;
+        middleGamePieceSquareScore = 0;
+        endGamePieceSquareScore = 0;
+        gamePhase = 0;
+        Arrays.fill(pieceCounts, 0);
+        if (accumulator != null) {
+            accumulator.reset();
+        }
     }
 
     /**
@@ -109,17 +220,18 @@ public class ChessBoard {
      * @param pos The position of the chess piece that has to be deleted.
      */
     public void deletePieceOnPos(Position pos) {
-        board[pos.getRow()][pos.getColumn()] = null;
+        removePiece(pos.getRow(), pos.getColumn());
     }
 
     /**
      *
-     * @return <code>True</code> if the game is finished, <code>False</code>
-     * otherwise.
+     * @return <code>True</code> if the game is finished by checkmate,
+     * stalemate, threefold repetition or the fifty-move rule,
+     * <code>False</code> otherwise.
      */
     public boolean gameIsFinished() {
         return inCheckmate(Colour.Black) || inCheckmate(Colour.White)
-                || inStalemate();
+                || inStalemate() || isThreefoldRepetition() || isFiftyMoveRuleDraw();
     }
 
     /**
@@ -132,35 +244,67 @@ public class ChessBoard {
     }
 
     private String getCastlingAvailability() {
-        ArrayList<Rook> blackRooks = this.getRooks(Colour.Black);
-        ArrayList<Rook> whiteRooks = this.getRooks(Colour.White);
-        ArrayList<Rook> rooks = new ArrayList();
-        rooks.addAll(whiteRooks);
-        rooks.addAll(blackRooks);
-        StringBuilder castlingAvailability = new StringBuilder();
-        for (Rook rook : rooks) {
-            if (rook.getCastlingPossible()) {
-                // Rook was able to perform castling
-                King k = this.getKing(rook.getColour());
-                if (k.getCastlingPossible()) {
-                    // King was able to perform castling
-                    if (rook.getColumn() > k.getColumn()) {
-                        // King side rook
-                        castlingAvailability.append(k.toShortString());
-                    } else {
-                        // Queen side rook
-                        String queenSide = (k.getColour() == Colour.White) ? "Q" : "q";
-                        castlingAvailability.append(queenSide);
-                    }
-                }
-            }
-        }
-        if (castlingAvailability.length() == 0) {
+        int rights = getCastlingRights();
+        if (rights == 0) {
             return "-";
         }
+        StringBuilder castlingAvailability = new StringBuilder(4);
+        if ((rights & BoardState.WHITE_KING_SIDE) != 0) {
+            castlingAvailability.append('K');
+        }
+        if ((rights & BoardState.WHITE_QUEEN_SIDE) != 0) {
+            castlingAvailability.append('Q');
+        }
+        if ((rights & BoardState.BLACK_KING_SIDE) != 0) {
+            castlingAvailability.append('k');
+        }
+        if ((rights & BoardState.BLACK_QUEEN_SIDE) != 0) {
+            castlingAvailability.append('q');
+        }
         return castlingAvailability.toString();
     }
 
+    /**
+     * Get the castling rights. A side can castle to a side if neither its
+     * king nor the rook in the corner of that side have moved.
+     *
+     * @return The castling rights, a combination of the castling flags in
+     * {@link BoardState}.
+     */
+    public int getCastlingRights() {
+        return (int) state & CASTLING_RIGHTS_MASK;
+    }
+
+    /**
+     * Replace the castling rights of the current position.
+     *
+     * @param castlingRights The castling rights, a combination of the castling
+     * flags in {@link BoardState}.
+     */
+    public void setCastlingRights(int castlingRights) {
+        setState(pack(castlingRights, getEnPassantSquare(), getHalfMoveClock(), getFullMoveNumber()));
+    }
+
+    /**
+     *
+     * @param colour The colour.
+     * @param rookColumn The column of the rook.
+     * @return <code>True</code> if the king and the rook in the given column
+     * on the first rank of the given colour did not move, <code>False</code>
+     * otherwise.
+     */
+    public boolean canCastle(Colour colour, int rookColumn) {
+        int right;
+        if (rookColumn == COLS - 1) {
+            right = (colour == Colour.White) ? BoardState.WHITE_KING_SIDE : BoardState.BLACK_KING_SIDE;
+        } else if (rookColumn == 0) {
+            right = (colour == Colour.White) ? BoardState.WHITE_QUEEN_SIDE : BoardState.BLACK_QUEEN_SIDE;
+        } else {
+            return false;
+        }
+        return (getCastlingRights() & right) != 0;
+    }
+
     /**
      *
      * @param pos The position on the board.
@@ -185,7 +329,8 @@ public class ChessBoard {
     }
 
     private String getEnPassantFile() {
-        if (this.enPassantTargetSquare == null) {
+        Position enPassantTargetSquare = getEnPassantTargetSquare();
+        if (enPassantTargetSquare == null) {
             return "-";
         } else {
             return enPassantTargetSquare.toString();
@@ -193,23 +338,34 @@ public class ChessBoard {
     }
 
     /**
-     * Get the position of the pawn that currently is vulnerable for an
-     * enPassant capture.
      *
-     * @return The position of the pawn vulnerable for an enPassant capture.
+     * @return The en passant target square, <code>row * COLS + column</code>,
+     * or {@link BoardState#NO_SQUARE}.
+     */
+    private int getEnPassantSquare() {
+        int square = (int) (state >>> EN_PASSANT_SHIFT) & EN_PASSANT_MASK;
+        return (square == NO_EN_PASSANT) ? BoardState.NO_SQUARE : square;
+    }
+
+    /**
+     * Get the square that a pawn passed over with its last move, on which it
+     * can be captured en passant.
+     *
+     * @return The en passant target square, or <code>null</code>.
      */
     public Position getEnPassantTargetSquare() {
-        return enPassantTargetSquare;
+        int square = getEnPassantSquare();
+        return (square == BoardState.NO_SQUARE) ? null : new Position(square / COLS, square % COLS);
     }
 
     /**
-     * Update the position of the pawn that could be captured with an enPassant
-     * move.
+     * Replace the en passant target square of the current position.
      *
-     * @param newPos The position of the pawn.
+     * @param newPos The en passant target square, or <code>null</code>.
      */
     public void setEnPassantTargetSquare(Position newPos) {
-        enPassantTargetSquare = newPos;
+        int square = (newPos == null) ? BoardState.NO_SQUARE : newPos.getRow() * COLS + newPos.getColumn();
+        setState(pack(getCastlingRights(), square, getHalfMoveClock(), getFullMoveNumber()));
     }
 
     public String getFEN() {
@@ -236,19 +392,12 @@ public class ChessBoard {
         FEN.append(" ").append(hasTurn.toShortString());
         FEN.append(" ").append(getCastlingAvailability());
         FEN.append(" ").append(getEnPassantFile());
+        FEN.append(" ").append(getHalfMoveClock());
+        FEN.append(" ").append(getFullMoveNumber());
 
         return FEN.toString();
     }
 
-    /**
-     * Get the FEN parser.
-     *
-     * @return The FEN parser.
-     */
-    public FENParser getFENParser() {
-        return fenParser;
-    }
-
     /**
      *
      * @return The colour of the player having turn.
@@ -266,6 +415,30 @@ public class ChessBoard {
         return Arrays.deepHashCode(board);
     }
 
+    /**
+     * Get the Zobrist key of the current position. The key is equal for equal
+     * positions, including the side to move, the castling rights and the en
+     * passant target square.
+     *
+     * @return The Zobrist key.
+     */
+    public long getZobristKey() {
+        return pieceKey ^ Zobrist.sideToMove(hasTurn)
+                ^ Zobrist.castling(getCastlingRights())
+                ^ Zobrist.enPassant(getEnPassantSquare());
+    }
+
+    /**
+     * Get the Zobrist key of the pawn structure: the pawns of both colours,
+     * without the other pieces, the side to move, the castling rights and the
+     * en passant target square.
+     *
+     * @return The pawn key, 0 if there are no pawns.
+     */
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
     /**
      * Get the king based on a given colour
      *
@@ -321,7 +494,126 @@ public class ChessBoard {
      */
     public void setPiece(ChessPiece piece) {
         piece.setChessBoard(this);
+        removePiece(piece.getRow(), piece.getColumn());
         board[piece.getRow()][piece.getColumn()] = piece;
+        updateIncrementalValues(piece, piece.getRow(), piece.getColumn(), 1);
+    }
+
+    /**
+     * Remove the chess piece on a square, if any.
+     *
+     * @param row The row.
+     * @param column The column.
+     */
+    private void removePiece(int row, int column) {
+        ChessPiece piece = board[row][column];
+        if (piece != null) {
+            updateIncrementalValues(piece, row, column, -1);
+            board[row][column] = null;
+        }
+    }
+
+    /**
+     * Update the Zobrist key, the scores, the game phase and the piece counts
+     * for a chess piece that is placed on or removed from a square.
+     *
+     * @param piece The chess piece.
+     * @param row The row of the square.
+     * @param column The column of the square.
+     * @param sign 1 if the piece is placed, -1 if it is removed.
+     */
+    private void updateIncrementalValues(ChessPiece piece, int row, int column, int sign) {
+        long pieceNumber = Zobrist.piece(piece, row, column);
+        pieceKey ^= pieceNumber;
+        PieceType type = piece.getType();
+        if (type == PieceType.Pawn) {
+            pawnKey ^= pieceNumber;
+        }
+        Colour colour = piece.getColour();
+        int whiteSign = (colour == Colour.White) ? sign : -sign;
+        int square = row * COLS + column;
+        materialScore += whiteSign * PieceSquareTables.PIECE_VALUES[type.ordinal()];
+        middleGamePieceSquareScore += whiteSign * PieceSquareTables.getMiddleGameBonus(type, colour, square);
+        endGamePieceSquareScore += whiteSign * PieceSquareTables.getEndGameBonus(type, colour, square);
+        gamePhase += sign * PieceSquareTables.PHASE_WEIGHTS[type.ordinal()];
+        pieceCounts[BoardState.pieceCode(type, colour)] += sign;
+        if (accumulator != null) {
+            accumulator.update(type, colour, square, sign);
+        }
+    }
+
+    /**
+     *
+     * @return The material of white minus the material of black.
+     */
+    public int getMaterialScore() {
+        return materialScore;
+    }
+
+    /**
+     *
+     * @return The middle game piece-square bonus of white minus that of black.
+     */
+    public int getMiddleGamePieceSquareScore() {
+        return middleGamePieceSquareScore;
+    }
+
+    /**
+     *
+     * @return The end game piece-square bonus of white minus that of black.
+     */
+    public int getEndGamePieceSquareScore() {
+        return endGamePieceSquareScore;
+    }
+
+    /**
+     *
+     * @return The game phase, from 0 for bare kings and pawns up to
+     * {@link PieceSquareTables#MAX_PHASE} for the initial material (or more
+     * after promotions).
+     */
+    public int getGamePhase() {
+        return gamePhase;
+    }
+
+    /**
+     *
+     * @return The accumulator attached to this board, or <code>null</code>.
+     */
+    public PieceAccumulator getAccumulator() {
+        return accumulator;
+    }
+
+    /**
+     * Attach an accumulator, for example that of a neural network, to this
+     * board. It is filled with the pieces on the board and from then on
+     * updated whenever a piece is placed or removed.
+     *
+     * @param accumulator The accumulator, or <code>null</code> to detach it.
+     */
+    public void setAccumulator(PieceAccumulator accumulator) {
+        this.accumulator = accumulator;
+        if (accumulator != null) {
+            accumulator.reset();
+            for (int row = 0; row < ROWS; row++) {
+                for (int col = 0; col < COLS; col++) {
+                    ChessPiece p = board[row][col];
+                    if (p != null) {
+                        accumulator.update(p.getType(), p.getColour(), row * COLS + col, 1);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     *
+     * @param type The piece type.
+     * @param colour The colour.
+     * @return The number of pieces of the given type and colour on the board.
+     */
+    public int getPieceCount(PieceType type, Colour colour) {
+        return pieceCounts[BoardState.pieceCode(type, colour)];
     }
 
     /**
@@ -345,6 +637,20 @@ public class ChessBoard {
         return pieces;
     }
 
+    /**
+     * Get all the legal moves of the pieces having a specific colour.
+     *
+     * @param colour The colour of the pieces.
+     * @return An ArrayList with all legal moves for the given colour.
+     */
+    public ArrayList<Move> getPossibleMoves(Colour colour) {
+        ArrayList<Move> moves = new ArrayList<>();
+        for (ChessPiece p : getPieces(colour)) {
+            moves.addAll(p.getPossibleMoves());
+        }
+        return moves;
+    }
+
     /**
      * <b>Assuming</b> the rook is on its initial position, return the queenside
      * rook.
@@ -536,14 +842,245 @@ public class ChessBoard {
     }
 
     /**
-     * Load a FEN string.
+     * Load a FEN string. The parser is kept and reused for the next FEN
+     * string.
      *
      * @param FEN The FEN string.
+     * @throws FENFormatException If the FEN string is not valid, the board is
+     * not changed in that case.
      */
     public void loadFEN(String FEN) {
-        fenParser = new FENParser(FEN, this);
-        fenParser.parse();
-        hasTurn = fenParser.getHasTurn();
+        if (fenParser == null) {
+            fenParser = new EPDParser();
+        }
+        fenParser.parse(FEN, this);
+    }
+
+    /**
+     * Restore the chess board from a board state. The pieces are recreated, so
+     * references to pieces or moves of the previous position become invalid.
+     *
+     * @param state The board state.
+     */
+    public void loadState(BoardState state) {
+        clearBoard();
+        whiteKing = null;
+        blackKing = null;
+        for (int square = 0; square < BoardState.SQUARES; square++) {
+            byte code = state.getPieceCode(square);
+            if (code != BoardState.EMPTY) {
+                Position pos = new Position(square / COLS, square % COLS);
+                setPiece(createPiece(BoardState.typeOf(code), BoardState.colourOf(code), pos));
+            }
+        }
+        hasTurn = state.getHasTurn();
+        updateCheckStatus();
+        historySize = 1;
+        setState(pack(state.getCastlingRights(), state.getEnPassantSquare(),
+                state.getHalfMoveClock(), state.getFullMoveNumber()));
+    }
+
+    /**
+     * Pack the state of a position in one word.
+     *
+     * @param castlingRights The castling rights.
+     * @param enPassantSquare The en passant target square, or
+     * {@link BoardState#NO_SQUARE}.
+     * @param halfMoveClock The halfmove clock, at most 65535 is kept.
+     * @param fullMoveNumber The fullmove number, at least 1 is kept.
+     * @return The state word.
+     */
+    private static long pack(int castlingRights, int enPassantSquare, int halfMoveClock, int fullMoveNumber) {
+        int enPassant = (enPassantSquare == BoardState.NO_SQUARE) ? NO_EN_PASSANT : enPassantSquare;
+        return (castlingRights & CASTLING_RIGHTS_MASK)
+                | (long) enPassant << EN_PASSANT_SHIFT
+                | (long) Math.min(Math.max(halfMoveClock, 0), HALF_MOVE_CLOCK_MASK) << HALF_MOVE_CLOCK_SHIFT
+                | (long) Math.max(fullMoveNumber, 1) << FULL_MOVE_NUMBER_SHIFT;
+    }
+
+    /**
+     * Replace the state word of the current position and its Zobrist key in
+     * the history.
+     *
+     * @param newState The state word.
+     */
+    private void setState(long newState) {
+        state = newState;
+        stateHistory[historySize - 1] = newState;
+        keyHistory[historySize - 1] = getZobristKey();
+    }
+
+    /**
+     * Add the position after a move to the history. The state word of the
+     * position is derived from the previous one: the castling rights lose the
+     * rights that need the squares the move came from or went to, a double
+     * pawn push sets the en passant target square, a capture or pawn move
+     * resets the halfmove clock and a move of black increments the fullmove
+     * number. Called by {@link Move#doMove()} after the pieces moved.
+     *
+     * @param orgPos The original position of the moved piece.
+     * @param newPos The new position of the moved piece.
+     * @param pawnMove <code>True</code> if a pawn moved.
+     * @param captureMove <code>True</code> if the move was a capture.
+     */
+    public void pushPosition(Position orgPos, Position newPos, boolean pawnMove, boolean captureMove) {
+        if (historySize == keyHistory.length) {
+            keyHistory = Arrays.copyOf(keyHistory, 2 * historySize);
+            stateHistory = Arrays.copyOf(stateHistory, 2 * historySize);
+        }
+        int from = orgPos.getRow() * COLS + orgPos.getColumn();
+        int to = newPos.getRow() * COLS + newPos.getColumn();
+        int castlingRights = getCastlingRights() & CASTLING_RIGHTS_KEPT[from] & CASTLING_RIGHTS_KEPT[to];
+        int enPassantSquare = (pawnMove && Math.abs(from - to) == 2 * COLS)
+                ? (from + to) / 2 : BoardState.NO_SQUARE;
+        int halfMoveClock = (pawnMove || captureMove) ? 0 : getHalfMoveClock() + 1;
+        // The turn already passed, so black moved if white has turn
+        int fullMoveNumber = getFullMoveNumber() + ((hasTurn == Colour.White) ? 1 : 0);
+        historySize++;
+        setState(pack(castlingRights, enPassantSquare, halfMoveClock, fullMoveNumber));
+    }
+
+    /**
+     * Remove the current position from the history and restore the state word
+     * of the previous position. Called by {@link Move#undoMove()}.
+     */
+    public void popPosition() {
+        historySize--;
+        state = stateHistory[historySize - 1];
+    }
+
+    /**
+     * Copy the position history of another chess board in the same position,
+     * for example to give a board created from a {@link BoardState} the moves
+     * of the game that led to it.
+     *
+     * @param other The other chess board.
+     */
+    public void copyHistory(ChessBoard other) {
+        keyHistory = Arrays.copyOf(other.keyHistory, other.keyHistory.length);
+        stateHistory = Arrays.copyOf(other.stateHistory, other.stateHistory.length);
+        historySize = other.historySize;
+        state = other.state;
+    }
+
+    /**
+     *
+     * @return The number of halfmoves since the last capture or pawn move.
+     */
+    public int getHalfMoveClock() {
+        return (int) (state >>> HALF_MOVE_CLOCK_SHIFT) & HALF_MOVE_CLOCK_MASK;
+    }
+
+    /**
+     *
+     * @return The number of the full move, starting at 1 and incremented after
+     * each move of black.
+     */
+    public int getFullMoveNumber() {
+        return (int) (state >>> FULL_MOVE_NUMBER_SHIFT);
+    }
+
+    /**
+     * Count how often the current position occurred before. Only the
+     * positions since the last capture or pawn move are compared, earlier
+     * positions cannot be equal, and only those with the same player having
+     * turn. A position repeats at the earliest four plies later.
+     *
+     * @return The number of earlier occurrences of the current position.
+     */
+    public int getRepetitions() {
+        int current = historySize - 1;
+        long key = keyHistory[current];
+        int first = Math.max(0, current - getHalfMoveClock());
+        int repetitions = 0;
+        for (int i = current - 4; i >= first; i -= 2) {
+            if (keyHistory[i] == key) {
+                repetitions++;
+            }
+        }
+        return repetitions;
+    }
+
+    /**
+     *
+     * @return <code>True</code> if the current position occurred before. The
+     * search scores this as a draw, as the same moves can repeat it again.
+     */
+    public boolean isRepetition() {
+        return getRepetitions() > 0;
+    }
+
+    /**
+     *
+     * @return <code>True</code> if the current position occurred at least
+     * three times, which is a draw.
+     */
+    public boolean isThreefoldRepetition() {
+        return getRepetitions() >= 2;
+    }
+
+    /**
+     *
+     * @return <code>True</code> if no capture or pawn move was made in the
+     * last fifty moves of each player, which is a draw.
+     */
+    public boolean isFiftyMoveRuleDraw() {
+        return getHalfMoveClock() >= 100;
+    }
+
+    /**
+     * Set the check status of both kings after loading a position. Only the
+     * player having turn can be in check in a legal position, so only the
+     * pieces of the other player are tested against its king.
+     */
+    private void updateCheckStatus() {
+        King king = getKing(hasTurn);
+        getKing(hasTurn.getOpposite()).setCheck(false);
+        Position kingPos = king.getPos();
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLS; col++) {
+                ChessPiece piece = board[row][col];
+                if (piece != null && piece.getColour() != hasTurn && piece.posCanBeCaptured(kingPos)) {
+                    king.setCheck(true);
+                    return;
+                }
+            }
+        }
+        king.setCheck(false);
+    }
+
+    /**
+     * Create a chess piece that is not yet on the board. Kings are registered
+     * on the board.
+     *
+     * @param type The type of the chess piece.
+     * @param colour The colour of the chess piece.
+     * @param pos The position of the chess piece.
+     * @return The chess piece.
+     */
+    private ChessPiece createPiece(PieceType type, Colour colour, Position pos) {
+        switch (type) {
+            case King:
+                King k = new King(colour, pos);
+                if (colour == Colour.White) {
+                    whiteKing = k;
+                } else {
+                    blackKing = k;
+                }
+                return k;
+            case Queen:
+                return new Queen(colour, pos);
+            case Rook:
+                return new Rook(colour, pos);
+            case Bishop:
+                return new Bishop(colour, pos);
+            case Knight:
+                return new Knight(colour, pos);
+            case Pawn:
+                return new Pawn(colour, pos);
+            default:
+                throw new NoSuchElementException();
+        }
     }
 
     /**
@@ -571,9 +1108,11 @@ public class ChessBoard {
      *
      */
     public void silentMovePiece(ChessPiece piece, Position newPos) {
-        board[piece.getRow()][piece.getColumn()] = null;
+        removePiece(piece.getRow(), piece.getColumn());
+        removePiece(newPos.getRow(), newPos.getColumn());
         piece.setPosition(newPos);
         board[newPos.getRow()][newPos.getColumn()] = piece;
+        updateIncrementalValues(piece, newPos.getRow(), newPos.getColumn(), 1);
     }
 
     /**
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.chessboard;
+
+/**
+ * Incrementally updated features of the pieces on a chess board, for example
+ * the first layer of a neural network. The chess board it is attached to (see
+ * {@link ChessBoard#setAccumulator}) calls {@link #update} whenever a piece is
+ * placed or removed.
+ *
+ * @author Tom Sandmann
+ */
+public interface PieceAccumulator {
+
+    /**
+     * Reset the accumulator to that of an empty board.
+     */
+    void reset();
+
+    /**
+     * Add or remove a chess piece.
+     *
+     * @param type The type of the chess piece.
+     * @param colour The colour of the chess piece.
+     * @param square The square, <code>row * 8 + column</code>.
+     * @param sign 1 if the piece is placed, -1 if it is removed.
+     */
+    void update(PieceType type, Colour colour, int square, int sign);
+
+}
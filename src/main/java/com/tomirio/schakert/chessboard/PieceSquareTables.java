@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.chessboard;
+
+/**
+ *
+ * @author Tom Sandmann
+ */
+public final class PieceSquareTables {
+
+    /*
+    Tables retrieved from:
+    http://chessprogramming.wikispaces.com/Simplified+evaluation+function
+    All tables are from the perspective of white.
+     */
+    /**
+     * Bishop values in the middle game.
+     */
+    public final static int[][] BISHOP_TABLE = {
+        {-20, -10, -10, -10, -10, -10, -10, -20},
+        {-10, 0, 0, 0, 0, 0, 0, -10},
+        {-10, 0, 5, 10, 10, 5, 0, -10},
+        {-10, 5, 5, 10, 10, 5, 5, -10},
+        {-10, 0, 10, 10, 10, 10, 0, -10},
+        {-10, 10, 10, 10, 10, 10, 10, -10},
+        {-10, 5, 0, 0, 0, 0, 5, -10},
+        {-20, -10, -10, -10, -10, -10, -10, -20}
+    };
+
+    /**
+     * Bishop values in the end game.
+     */
+    public final static int[][] BISHOP_TABLE_END = {
+        {-20, -10, -10, -10, -10, -10, -10, -20},
+        {-10, 0, 0, 0, 0, 0, 0, -10},
+        {-10, 0, 5, 10, 10, 5, 0, -10},
+        {-10, 5, 10, 15, 15, 10, 5, -10},
+        {-10, 5, 10, 15, 15, 10, 5, -10},
+        {-10, 0, 5, 10, 10, 5, 0, -10},
+        {-10, 0, 0, 0, 0, 0, 0, -10},
+        {-20, -10, -10, -10, -10, -10, -10, -20}
+    };
+
+    /**
+     * King values in end game.
+     */
+    public final static int[][] KING_TABLE_END = {
+        {-50, -40, -30, -20, -20, -30, -40, -50},
+        {-30, -20, -10, 0, 0, -10, -20, -30},
+        {-30, -10, 20, 30, 30, 20, -10, -30},
+        {-30, -10, 30, 40, 40, 30, -10, -30},
+        {-30, -10, 30, 40, 40, 30, -10, -30},
+        {-30, -10, 20, 30, 30, 20, -10, -30},
+        {-30, -30, 0, 0, 0, 0, -30, -30},
+        {-50, -30, -30, -30, -30, -30, -30, -50}
+    };
+    /**
+     * we should define where the ending begins. For me it might be either if: -
+     * Both sides have no queens, or - Every side which has a queen has
+     * additionally no other pieces or one minorpiece maximum.
+     *
+     * The 4 pieces (queen, rook, bishop, knight) are divided into major (or
+     * heavy) and minor pieces. The major (or heavy) pieces are the queen and
+     * rooks. The minor pieces are the bishops and knights.
+     */
+    public final static int[][] KING_TABLE_MIDDLE = {
+        {-30, -40, -40, -50, -50, -40, -40, -30},
+        {-30, -40, -40, -50, -50, -40, -40, -30},
+        {-30, -40, -40, -50, -50, -40, -40, -30},
+        {-30, -40, -40, -50, -50, -40, -40, -30},
+        {-20, -30, -30, -40, -40, -30, -30, -20},
+        {-10, -20, -20, -20, -20, -20, -20, -10},
+        {20, 20, 0, 0, 0, 0, 20, 20},
+        {20, 30, 10, 0, 0, 10, 30, 20}
+    };
+
+    /**
+     * Knight values in the middle game.
+     */
+    public final static int[][] KNIGHT_TABLE = {
+        {-50, -40, -30, -30, -30, -30, -40, -50},
+        {-40, -20, 0, 0, 0, 0, -20, -40},
+        {-30, 0, 10, 15, 15, 10, 0, -30},
+        {-30, 5, 15, 20, 20, 15, 5, -30},
+        {-30, 0, 15, 20, 20, 15, 0, -30},
+        {-30, 5, 10, 15, 15, 10, 5, -30},
+        {-40, -20, 0, 5, 5, 0, -20, -40},
+        {-50, -40, -30, -30, -30, -30, -40, -50}
+    };
+
+    /**
+     * Knight values in the end game.
+     */
+    public final static int[][] KNIGHT_TABLE_END = {
+        {-50, -40, -30, -30, -30, -30, -40, -50},
+        {-40, -20, 0, 0, 0, 0, -20, -40},
+        {-30, 0, 10, 15, 15, 10, 0, -30},
+        {-30, 5, 15, 20, 20, 15, 5, -30},
+        {-30, 5, 15, 20, 20, 15, 5, -30},
+        {-30, 0, 10, 15, 15, 10, 0, -30},
+        {-40, -20, 0, 0, 0, 0, -20, -40},
+        {-50, -40, -30, -30, -30, -30, -40, -50}
+    };
+
+    /**
+     * Pawn values in the middle game.
+     */
+    public final static int[][] PAWN_TABLE = {
+        {0, 0, 0, 0, 0, 0, 0, 0},
+        {50, 50, 50, 50, 50, 50, 50, 50},
+        {10, 10, 20, 30, 30, 20, 10, 10},
+        {5, 5, 10, 25, 25, 10, 5, 5},
+        {0, 0, 0, 20, 20, 0, 0, 0},
+        {5, -5, -10, 0, 0, -10, -5, 5},
+        {5, 10, 10, -20, -20, 10, 10, 5},
+        {0, 0, 0, 0, 0, 0, 0, 0}
+    };
+
+    /**
+     * Pawn values in the end game, where advanced pawns are worth more and the
+     * king shelter no longer matters.
+     */
+    public final static int[][] PAWN_TABLE_END = {
+        {0, 0, 0, 0, 0, 0, 0, 0},
+        {80, 80, 80, 80, 80, 80, 80, 80},
+        {50, 50, 50, 50, 50, 50, 50, 50},
+        {30, 30, 30, 30, 30, 30, 30, 30},
+        {20, 20, 20, 20, 20, 20, 20, 20},
+        {10, 10, 10, 10, 10, 10, 10, 10},
+        {0, 0, 0, 0, 0, 0, 0, 0},
+        {0, 0, 0, 0, 0, 0, 0, 0}
+    };
+
+    /**
+     * Queen values in the middle game.
+     */
+    public final static int[][] QUEEN_TABLE = {
+        {-20, -10, -10, -5, -5, -10, -10, -20},
+        {-10, 0, 0, 0, 0, 0, 0, -10},
+        {-10, 0, 5, 5, 5, 5, 0, -10},
+        {-5, 0, 5, 5, 5, 5, 0, -5},
+        {0, 0, 5, 5, 5, 5, 0, -5},
+        {-10, 5, 5, 5, 5, 5, 0, -10},
+        {-10, 0, 5, 0, 0, 0, 0, -10},
+        {-20, -10, -10, -5, -5, -10, -10, -20}
+    };
+
+    /**
+     * Queen values in the end game.
+     */
+    public final static int[][] QUEEN_TABLE_END = {
+        {-20, -10, -10, -5, -5, -10, -10, -20},
+        {-10, 0, 0, 0, 0, 0, 0, -10},
+        {-10, 0, 5, 10, 10, 5, 0, -10},
+        {-5, 0, 10, 15, 15, 10, 0, -5},
+        {-5, 0, 10, 15, 15, 10, 0, -5},
+        {-10, 0, 5, 10, 10, 5, 0, -10},
+        {-10, 0, 0, 0, 0, 0, 0, -10},
+        {-20, -10, -10, -5, -5, -10, -10, -20}
+    };
+
+    /**
+     * Rook values in the middle game.
+     */
+    public final static int[][] ROOK_TABLE = {
+        {0, 0, 0, 0, 0, 0, 0, 0},
+        {5, 10, 10, 10, 10, 10, 10, 5},
+        {-5, 0, 0, 0, 0, 0, 0, -5},
+        {-5, 0, 0, 0, 0, 0, 0, -5},
+        {-5, 0, 0, 0, 0, 0, 0, -5},
+        {-5, 0, 0, 0, 0, 0, 0, -5},
+        {-5, 0, 0, 0, 0, 0, 0, -5},
+        {0, 0, 0, 5, 5, 0, 0, 0}
+    };
+
+    /**
+     * Rook values in the end game.
+     */
+    public final static int[][] ROOK_TABLE_END = {
+        {0, 0, 0, 0, 0, 0, 0, 0},
+        {10, 10, 10, 10, 10, 10, 10, 10},
+        {0, 0, 0, 0, 0, 0, 0, 0},
+        {0, 0, 0, 0, 0, 0, 0, 0},
+        {0, 0, 0, 0, 0, 0, 0, 0},
+        {0, 0, 0, 0, 0, 0, 0, 0},
+        {0, 0, 0, 0, 0, 0, 0, 0},
+        {0, 0, 0, 0, 0, 0, 0, 0}
+    };
+
+    /**
+     * Piece values, indexed by the ordinal of the {@link PieceType}.
+     */
+    public final static int[] PIECE_VALUES = {20000, 900, 500, 330, 300, 100};
+
+    /**
+     * The contribution of each piece type to the game phase, indexed by the
+     * ordinal of the {@link PieceType}.
+     */
+    public final static int[] PHASE_WEIGHTS = {0, 4, 2, 1, 1, 0};
+
+    /**
+     * The game phase of the initial position: the middle game. A phase of 0
+     * is a pure end game.
+     */
+    public final static int MAX_PHASE = 24;
+
+    /**
+     * The middle game tables of all piece types for white, indexed by the
+     * ordinal of the {@link PieceType} and the square <code>row * 8 +
+     * column</code>.
+     */
+    private final static int[][] WHITE_TABLES_MIDDLE = {
+        flatten(KING_TABLE_MIDDLE, false), flatten(QUEEN_TABLE, false),
+        flatten(ROOK_TABLE, false), flatten(BISHOP_TABLE, false),
+        flatten(KNIGHT_TABLE, false), flatten(PAWN_TABLE, false)
+    };
+
+    /**
+     * The same tables as {@link #WHITE_TABLES_MIDDLE}, mirrored for black.
+     */
+    private final static int[][] BLACK_TABLES_MIDDLE = {
+        flatten(KING_TABLE_MIDDLE, true), flatten(QUEEN_TABLE, true),
+        flatten(ROOK_TABLE, true), flatten(BISHOP_TABLE, true),
+        flatten(KNIGHT_TABLE, true), flatten(PAWN_TABLE, true)
+    };
+
+    /**
+     * The end game tables of all piece types for white.
+     */
+    private final static int[][] WHITE_TABLES_END = {
+        flatten(KING_TABLE_END, false), flatten(QUEEN_TABLE_END, false),
+        flatten(ROOK_TABLE_END, false), flatten(BISHOP_TABLE_END, false),
+        flatten(KNIGHT_TABLE_END, false), flatten(PAWN_TABLE_END, false)
+    };
+
+    /**
+     * The end game tables of all piece types for black.
+     */
+    private final static int[][] BLACK_TABLES_END = {
+        flatten(KING_TABLE_END, true), flatten(QUEEN_TABLE_END, true),
+        flatten(ROOK_TABLE_END, true), flatten(BISHOP_TABLE_END, true),
+        flatten(KNIGHT_TABLE_END, true), flatten(PAWN_TABLE_END, true)
+    };
+
+    private PieceSquareTables() {
+    }
+
+    /**
+     * Convert a table to an array indexed by square.
+     *
+     * @param table The table, from the perspective of white.
+     * @param mirror <code>True</code> to mirror the table for black.
+     * @return The table as a flat array.
+     */
+    public static int[] flatten(int[][] table, boolean mirror) {
+        int[] flat = new int[ChessBoard.ROWS * ChessBoard.COLS];
+        for (int row = 0; row < ChessBoard.ROWS; row++) {
+            for (int col = 0; col < ChessBoard.COLS; col++) {
+                flat[row * ChessBoard.COLS + col] = table[mirror ? 7 - row : row][col];
+            }
+        }
+        return flat;
+    }
+
+    /**
+     * Get the middle game bonus of a chess piece on a square.
+     *
+     * @param type The type of the chess piece.
+     * @param colour The colour of the chess piece.
+     * @param square The square, <code>row * 8 + column</code>.
+     * @return The bonus.
+     */
+    public static int getMiddleGameBonus(PieceType type, Colour colour, int square) {
+        int[][] tables = (colour == Colour.White) ? WHITE_TABLES_MIDDLE : BLACK_TABLES_MIDDLE;
+        return tables[type.ordinal()][square];
+    }
+
+    /**
+     * Get the end game bonus of a chess piece on a square.
+     *
+     * @param type The type of the chess piece.
+     * @param colour The colour of the chess piece.
+     * @param square The square, <code>row * 8 + column</code>.
+     * @return The bonus.
+     */
+    public static int getEndGameBonus(PieceType type, Colour colour, int square) {
+        int[][] tables = (colour == Colour.White) ? WHITE_TABLES_END : BLACK_TABLES_END;
+        return tables[type.ordinal()][square];
+    }
+
+    /**
+     * Interpolate between a middle game and an end game score.
+     *
+     * @param middleGameScore The middle game score.
+     * @param endGameScore The end game score.
+     * @param phase The game phase, from 0 (end game) to {@link #MAX_PHASE}
+     * (middle game). Larger values are treated as {@link #MAX_PHASE}.
+     * @return The tapered score.
+     */
+    public static int taper(int middleGameScore, int endGameScore, int phase) {
+        int p = Math.min(phase, MAX_PHASE);
+        return (middleGameScore * p + endGameScore * (MAX_PHASE - p)) / MAX_PHASE;
+    }
+
+}
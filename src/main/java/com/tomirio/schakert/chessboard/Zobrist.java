@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.chessboard;
+
+import java.util.Random;
+
+/**
+ * Random numbers used for Zobrist hashing of chess positions. The key of a
+ * position is the XOR of the numbers of every piece on its square, the castling
+ * rights, the file of the en passant target square and the side to move.
+ *
+ * @see <a href="https://chessprogramming.wikispaces.com/Zobrist+Hashing">
+ * https://chessprogramming.wikispaces.com/Zobrist+Hashing</a>
+ *
+ * @author Tom Sandmann
+ */
+public final class Zobrist {
+
+    /**
+     * Numbers for each piece code (see {@link BoardState#pieceCode}) on each
+     * square.
+     */
+    private static final long[][] PIECES = new long[13][BoardState.SQUARES];
+    /**
+     * Numbers for each combination of castling rights.
+     */
+    private static final long[] CASTLING = new long[16];
+    /**
+     * Numbers for the file of the en passant target square.
+     */
+    private static final long[] EN_PASSANT = new long[ChessBoard.COLS];
+    /**
+     * Number used when black has turn.
+     */
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        // Fixed seed, keys are equal between runs.
+        Random random = new Random(0x5C4A4E27L);
+        for (int code = 1; code < PIECES.length; code++) {
+            for (int square = 0; square < BoardState.SQUARES; square++) {
+                PIECES[code][square] = random.nextLong();
+            }
+        }
+        for (int i = 1; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT.length; i++) {
+            EN_PASSANT[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     *
+     * @param piece The chess piece.
+     * @param row The row the chess piece is on.
+     * @param column The column the chess piece is on.
+     * @return The number of the chess piece on the given square.
+     */
+    public static long piece(ChessPiece piece, int row, int column) {
+        return PIECES[BoardState.pieceCode(piece.getType(), piece.getColour())][row * ChessBoard.COLS + column];
+    }
+
+    /**
+     *
+     * @param castlingRights The castling rights, see {@link BoardState}.
+     * @return The number of the castling rights.
+     */
+    public static long castling(int castlingRights) {
+        return CASTLING[castlingRights];
+    }
+
+    /**
+     *
+     * @param enPassantTargetSquare The en passant target square, may be
+     * <code>null</code>.
+     * @return The number of the en passant target square.
+     */
+    public static long enPassant(Position enPassantTargetSquare) {
+        return (enPassantTargetSquare == null) ? 0L : EN_PASSANT[enPassantTargetSquare.getColumn()];
+    }
+
+    /**
+     *
+     * @param enPassantSquare The en passant target square,
+     * <code>row * COLS + column</code>, or {@link BoardState#NO_SQUARE}.
+     * @return The number of the en passant target square.
+     */
+    public static long enPassant(int enPassantSquare) {
+        return (enPassantSquare == BoardState.NO_SQUARE) ? 0L : EN_PASSANT[enPassantSquare % ChessBoard.COLS];
+    }
+
+    /**
+     *
+     * @param hasTurn The colour of the player having turn.
+     * @return The number of the side to move.
+     */
+    public static long sideToMove(Colour hasTurn) {
+        return (hasTurn == Colour.Black) ? BLACK_TO_MOVE : 0L;
+    }
+
+}
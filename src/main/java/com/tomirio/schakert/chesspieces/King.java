@@ -34,11 +34,6 @@ import java.util.ArrayList;
  */
 public class King extends ChessPiece {
 
-    /**
-     * Indicate if castling is possible
-     */
-    private boolean castlingPossible;
-
     /**
      * indicate if the king is check
      */
@@ -55,7 +50,6 @@ public class King extends ChessPiece {
     public King(Colour colour, Position pos) {
         super(PieceType.King, colour, pos);
         inCheck = false;
-        castlingPossible = true;
     }
 
     @Override
@@ -67,8 +61,7 @@ public class King extends ChessPiece {
         } else {
             King otherKing = (King) otherObject;
             return (otherKing.getColour() == getColour()
-                    && otherKing.getPos().equals(getPos())
-                    && getCastlingPossible() == otherKing.getCastlingPossible());
+                    && otherKing.getPos().equals(getPos()));
         }
     }
 
@@ -99,7 +92,7 @@ public class King extends ChessPiece {
     private ArrayList<Move> getCastlingMoves() {
         ArrayList<Move> castlingMoves = new ArrayList<>();
 
-        if (!castlingPossible) {
+        if (!getCastlingPossible()) {
             // Castling not possible, return empty list
             return castlingMoves;
         }
@@ -124,19 +117,12 @@ public class King extends ChessPiece {
 
     /**
      *
-     * @return <code>True</code> if castling is possible, <code>False</code>
-     * otherwise.
+     * @return <code>True</code> if the chess board has a castling right for
+     * this king, <code>False</code> otherwise.
      */
     public boolean getCastlingPossible() {
-        return castlingPossible;
-    }
-
-    /**
-     *
-     * @param newValue Set the variable castling possible
-     */
-    public void setCastlingPossible(boolean newValue) {
-        castlingPossible = newValue;
+        return chessBoard != null
+                && (chessBoard.canCastle(getColour(), 0) || chessBoard.canCastle(getColour(), ChessBoard.COLS - 1));
     }
 
     /**
@@ -274,7 +260,7 @@ public class King extends ChessPiece {
 
     @Override
     public String toString() {
-        return super.toString() + " Castling possible: " + this.castlingPossible;
+        return super.toString() + " Castling possible: " + getCastlingPossible();
     }
 
 }
@@ -32,8 +32,6 @@ import java.util.ArrayList;
  */
 public class Rook extends ChessPiece {
 
-    private boolean castlingPossible;
-
     /**
      * Constructor for new rook, use when the board is known at this moment. The
      * board MUST be manually set using the setBoard method.
@@ -43,12 +41,10 @@ public class Rook extends ChessPiece {
      */
     public Rook(Colour colour, Position pos) {
         super(PieceType.Rook, colour, pos);
-        castlingPossible = true;
     }
 
     public Rook(Colour colour, Position pos, ChessBoard chessBoard) {
         super(PieceType.Rook, colour, pos, chessBoard);
-        castlingPossible = true;
     }
 
     @Override
@@ -60,26 +56,19 @@ public class Rook extends ChessPiece {
         } else {
             Rook otherRook = (Rook) otherObject;
             return (otherRook.getColour() == getColour()
-                    && otherRook.getPos().equals(getPos())
-                    && getCastlingPossible() == otherRook.getCastlingPossible());
+                    && otherRook.getPos().equals(getPos()));
         }
     }
 
     /**
-     * @return <code>True</code> if castling is possible, <code>False</code>
-     * otherwise.
+     * @return <code>True</code> if this rook is in a corner of its first rank
+     * and the chess board has the castling right for that corner,
+     * <code>False</code> otherwise.
      */
     public boolean getCastlingPossible() {
-        return castlingPossible;
-    }
-
-    /**
-     * Set new value for castling possible variable.
-     *
-     * @param newValue
-     */
-    public void setCastlingPossible(boolean newValue) {
-        castlingPossible = newValue;
+        int firstRow = (getColour() == Colour.White) ? ChessBoard.ROWS - 1 : 0;
+        return chessBoard != null && getRow() == firstRow
+                && chessBoard.canCastle(getColour(), getColumn());
     }
 
     @Override
@@ -113,7 +102,7 @@ public class Rook extends ChessPiece {
     @Override
     public int hashCode() {
         int hash = 5;
-        hash = 67 * hash + (this.castlingPossible ? 1 : 0);
+        hash = 67 * hash + getColour().ordinal();
         return hash;
     }
 
@@ -124,7 +113,7 @@ public class Rook extends ChessPiece {
 
     @Override
     public String toString() {
-        return super.toString() + " castlingPossible: " + this.castlingPossible;
+        return super.toString() + " castlingPossible: " + getCastlingPossible();
     }
 
 }
@@ -0,0 +1,755 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.game;
+
+import com.tomirio.schakert.chessboard.BoardState;
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.chessboard.Colour;
+import com.tomirio.schakert.chessboard.PieceType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Single pass parser for FEN strings and EPD records, meant for loading large
+ * numbers of positions. A parser is reused: the record is copied into a char
+ * array that grows when needed, the position is collected in a
+ * {@link BoardState} and only then loaded into the chess board, so an invalid
+ * record leaves the board untouched. Errors are reported with a
+ * {@link FENFormatException} that holds the offset of the offending character.
+ * Besides the syntax, positions that cannot arise in a game are rejected:
+ * missing or extra kings, pawns on the first or last rank, castling rights
+ * without the king and rook on their squares and a side not to move that is
+ * in check.
+ *
+ * The four position fields may be followed either by the halfmove clock and
+ * the fullmove number (FEN) or by operations (EPD). Every operation is an
+ * opcode, zero or more operands and a semicolon. The opcodes <code>bm</code>
+ * (best moves), <code>am</code> (avoid moves), <code>id</code> and
+ * <code>ce</code> (centipawn evaluation) are kept, other opcodes are skipped.
+ *
+ * A parser is not thread safe, every thread needs its own parser.
+ *
+ * @see <a href="https://chessprogramming.wikispaces.com/Extended+Position+Description">
+ * https://chessprogramming.wikispaces.com/Extended+Position+Description</a>
+ *
+ * @author Tom Sandmann
+ */
+public final class EPDParser {
+
+    /**
+     * Returned by {@link #getCentipawnEvaluation} if the record has no
+     * <code>ce</code> operation.
+     */
+    public static final int NO_EVALUATION = Integer.MIN_VALUE;
+    /**
+     * The letters of the piece types, in the order of {@link PieceType}.
+     */
+    private static final String PIECE_LETTERS = "KQRBNP";
+    /**
+     * The piece code of every ASCII character, {@link BoardState#EMPTY} for
+     * characters that are not a piece letter.
+     */
+    private static final byte[] PIECE_CODES = new byte[128];
+    private static final byte WHITE_KING = BoardState.pieceCode(PieceType.King, Colour.White);
+    private static final byte BLACK_KING = BoardState.pieceCode(PieceType.King, Colour.Black);
+    private static final byte WHITE_ROOK = BoardState.pieceCode(PieceType.Rook, Colour.White);
+    private static final byte BLACK_ROOK = BoardState.pieceCode(PieceType.Rook, Colour.Black);
+    private static final byte WHITE_PAWN = BoardState.pieceCode(PieceType.Pawn, Colour.White);
+    private static final byte BLACK_PAWN = BoardState.pieceCode(PieceType.Pawn, Colour.Black);
+    /**
+     * The row and column steps of a knight.
+     */
+    private static final int[][] KNIGHT_STEPS = {
+        {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}
+    };
+    /**
+     * The row and column steps of a rook, followed by those of a bishop. A
+     * king steps once in each of them.
+     */
+    private static final int[][] DIRECTIONS = {
+        {-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}
+    };
+
+    static {
+        PieceType[] types = PieceType.values();
+        for (int i = 0; i < types.length; i++) {
+            char letter = PIECE_LETTERS.charAt(i);
+            PIECE_CODES[letter] = BoardState.pieceCode(types[i], Colour.White);
+            PIECE_CODES[Character.toLowerCase(letter)] = BoardState.pieceCode(types[i], Colour.Black);
+        }
+    }
+
+    /**
+     * The characters of the record that is parsed.
+     */
+    private char[] chars = new char[128];
+    /**
+     * The offset of the first character of the record.
+     */
+    private int start;
+    /**
+     * The offset after the last character of the record.
+     */
+    private int end;
+    /**
+     * The offset of the next character to parse.
+     */
+    private int pos;
+
+    /**
+     * The parsed position.
+     */
+    private final BoardState state = new BoardState();
+    /**
+     * The number of halfmoves since the last capture or pawn advance.
+     */
+    private int halfMoveClock;
+    /**
+     * The number of the full move.
+     */
+    private int fullMoveNumber;
+    /**
+     * The operands of the <code>bm</code> operation.
+     */
+    private final List<String> bestMoves = new ArrayList<>();
+    /**
+     * The operands of the <code>am</code> operation.
+     */
+    private final List<String> avoidMoves = new ArrayList<>();
+    /**
+     * The operand of the <code>id</code> operation, or <code>null</code>.
+     */
+    private String id;
+    /**
+     * The operand of the <code>ce</code> operation, or
+     * {@link #NO_EVALUATION}.
+     */
+    private int centipawnEvaluation;
+
+    /**
+     * Parse a record and load the position into a chess board.
+     *
+     * @param record The FEN string or EPD record.
+     * @param chessBoard The chess board, which is only changed if the record
+     * is valid.
+     * @throws FENFormatException If the record is not valid.
+     */
+    public void parse(String record, ChessBoard chessBoard) {
+        parse(record);
+        load(chessBoard);
+    }
+
+    /**
+     * Parse a record without loading it into a chess board.
+     *
+     * @param record The FEN string or EPD record.
+     * @throws FENFormatException If the record is not valid.
+     */
+    public void parse(String record) {
+        int length = record.length();
+        if (length > chars.length) {
+            chars = new char[Math.max(length, 2 * chars.length)];
+        }
+        record.getChars(0, length, chars, 0);
+        parseRecord(0, length);
+    }
+
+    /**
+     * Parse a record from a char array without copying it.
+     *
+     * @param record The characters, which are not modified.
+     * @param offset The offset of the first character of the record.
+     * @param length The number of characters of the record.
+     * @throws FENFormatException If the record is not valid, the offset of the
+     * exception is relative to the first character of the record.
+     */
+    public void parse(char[] record, int offset, int length) {
+        char[] buffer = chars;
+        chars = record;
+        try {
+            parseRecord(offset, offset + length);
+        } finally {
+            chars = buffer;
+        }
+    }
+
+    /**
+     *
+     * @param record The FEN string or EPD record.
+     * @return <code>True</code> if the record is valid, <code>False</code>
+     * otherwise.
+     */
+    public boolean isValid(String record) {
+        try {
+            parse(record);
+            return true;
+        } catch (FENFormatException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Load the last parsed position into a chess board.
+     *
+     * @param chessBoard The chess board.
+     */
+    public void load(ChessBoard chessBoard) {
+        chessBoard.loadState(state);
+    }
+
+    /**
+     *
+     * @return The last parsed position.
+     */
+    public BoardState getState() {
+        return state;
+    }
+
+    /**
+     *
+     * @return The halfmove clock, 0 if the record does not contain it.
+     */
+    public int getHalfMoveClock() {
+        return halfMoveClock;
+    }
+
+    /**
+     *
+     * @return The fullmove number, 1 if the record does not contain it.
+     */
+    public int getFullMoveNumber() {
+        return fullMoveNumber;
+    }
+
+    /**
+     *
+     * @return The best moves in standard algebraic notation, empty if the
+     * record has no <code>bm</code> operation. The list is reused by the next
+     * parse.
+     */
+    public List<String> getBestMoves() {
+        return Collections.unmodifiableList(bestMoves);
+    }
+
+    /**
+     *
+     * @return The moves to avoid in standard algebraic notation, empty if the
+     * record has no <code>am</code> operation. The list is reused by the next
+     * parse.
+     */
+    public List<String> getAvoidMoves() {
+        return Collections.unmodifiableList(avoidMoves);
+    }
+
+    /**
+     *
+     * @return The identifier of the record, or <code>null</code>.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     *
+     * @return The centipawn evaluation from the point of view of the side to
+     * move, or {@link #NO_EVALUATION}.
+     */
+    public int getCentipawnEvaluation() {
+        return centipawnEvaluation;
+    }
+
+    private FENFormatException error(String message) {
+        return new FENFormatException(message, pos - start);
+    }
+
+    private void parseRecord(int start, int end) {
+        this.start = start;
+        this.end = end;
+        pos = start;
+        halfMoveClock = 0;
+        fullMoveNumber = 1;
+        bestMoves.clear();
+        avoidMoves.clear();
+        id = null;
+        centipawnEvaluation = NO_EVALUATION;
+
+        skipWhiteSpace();
+        parsePiecePlacement();
+        expectWhiteSpace();
+        parseSideToMove();
+        expectWhiteSpace();
+        parseCastlingRights();
+        expectWhiteSpace();
+        parseEnPassant();
+        if (pos < end && !isWhiteSpace(chars[pos])) {
+            throw error("Expected white space");
+        }
+        skipWhiteSpace();
+        if (pos < end && isNumberStart()) {
+            int numberStart = pos;
+            halfMoveClock = parseNumber();
+            if (halfMoveClock < 0) {
+                pos = numberStart;
+                throw error("Negative halfmove clock");
+            }
+            expectWhiteSpace();
+            numberStart = pos;
+            fullMoveNumber = parseNumber();
+            if (fullMoveNumber < 0) {
+                pos = numberStart;
+                throw error("Negative fullmove number");
+            }
+            skipWhiteSpace();
+        }
+        state.setHalfMoveClock(halfMoveClock);
+        state.setFullMoveNumber(fullMoveNumber);
+        parseOperations();
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * An EPD opcode starts with a letter, so a digit or a sign followed by a
+     * digit can only be the halfmove clock.
+     *
+     * @return <code>True</code> if a number starts at the current offset.
+     */
+    private boolean isNumberStart() {
+        char c = chars[pos];
+        if (c == '-' || c == '+') {
+            return pos + 1 < end && isDigit(chars[pos + 1]);
+        }
+        return isDigit(c);
+    }
+
+    private static boolean isWhiteSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private void skipWhiteSpace() {
+        while (pos < end && isWhiteSpace(chars[pos])) {
+            pos++;
+        }
+    }
+
+    private void expectWhiteSpace() {
+        if (pos < end && !isWhiteSpace(chars[pos])) {
+            throw error("Expected white space");
+        }
+        skipWhiteSpace();
+        if (pos == end) {
+            throw error("Unexpected end of the record");
+        }
+    }
+
+    /**
+     * Parse the ranks from rank 8 to rank 1. Every square of the state is
+     * written, there is no need to clear it first.
+     */
+    private void parsePiecePlacement() {
+        int row = 0;
+        int column = 0;
+        int whiteKings = 0;
+        int blackKings = 0;
+        int whitePawns = 0;
+        int blackPawns = 0;
+        while (pos < end && !isWhiteSpace(chars[pos])) {
+            char c = chars[pos];
+            if (c == '/') {
+                if (column != ChessBoard.COLS) {
+                    throw error("Rank " + (ChessBoard.ROWS - row) + " has " + column + " squares instead of 8");
+                }
+                if (row == ChessBoard.ROWS - 1) {
+                    throw error("More than 8 ranks");
+                }
+                row++;
+                column = 0;
+            } else if (c >= '1' && c <= '8') {
+                int emptySquares = c - '0';
+                if (column + emptySquares > ChessBoard.COLS) {
+                    throw error("Rank " + (ChessBoard.ROWS - row) + " has more than 8 squares");
+                }
+                for (int i = 0; i < emptySquares; i++) {
+                    state.setPieceCode(row * ChessBoard.COLS + column++, BoardState.EMPTY);
+                }
+            } else {
+                byte code = (c < PIECE_CODES.length) ? PIECE_CODES[c] : BoardState.EMPTY;
+                if (code == BoardState.EMPTY) {
+                    throw error("Invalid piece letter '" + c + "'");
+                }
+                if (column == ChessBoard.COLS) {
+                    throw error("Rank " + (ChessBoard.ROWS - row) + " has more than 8 squares");
+                }
+                if (code == WHITE_KING && ++whiteKings > 1 || code == BLACK_KING && ++blackKings > 1) {
+                    throw error("More than one king of the same colour");
+                }
+                if (code == WHITE_PAWN || code == BLACK_PAWN) {
+                    if (row == 0 || row == ChessBoard.ROWS - 1) {
+                        throw error("Pawn on the first or last rank");
+                    }
+                    if (code == WHITE_PAWN && ++whitePawns > 8 || code == BLACK_PAWN && ++blackPawns > 8) {
+                        throw error("More than 8 pawns of the same colour");
+                    }
+                }
+                state.setPieceCode(row * ChessBoard.COLS + column++, code);
+            }
+            pos++;
+        }
+        if (row != ChessBoard.ROWS - 1 || column != ChessBoard.COLS) {
+            throw error("The piece placement does not have 8 ranks of 8 squares");
+        }
+        if (whiteKings == 0 || blackKings == 0) {
+            throw error("Both sides need a king");
+        }
+    }
+
+    private void parseSideToMove() {
+        char c = chars[pos];
+        if (c == 'w') {
+            state.setHasTurn(Colour.White);
+        } else if (c == 'b') {
+            state.setHasTurn(Colour.Black);
+        } else {
+            throw error("Expected 'w' or 'b' for the side to move");
+        }
+        Colour hasTurn = state.getHasTurn();
+        byte otherKing = (hasTurn == Colour.White) ? BLACK_KING : WHITE_KING;
+        if (isAttacked(findPiece(otherKing), hasTurn)) {
+            throw error("The side not to move is in check");
+        }
+        pos++;
+    }
+
+    private int findPiece(byte code) {
+        for (int square = 0; square < BoardState.SQUARES; square++) {
+            if (state.getPieceCode(square) == code) {
+                return square;
+            }
+        }
+        return BoardState.NO_SQUARE;
+    }
+
+    /**
+     *
+     * @return The piece code on a square of the parsed position,
+     * {@link BoardState#EMPTY} if the square is empty or off the board.
+     */
+    private byte pieceAt(int row, int column) {
+        if (row < 0 || row >= ChessBoard.ROWS || column < 0 || column >= ChessBoard.COLS) {
+            return BoardState.EMPTY;
+        }
+        return state.getPieceCode(row * ChessBoard.COLS + column);
+    }
+
+    /**
+     * Check whether a square of the parsed position is attacked by the pieces
+     * of a colour.
+     *
+     * @param square The square.
+     * @param colour The colour of the attacking pieces.
+     * @return <code>True</code> if a piece of the colour attacks the square,
+     * <code>False</code> otherwise.
+     */
+    private boolean isAttacked(int square, Colour colour) {
+        int row = square / ChessBoard.COLS;
+        int column = square % ChessBoard.COLS;
+        // White pawns capture towards rank 8, which is row 0.
+        int pawnRow = (colour == Colour.White) ? row + 1 : row - 1;
+        byte pawn = (colour == Colour.White) ? WHITE_PAWN : BLACK_PAWN;
+        if (pieceAt(pawnRow, column - 1) == pawn || pieceAt(pawnRow, column + 1) == pawn) {
+            return true;
+        }
+        byte knight = BoardState.pieceCode(PieceType.Knight, colour);
+        for (int[] step : KNIGHT_STEPS) {
+            if (pieceAt(row + step[0], column + step[1]) == knight) {
+                return true;
+            }
+        }
+        byte king = (colour == Colour.White) ? WHITE_KING : BLACK_KING;
+        byte queen = BoardState.pieceCode(PieceType.Queen, colour);
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            byte slider = BoardState.pieceCode((i < 4) ? PieceType.Rook : PieceType.Bishop, colour);
+            int r = row + DIRECTIONS[i][0];
+            int c = column + DIRECTIONS[i][1];
+            if (pieceAt(r, c) == king) {
+                return true;
+            }
+            while (r >= 0 && r < ChessBoard.ROWS && c >= 0 && c < ChessBoard.COLS) {
+                byte code = pieceAt(r, c);
+                if (code == slider || code == queen) {
+                    return true;
+                }
+                if (code != BoardState.EMPTY) {
+                    break;
+                }
+                r += DIRECTIONS[i][0];
+                c += DIRECTIONS[i][1];
+            }
+        }
+        return false;
+    }
+
+    private void parseCastlingRights() {
+        int rights = 0;
+        if (chars[pos] == '-') {
+            pos++;
+        } else {
+            while (pos < end && !isWhiteSpace(chars[pos])) {
+                int right;
+                switch (chars[pos]) {
+                    case 'K':
+                        right = castlingRight(BoardState.WHITE_KING_SIDE, 60, WHITE_KING, 63, WHITE_ROOK);
+                        break;
+                    case 'Q':
+                        right = castlingRight(BoardState.WHITE_QUEEN_SIDE, 60, WHITE_KING, 56, WHITE_ROOK);
+                        break;
+                    case 'k':
+                        right = castlingRight(BoardState.BLACK_KING_SIDE, 4, BLACK_KING, 7, BLACK_ROOK);
+                        break;
+                    case 'q':
+                        right = castlingRight(BoardState.BLACK_QUEEN_SIDE, 4, BLACK_KING, 0, BLACK_ROOK);
+                        break;
+                    default:
+                        throw error("Invalid castling right '" + chars[pos] + "'");
+                }
+                if ((rights & right) != 0) {
+                    throw error("Duplicate castling right '" + chars[pos] + "'");
+                }
+                rights |= right;
+                pos++;
+            }
+        }
+        state.setCastlingRights(rights);
+    }
+
+    /**
+     * Check that the king and the rook of a castling right are on their
+     * initial squares.
+     *
+     * @return The castling right.
+     */
+    private int castlingRight(int right, int kingSquare, byte king, int rookSquare, byte rook) {
+        if (state.getPieceCode(kingSquare) != king || state.getPieceCode(rookSquare) != rook) {
+            throw error("Castling right '" + chars[pos] + "' without the king and the rook on their initial squares");
+        }
+        return right;
+    }
+
+    private void parseEnPassant() {
+        if (chars[pos] == '-') {
+            state.setEnPassantSquare(BoardState.NO_SQUARE);
+            pos++;
+            return;
+        }
+        char file = chars[pos];
+        char rank = (pos + 1 < end) ? chars[pos + 1] : ' ';
+        char expectedRank = (state.getHasTurn() == Colour.White) ? '6' : '3';
+        if (file < 'a' || file > 'h' || rank != expectedRank) {
+            throw error("Invalid en passant target square");
+        }
+        state.setEnPassantSquare((ChessBoard.ROWS - (rank - '0')) * ChessBoard.COLS + (file - 'a'));
+        pos += 2;
+    }
+
+    private int parseNumber() {
+        boolean negative = pos < end && chars[pos] == '-';
+        if (negative || pos < end && chars[pos] == '+') {
+            pos++;
+        }
+        int numberStart = pos;
+        int number = 0;
+        while (pos < end && isDigit(chars[pos])) {
+            if (pos - numberStart == 9) {
+                throw error("Number too large");
+            }
+            number = 10 * number + (chars[pos] - '0');
+            pos++;
+        }
+        if (pos == numberStart) {
+            throw error("Expected a number");
+        }
+        return negative ? -number : number;
+    }
+
+    /**
+     * Parse the EPD operations until the end of the record.
+     */
+    private void parseOperations() {
+        while (pos < end) {
+            int opcodeStart = pos;
+            while (pos < end && !isWhiteSpace(chars[pos]) && chars[pos] != ';') {
+                pos++;
+            }
+            int opcodeLength = pos - opcodeStart;
+            if (opcodeLength == 0) {
+                throw error("Expected an opcode");
+            }
+            if (isOpcode(opcodeStart, opcodeLength, "bm")) {
+                parseMoves(bestMoves);
+            } else if (isOpcode(opcodeStart, opcodeLength, "am")) {
+                parseMoves(avoidMoves);
+            } else if (isOpcode(opcodeStart, opcodeLength, "id")) {
+                id = parseOperand();
+                expectSemicolon();
+            } else if (isOpcode(opcodeStart, opcodeLength, "ce")) {
+                skipWhiteSpace();
+                centipawnEvaluation = parseNumber();
+                expectSemicolon();
+            } else {
+                while (nextOperand()) {
+                    skipOperand();
+                }
+                pos++;
+            }
+            skipWhiteSpace();
+        }
+    }
+
+    private boolean isOpcode(int opcodeStart, int opcodeLength, String opcode) {
+        if (opcodeLength != opcode.length()) {
+            return false;
+        }
+        for (int i = 0; i < opcodeLength; i++) {
+            if (chars[opcodeStart + i] != opcode.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Skip to the next operand of an operation.
+     *
+     * @return <code>True</code> if there is another operand,
+     * <code>False</code> if the operation ends here.
+     */
+    private boolean nextOperand() {
+        skipWhiteSpace();
+        if (pos == end) {
+            throw error("Missing ';' after an operation");
+        }
+        return chars[pos] != ';';
+    }
+
+    private void expectSemicolon() {
+        if (nextOperand()) {
+            throw error("Expected ';'");
+        }
+        pos++;
+    }
+
+    private void parseMoves(List<String> moves) {
+        while (nextOperand()) {
+            int operandStart = pos;
+            skipOperand();
+            moves.add(new String(chars, operandStart, pos - operandStart));
+        }
+        pos++;
+    }
+
+    private String parseOperand() {
+        if (!nextOperand()) {
+            throw error("Expected an operand");
+        }
+        if (chars[pos] == '"') {
+            int operandStart = pos + 1;
+            skipOperand();
+            return new String(chars, operandStart, pos - operandStart - 1);
+        }
+        int operandStart = pos;
+        skipOperand();
+        return new String(chars, operandStart, pos - operandStart);
+    }
+
+    /**
+     * Skip an operand, which is either a quoted string or ends at white space
+     * or a semicolon.
+     */
+    private void skipOperand() {
+        if (chars[pos] == '"') {
+            int quote = pos;
+            pos++;
+            while (pos < end && chars[pos] != '"') {
+                pos++;
+            }
+            if (pos == end) {
+                pos = quote;
+                throw error("Unterminated string");
+            }
+            pos++;
+        } else {
+            while (pos < end && !isWhiteSpace(chars[pos]) && chars[pos] != ';') {
+                pos++;
+            }
+        }
+    }
+
+    /**
+     * Load every position of a FEN or EPD file into a chess board and report
+     * the throughput.
+     *
+     * Usage: <code>EPDParser file [number of passes]</code>
+     *
+     * The file is read into memory first, so only parsing and loading are
+     * measured. Invalid records are reported once.
+     *
+     * @param args The command line arguments.
+     * @throws Exception If the file could not be read.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: EPDParser file [number of passes]");
+            System.exit(1);
+        }
+        int passes = (args.length > 1) ? Integer.parseInt(args[1]) : 1;
+        List<String> lines = Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8);
+        EPDParser parser = new EPDParser();
+        ChessBoard chessBoard = new ChessBoard();
+
+        long positions = 0;
+        int errors = 0;
+        long startTime = System.nanoTime();
+        for (int pass = 0; pass < passes; pass++) {
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    parser.parse(line, chessBoard);
+                    positions++;
+                } catch (FENFormatException ex) {
+                    if (pass == 0) {
+                        errors++;
+                        System.out.println("Line " + (i + 1) + ": " + ex.getMessage());
+                    }
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - startTime) / 1000000000.0;
+        System.out.println("Positions: " + positions + ", invalid records: " + errors);
+        System.out.println("Elapsed time: " + seconds + " s");
+        System.out.println("Positions per second: " + (long) (positions / seconds));
+    }
+
+}
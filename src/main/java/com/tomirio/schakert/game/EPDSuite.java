@@ -0,0 +1,379 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.game;
+
+import com.tomirio.schakert.agent.AI;
+import com.tomirio.schakert.agent.SearchListener;
+import com.tomirio.schakert.agent.SearchStatistics;
+import com.tomirio.schakert.agent.TranspositionTable;
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.moves.Move;
+import com.tomirio.schakert.moves.SAN;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a test suite of EPD records with <code>bm</code> (best moves) or
+ * <code>am</code> (avoid moves) operations. A position is solved if the move
+ * of the search is one of the best moves, or none of the moves to avoid.
+ *
+ * Besides the solved positions, the time and number of nodes until the
+ * search found the solution are measured: the end of the first iteration
+ * that chose a correct move, after which the search did not change its mind.
+ * These react to changes of the move ordering and pruning that perft cannot
+ * see.
+ *
+ * The positions are searched in parallel. Every worker has its own parser,
+ * chess board, agent and transposition table, and the table is cleared
+ * before every position, so the results do not depend on the order of the
+ * positions or the number of workers.
+ *
+ * @author Tom Sandmann
+ */
+public class EPDSuite {
+
+    /**
+     * The number of positions that are searched at the same time.
+     */
+    private final int workerCount;
+    /**
+     * The maximum search depth.
+     */
+    private final int depth;
+    /**
+     * The maximum duration of a search in milliseconds, 0 for no limit.
+     */
+    private final long timeLimit;
+    /**
+     * The maximum number of nodes of a search, 0 for no limit.
+     */
+    private final long nodeLimit;
+    /**
+     * The size of the transposition table of each worker in megabytes.
+     */
+    private final int hashSize;
+
+    /**
+     *
+     * @param workerCount The number of positions that are searched at the
+     * same time.
+     * @param depth The maximum search depth.
+     * @param timeLimit The maximum duration of a search in milliseconds, 0 for
+     * no limit.
+     * @param nodeLimit The maximum number of nodes of a search, 0 for no
+     * limit.
+     * @param hashSize The size of the transposition table of each worker in
+     * megabytes.
+     */
+    public EPDSuite(int workerCount, int depth, long timeLimit, long nodeLimit, int hashSize) {
+        this.workerCount = Math.max(1, workerCount);
+        this.depth = Math.max(1, Math.min(depth, AI.MAX_DEPTH));
+        this.timeLimit = Math.max(0, timeLimit);
+        this.nodeLimit = Math.max(0, nodeLimit);
+        this.hashSize = hashSize;
+    }
+
+    /**
+     * Search every record.
+     *
+     * @param records The EPD records.
+     * @return The result of every record, in the same order.
+     * @throws InterruptedException If the calling thread is interrupted.
+     */
+    public List<Result> run(List<String> records) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount);
+        ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+        try {
+            List<Future<Result>> futures = new ArrayList<>(records.size());
+            for (String record : records) {
+                futures.add(executor.submit(() -> workers.get().search(record)));
+            }
+            List<Result> results = new ArrayList<>(records.size());
+            for (Future<Result> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException ex) {
+                    throw new IllegalStateException(ex.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The result of the search of a record.
+     */
+    public static final class Result {
+
+        /**
+         * The record.
+         */
+        public final String record;
+        /**
+         * The identifier of the record, or <code>null</code>.
+         */
+        public final String id;
+        /**
+         * The move of the search in SAN, <code>null</code> if the record is
+         * not valid or the position has no legal moves.
+         */
+        public final String move;
+        /**
+         * <code>True</code> if the move is correct.
+         */
+        public final boolean solved;
+        /**
+         * The time in nanoseconds until the solution was found, -1 if the
+         * position was not solved.
+         */
+        public final long solutionTime;
+        /**
+         * The number of nodes until the solution was found, -1 if the position
+         * was not solved.
+         */
+        public final long solutionNodes;
+        /**
+         * The statistics of the search, <code>null</code> if the record is not
+         * valid.
+         */
+        public final SearchStatistics statistics;
+        /**
+         * Why the record could not be searched, <code>null</code> if it was
+         * searched.
+         */
+        public final String error;
+
+        Result(String record, String id, String move, boolean solved, long solutionTime, long solutionNodes,
+                SearchStatistics statistics, String error) {
+            this.record = record;
+            this.id = id;
+            this.move = move;
+            this.solved = solved;
+            this.solutionTime = solutionTime;
+            this.solutionNodes = solutionNodes;
+            this.statistics = statistics;
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            String name = (id == null) ? record : id;
+            if (error != null) {
+                return name + ": " + error;
+            }
+            StringBuilder sb = new StringBuilder();
+            sb.append(name).append(": ").append(solved ? "solved" : "failed").append(", move ").append(move);
+            if (solved) {
+                sb.append(", found after ").append(solutionTime / 1000000).append(" ms and ")
+                        .append(solutionNodes).append(" nodes");
+            }
+            sb.append(", depth ").append(statistics.getDepth());
+            sb.append(", nodes ").append(statistics.getTotalNodes());
+            return sb.toString();
+        }
+    }
+
+    /**
+     * The parser, chess board and agent of a worker thread.
+     */
+    private class Worker implements SearchListener {
+
+        private final EPDParser parser = new EPDParser();
+        private final ChessBoard chessBoard = new ChessBoard();
+        private final TranspositionTable table = new TranspositionTable(hashSize);
+        private final AI ai = new AI(chessBoard.getHasTurn(), chessBoard, table);
+        /**
+         * The correct moves or the moves to avoid of the current record, in
+         * long algebraic notation.
+         */
+        private final Set<String> bestMoves = new HashSet<>();
+        private final Set<String> avoidMoves = new HashSet<>();
+        /**
+         * The time and nodes at the end of the iteration that chose the
+         * current move, -1 if the current move is not correct.
+         */
+        private long solutionTime, solutionNodes;
+
+        Worker() {
+            ai.searchDepth = depth;
+            ai.setTimeLimit(timeLimit);
+            ai.setNodeLimit(nodeLimit);
+            ai.addSearchListener(this);
+        }
+
+        Result search(String record) {
+            String id = null;
+            try {
+                parser.parse(record, chessBoard);
+                id = parser.getId();
+                bestMoves.clear();
+                avoidMoves.clear();
+                resolve(parser.getBestMoves(), bestMoves);
+                resolve(parser.getAvoidMoves(), avoidMoves);
+            } catch (IllegalArgumentException ex) {
+                return new Result(record, id, null, false, -1, -1, null, ex.getMessage());
+            }
+            if (bestMoves.isEmpty() && avoidMoves.isEmpty()) {
+                return new Result(record, id, null, false, -1, -1, null, "No bm or am operation");
+            }
+            table.clear();
+            ai.playerColour = chessBoard.getHasTurn();
+            List<Move> legalMoves = chessBoard.getPossibleMoves(chessBoard.getHasTurn());
+            solutionTime = -1;
+            solutionNodes = -1;
+            Move move = ai.getPlay();
+            if (move == null) {
+                return new Result(record, id, null, false, -1, -1, null, "No legal moves");
+            }
+            boolean solved = isCorrect(move.toLongAlgebraicString());
+            if (!solved) {
+                solutionTime = -1;
+                solutionNodes = -1;
+            } else if (solutionTime == -1) {
+                // Found by an iteration that was not completed
+                solutionTime = ai.getStatistics().getElapsedTime();
+                solutionNodes = ai.getStatistics().getTotalNodes();
+            }
+            return new Result(record, id, SAN.format(move, legalMoves), solved, solutionTime, solutionNodes,
+                    ai.getStatistics(), null);
+        }
+
+        /**
+         * Resolve moves in SAN against the current position.
+         *
+         * @throws IllegalArgumentException If a move is not legal.
+         */
+        private void resolve(List<String> sanMoves, Set<String> moves) {
+            for (String san : sanMoves) {
+                Move move = SAN.parse(chessBoard, san);
+                if (move == null) {
+                    throw new IllegalArgumentException("Illegal or ambiguous move " + san);
+                }
+                moves.add(move.toLongAlgebraicString());
+            }
+        }
+
+        private boolean isCorrect(String move) {
+            return bestMoves.isEmpty() ? !avoidMoves.contains(move) : bestMoves.contains(move);
+        }
+
+        @Override
+        public void iterationFinished(int depth, double score, List<String> principalVariation, SearchStatistics statistics) {
+            if (!principalVariation.isEmpty() && isCorrect(principalVariation.get(0))) {
+                if (solutionTime == -1) {
+                    solutionTime = statistics.getElapsedTime();
+                    solutionNodes = statistics.getTotalNodes();
+                }
+            } else {
+                solutionTime = -1;
+                solutionNodes = -1;
+            }
+        }
+
+        @Override
+        public void searchProgress(int depth, SearchStatistics statistics) {
+            // Only completed iterations can solve a position.
+        }
+
+        @Override
+        public void searchFinished(Move bestMove, SearchStatistics statistics) {
+            // The result is made from the returned move.
+        }
+    }
+
+    /**
+     * Run a test suite and report the results.
+     *
+     * Usage: <code>EPDSuite file [time per position in ms] [nodes per
+     * position] [depth] [workers] [hash size per worker in MB]</code>
+     *
+     * A limit of 0 means no limit. Lines that are empty or start with
+     * <code>#</code> are skipped.
+     *
+     * @param args The command line arguments.
+     * @throws IOException If the file could not be read.
+     * @throws InterruptedException If the suite is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: EPDSuite file [time per position in ms] [nodes per position] [depth] "
+                    + "[workers] [hash size per worker in MB]");
+            System.exit(1);
+        }
+        long timeLimit = (args.length > 1) ? Long.parseLong(args[1]) : 1000;
+        long nodeLimit = (args.length > 2) ? Long.parseLong(args[2]) : 0;
+        int depth = (args.length > 3) ? Integer.parseInt(args[3]) : AI.MAX_DEPTH;
+        int workerCount = (args.length > 4) ? Integer.parseInt(args[4])
+                : Runtime.getRuntime().availableProcessors();
+        int hashSize = (args.length > 5) ? Integer.parseInt(args[5]) : AI.DEFAULT_HASH_SIZE;
+        if (timeLimit == 0 && nodeLimit == 0 && depth == AI.MAX_DEPTH) {
+            System.err.println("A time limit, node limit or depth is required");
+            System.exit(1);
+        }
+        List<String> records = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty() && !line.startsWith("#")) {
+                records.add(line);
+            }
+        }
+
+        long startTime = System.nanoTime();
+        List<Result> results = new EPDSuite(workerCount, depth, timeLimit, nodeLimit, hashSize).run(records);
+        double seconds = (System.nanoTime() - startTime) / 1000000000.0;
+
+        int solved = 0;
+        int searched = 0;
+        long solutionTime = 0;
+        long solutionNodes = 0;
+        long nodes = 0;
+        long searchTime = 0;
+        for (Result result : results) {
+            System.out.println(result);
+            if (result.statistics != null) {
+                searched++;
+                nodes += result.statistics.getTotalNodes();
+                searchTime += result.statistics.getElapsedTime();
+            }
+            if (result.solved) {
+                solved++;
+                solutionTime += result.solutionTime;
+                solutionNodes += result.solutionNodes;
+            }
+        }
+        System.out.println("Solved: " + solved + " of " + searched + " ("
+                + ((searched == 0) ? 0 : 100.0 * solved / searched) + "%), invalid records: "
+                + (records.size() - searched));
+        System.out.println("Time to solution: " + solutionTime / 1000000 + " ms, nodes to solution: " + solutionNodes);
+        System.out.println("Nodes: " + nodes + ", nodes per second: "
+                + ((searchTime == 0) ? 0 : (long) (nodes / (searchTime / 1000000000.0))) + " per worker, "
+                + (long) (nodes / seconds) + " in total");
+        System.out.println("Elapsed time: " + seconds + " s, workers: " + workerCount);
+    }
+
+}
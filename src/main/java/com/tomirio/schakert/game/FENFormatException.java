@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.game;
+
+/**
+ * Thrown when a FEN or EPD record is not valid. The offset points at the
+ * character where the parser gave up.
+ *
+ * @author Tom Sandmann
+ */
+public class FENFormatException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The offset of the invalid character in the record.
+     */
+    private final int errorOffset;
+
+    /**
+     *
+     * @param message The description of the error.
+     * @param errorOffset The offset of the invalid character in the record.
+     */
+    public FENFormatException(String message, int errorOffset) {
+        super(message + " at offset " + errorOffset);
+        this.errorOffset = errorOffset;
+    }
+
+    /**
+     *
+     * @return The offset of the invalid character in the record.
+     */
+    public int getErrorOffset() {
+        return errorOffset;
+    }
+
+}
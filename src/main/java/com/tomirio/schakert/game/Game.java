@@ -17,18 +17,21 @@
 package com.tomirio.schakert.game;
 
 import com.tomirio.schakert.agent.AI;
+import com.tomirio.schakert.agent.SearchExecutor;
+import com.tomirio.schakert.agent.SearchMonitor;
 import com.tomirio.schakert.chessboard.ChessBoard;
 import com.tomirio.schakert.chessboard.Colour;
 import com.tomirio.schakert.moves.Move;
 import com.tomirio.schakert.view.Log;
+import com.tomirio.schakert.view.SearchInfo;
 import com.tomirio.schakert.view.View;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.NoSuchElementException;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.application.Platform;
@@ -39,6 +42,11 @@ import javafx.application.Platform;
  */
 public class Game {
 
+    /**
+     * Publishes the searches of the agents of all games over JMX.
+     */
+    private static final SearchMonitor MONITOR = SearchMonitor.create("gui");
+
     /**
      * Index of the move we have done.
      */
@@ -55,6 +63,10 @@ public class Game {
      * The colour having turn.
      */
     private Colour hasTurn;
+    /**
+     * The FEN string of the position the moves start from.
+     */
+    private String initialFEN;
     /**
      * The log.
      */
@@ -63,6 +75,14 @@ public class Game {
      * All the moves that led to the current state of the chess board.
      */
     private final ArrayList<Move> moveList;
+    /**
+     * The SAN of the moves that have been applied, used for the PGN export.
+     */
+    private final ArrayList<String> appliedSANs;
+    /**
+     * Shows the search of the agent that has turn.
+     */
+    private final SearchInfo searchInfo;
     /**
      * The view.
      */
@@ -82,7 +102,10 @@ public class Game {
         this.chessBoard = chessBoard;
         this.view = view;
         log = new Log(chessBoard);
+        searchInfo = new SearchInfo();
         moveList = new ArrayList<>();
+        appliedSANs = new ArrayList<>();
+        initialFEN = chessBoard.getFEN();
         // We have not applied any move, so the index of the applied move is -1
         appliedMove = -1;
         hasTurn = chessBoard.getHasTurn();
@@ -92,28 +115,40 @@ public class Game {
     }
 
     /**
-     * Calls the right method if an agent has turn.
+     * Calls the right method if an agent has turn. The agent searches on the
+     * shared {@link SearchExecutor}, its move is applied on the JavaFX
+     * application thread. The search is shown by the {@link SearchInfo} while
+     * it runs.
      */
     public void agentPlay() {
         // User cannot do and undo moves while agent will calculate the best move
         view.disableMoveButtons();
-        ExecutorService es = Executors.newSingleThreadExecutor();
-        Future<Move> agentPlay = (hasTurn == Colour.Black)
-                ? es.submit((Callable) blackPlayer) : es.submit((Callable) whitePlayer);
-        new Thread() {
-            @Override
-            public void run() {
-                try {
-                    Move moveToPlay = agentPlay.get();
-                    moveList.add(moveToPlay);
-                    // Agent has fount the movce to play, enable doing and undoing of moves
-                    Platform.runLater(() -> view.enableMoveButtons());
-                    Platform.runLater(() -> doMove());
-                } catch (InterruptedException | ExecutionException ex) {
-                    Logger.getLogger(Game.class.getName()).log(Level.SEVERE, null, ex);
-                }
+        AI agent = (AI) getPlayer(hasTurn);
+        searchInfo.searchStarted(hasTurn);
+        agent.addSearchListener(searchInfo);
+        agent.addSearchListener(MONITOR);
+        SearchExecutor.submit(agent).whenComplete((moveToPlay, ex) -> {
+            agent.removeSearchListener(searchInfo);
+            agent.removeSearchListener(MONITOR);
+            if (ex != null) {
+                // The search failed, or was rejected because the queue of the
+                // SearchExecutor already held SearchExecutor.QUEUE_CAPACITY
+                // searches of other games.
+                Logger.getLogger(Game.class.getName()).log(Level.SEVERE, null, ex);
+                // No move to play, give the board back to the user.
+                Platform.runLater(() -> {
+                    searchInfo.searchFailed();
+                    view.enableMoveButtons();
+                });
+                return;
             }
-        }.start();
+            Platform.runLater(() -> {
+                moveList.add(moveToPlay);
+                // Agent has found the move to play, enable doing and undoing of moves
+                view.enableMoveButtons();
+                doMove();
+            });
+        });
     }
 
     /**
@@ -128,8 +163,9 @@ public class Game {
                 String SAN = move.toString();
                 move.doMove();
                 log.addMove(move, SAN);
+                appliedSANs.add(SAN);
                 appliedMove++;
-                view.update(chessBoard);
+                view.update(move);
                 updateTurn();
                 updateGameStatus();
 //                System.out.println("Het bord:" + chessBoard);
@@ -162,6 +198,10 @@ public class Game {
         return log;
     }
 
+    public SearchInfo getSearchInfo() {
+        return searchInfo;
+    }
+
     /**
      * Get the player that belongs to the given color.
      *
@@ -212,12 +252,87 @@ public class Game {
 
     public final void loadFEN(String FEN) {
         chessBoard.loadFEN(FEN);
-        this.hasTurn = chessBoard.getFENParser().getHasTurn();
+        // The moves of the previous position cannot be applied to this one
+        moveList.clear();
+        appliedSANs.clear();
+        appliedMove = -1;
+        initialFEN = FEN;
+        this.hasTurn = chessBoard.getHasTurn();
         view.update(chessBoard);
     }
 
     public boolean isValidFEN(String FEN) {
-        return chessBoard.getFENParser().isValidFEN(FEN);
+        return new EPDParser().isValid(FEN);
+    }
+
+    /**
+     * Create a PGN game of the moves that have been applied, from the position
+     * the game started in.
+     *
+     * @return The game.
+     */
+    public PGNGame toPGN() {
+        PGNGame game = new PGNGame();
+        game.setTag("Event", "Schakert game");
+        game.setTag("Site", "?");
+        game.setTag("Date", new SimpleDateFormat("yyyy.MM.dd").format(new Date()));
+        game.setTag("Round", "-");
+        game.setTag("White", getPlayerName(whitePlayer));
+        game.setTag("Black", getPlayerName(blackPlayer));
+        game.setResult(getResult());
+        if (!isInitialPosition(initialFEN)) {
+            game.setTag("SetUp", "1");
+            game.setTag("FEN", initialFEN);
+        }
+        for (int i = 0; i <= appliedMove; i++) {
+            game.addMove(appliedSANs.get(i), moveList.get(i).toLongAlgebraicString());
+        }
+        return game;
+    }
+
+    /**
+     * Write the moves that have been applied as a PGN game.
+     *
+     * @param out The destination.
+     * @throws IOException If writing fails.
+     */
+    public void writePGN(Writer out) throws IOException {
+        PGNWriter writer = new PGNWriter(out);
+        writer.write(toPGN());
+        writer.flush();
+    }
+
+    /**
+     *
+     * @param FEN A FEN string.
+     * @return <code>True</code> if the position of the FEN string is the
+     * initial position, the move counters are not compared.
+     */
+    static boolean isInitialPosition(String FEN) {
+        String[] fields = FEN.trim().split("\\s+");
+        String[] initial = ChessBoard.START_POSITION.split(" ");
+        return fields.length >= 4 && Arrays.equals(Arrays.copyOf(fields, 4), Arrays.copyOf(initial, 4));
+    }
+
+    private static String getPlayerName(Player player) {
+        return (player instanceof AI) ? "Schakert" : "Human";
+    }
+
+    /**
+     *
+     * @return The result of the game in PGN notation, <code>*</code> if the
+     * game is not finished.
+     */
+    private String getResult() {
+        if (chessBoard.inCheckmate(Colour.White)) {
+            return "0-1";
+        } else if (chessBoard.inCheckmate(Colour.Black)) {
+            return "1-0";
+        } else if (chessBoard.inStalemate() || chessBoard.isThreefoldRepetition()
+                || chessBoard.isFiftyMoveRuleDraw()) {
+            return "1/2-1/2";
+        }
+        return PGNGame.UNKNOWN_RESULT;
     }
 
     /**
@@ -226,8 +341,7 @@ public class Game {
      * the GUI.
      */
     public final void notifyPlayers() {
-        if (!chessBoard.inStalemate() && !chessBoard.inCheckmate(hasTurn)
-                && !chessBoard.inCheckmate(hasTurn.getOpposite())) {
+        if (!chessBoard.gameIsFinished()) {
             // Game is not in a terminal state
             switch (hasTurn) {
                 case Black:
@@ -280,10 +394,11 @@ public class Game {
                  */
                 log.undoMove();
                 move.undoMove();
+                appliedSANs.remove(appliedSANs.size() - 1);
 
                 appliedMove--;
                 updateTurn();
-                view.update(chessBoard);
+                view.update(move);
             }
         }
     }
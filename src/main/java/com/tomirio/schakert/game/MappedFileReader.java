@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.game;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file through a memory-mapped window that slides over the file, so
+ * files larger than the address space of a single mapping can be read. The
+ * bytes are decoded straight from the mapping, without copying them into a
+ * heap buffer first.
+ *
+ * @author Tom Sandmann
+ */
+final class MappedFileReader extends Reader {
+
+    /**
+     * The size of the mapped window in bytes.
+     */
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    private final FileChannel channel;
+    /**
+     * The size of the file in bytes.
+     */
+    private final long size;
+    private final CharsetDecoder decoder;
+    /**
+     * The mapped window, <code>null</code> before the first read.
+     */
+    private MappedByteBuffer window;
+    /**
+     * The offset in the file of the first byte of the window.
+     */
+    private long windowStart;
+
+    /**
+     *
+     * @param path The file.
+     * @param charset The character set of the file. Malformed input is
+     * replaced instead of reported.
+     * @throws IOException If the file cannot be opened.
+     */
+    MappedFileReader(Path path, Charset charset) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+        decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+        while (true) {
+            if (window == null || !window.hasRemaining()) {
+                long next = (window == null) ? 0 : windowStart + window.limit();
+                if (next >= size) {
+                    if (size > 0) {
+                        decoder.flush(out);
+                    }
+                    break;
+                }
+                map(next);
+            }
+            boolean endOfInput = windowStart + window.limit() == size;
+            decoder.decode(window, out, endOfInput);
+            if (out.position() > off) {
+                break;
+            }
+            if (window.hasRemaining()) {
+                // A character is split over the end of the window
+                map(windowStart + window.position());
+            }
+        }
+        int read = out.position() - off;
+        return (read == 0) ? -1 : read;
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, size - start));
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+}
@@ -0,0 +1,463 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.game;
+
+import com.tomirio.schakert.agent.AI;
+import com.tomirio.schakert.agent.ScoreFormat;
+import com.tomirio.schakert.agent.SearchListener;
+import com.tomirio.schakert.agent.SearchStatistics;
+import com.tomirio.schakert.agent.TranspositionTable;
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.chessboard.Colour;
+import com.tomirio.schakert.moves.Move;
+import com.tomirio.schakert.moves.SAN;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Annotates the games of a PGN stream with a fixed-depth or fixed-node search
+ * of every position. Every move gets a comment with the evaluation of the
+ * position after it, from the point of view of white, and the depth of the
+ * search. If the search prefers another move, its principal variation is
+ * added as a variation.
+ *
+ * The games are read by one thread, annotated by a pool of workers and
+ * written by the calling thread in the order they were read. Every worker has
+ * its own chess board, agent and transposition table, so the workers share
+ * nothing but the queues. The number of games that are read but not written
+ * yet is bounded, so a slow writer or slow workers hold back the reader.
+ * A worker that fails with an error hands its game back marked as failed,
+ * so the writer stops there instead of waiting for it.
+ *
+ * @author Tom Sandmann
+ */
+public class PGNAnnotator {
+
+    /**
+     * The search depth if neither a depth nor a node limit is given.
+     */
+    public static final int DEFAULT_DEPTH = 4;
+
+    /**
+     * The number of workers.
+     */
+    private final int workerCount;
+    /**
+     * The search depth of every position.
+     */
+    private final int depth;
+    /**
+     * The maximum number of nodes of every search, 0 for no limit.
+     */
+    private final long nodeLimit;
+    /**
+     * The size of the transposition table of each worker in megabytes.
+     */
+    private final int hashSize;
+    /**
+     * The maximum number of games that are read but not yet written.
+     */
+    private final int capacity;
+    /**
+     * The number of annotated positions.
+     */
+    private final AtomicLong positions = new AtomicLong();
+    /**
+     * The number of nodes of all searches.
+     */
+    private final AtomicLong nodes = new AtomicLong();
+    /**
+     * The number of games that could not be read.
+     */
+    private long invalidGames;
+
+    /**
+     *
+     * @param workerCount The number of games that are annotated at the same
+     * time.
+     * @param depth The search depth of every position.
+     * @param nodeLimit The maximum number of nodes of every search, 0 for no
+     * limit.
+     * @param hashSize The size of the transposition table of each worker in
+     * megabytes.
+     * @param capacity The maximum number of games that are read but not yet
+     * written, at least the number of workers.
+     */
+    public PGNAnnotator(int workerCount, int depth, long nodeLimit, int hashSize, int capacity) {
+        this.workerCount = Math.max(1, workerCount);
+        this.depth = Math.max(1, Math.min(depth, AI.MAX_DEPTH));
+        this.nodeLimit = Math.max(0, nodeLimit);
+        this.hashSize = hashSize;
+        this.capacity = Math.max(this.workerCount, capacity);
+    }
+
+    /**
+     * Annotate all games of a reader. Games that cannot be read are skipped.
+     *
+     * @param reader The games to annotate.
+     * @param writer The destination of the annotated games.
+     * @return The number of annotated games.
+     * @throws IOException If reading or writing fails.
+     * @throws InterruptedException If the calling thread is interrupted.
+     * @throws IllegalStateException If a worker failed with an error; the
+     * games before the failed one are written.
+     */
+    public long annotate(PGNReader reader, PGNWriter writer) throws IOException, InterruptedException {
+        // Both queues are bounded by the permits, which are taken by the
+        // reader and given back by the writer.
+        Semaphore permits = new Semaphore(capacity);
+        BlockingQueue<IndexedGame> input = new ArrayBlockingQueue<>(capacity + workerCount);
+        BlockingQueue<IndexedGame> output = new LinkedBlockingQueue<>();
+        IOException[] readFailure = new IOException[1];
+        invalidGames = 0;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 1; i <= workerCount; i++) {
+            threads.add(new Thread(() -> work(input, output), "annotator-" + i));
+        }
+        threads.add(new Thread(() -> {
+            long count = 0;
+            try {
+                while (true) {
+                    PGNGame game;
+                    try {
+                        game = reader.readGame();
+                    } catch (PGNFormatException ex) {
+                        invalidGames++;
+                        Logger.getLogger(PGNAnnotator.class.getName()).log(Level.WARNING,
+                                "Skipped game {0}: {1}", new Object[]{count + invalidGames, ex.getMessage()});
+                        continue;
+                    }
+                    if (game == null) {
+                        break;
+                    }
+                    permits.acquire();
+                    input.put(new IndexedGame(count++, game));
+                }
+            } catch (IOException ex) {
+                readFailure[0] = ex;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                // Stop the workers, then tell the writer how many games there are
+                for (int i = 0; i < workerCount; i++) {
+                    input.add(new IndexedGame(-1, null));
+                }
+                output.add(new IndexedGame(count, null));
+            }
+        }, "annotator-reader"));
+        for (Thread thread : threads) {
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        Map<Long, IndexedGame> pending = new HashMap<>();
+        long next = 0;
+        long total = -1;
+        try {
+            while (total == -1 || next < total) {
+                IndexedGame annotated = output.take();
+                if (annotated.game == null) {
+                    total = annotated.index;
+                    continue;
+                }
+                pending.put(annotated.index, annotated);
+                IndexedGame game;
+                while ((game = pending.remove(next)) != null) {
+                    if (game.failure != null) {
+                        writer.flush();
+                        throw new IllegalStateException("Annotating game " + (next + 1) + " failed", game.failure);
+                    }
+                    writer.write(game.game);
+                    permits.release();
+                    next++;
+                }
+            }
+        } finally {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+        }
+        writer.flush();
+        if (readFailure[0] != null) {
+            throw readFailure[0];
+        }
+        return next;
+    }
+
+    /**
+     * Annotate games until the end marker is taken.
+     */
+    private void work(BlockingQueue<IndexedGame> input, BlockingQueue<IndexedGame> output) {
+        ChessBoard chessBoard = new ChessBoard();
+        AI ai = new AI(chessBoard.getHasTurn(), chessBoard, new TranspositionTable(hashSize));
+        ai.searchDepth = depth;
+        ai.setNodeLimit(nodeLimit);
+        ResultCollector collector = new ResultCollector();
+        ai.addSearchListener(collector);
+        try {
+            while (true) {
+                IndexedGame task = input.take();
+                if (task.game == null) {
+                    return;
+                }
+                try {
+                    annotate(task.game, ai, collector);
+                } catch (RuntimeException ex) {
+                    // The game is written with the annotations made so far
+                    Logger.getLogger(PGNAnnotator.class.getName()).log(Level.SEVERE, null, ex);
+                } catch (Error ex) {
+                    // The agent cannot be trusted any more, so this worker
+                    // stops. The writer waits for every game in order, so
+                    // it gets the failure in place of the game.
+                    output.add(new IndexedGame(task.index, task.game, ex));
+                    return;
+                }
+                output.put(task);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Annotate a game. The position before every move and the final position
+     * are searched; the search before a move gives the variation, the search
+     * after it the evaluation.
+     *
+     * @param game The game.
+     * @param ai The agent, with the chess board to play the game on.
+     * @param collector The listener of the agent.
+     */
+    private void annotate(PGNGame game, AI ai, ResultCollector collector) {
+        ChessBoard chessBoard = ai.chessBoard;
+        chessBoard.loadFEN(game.getInitialFEN());
+        for (int ply = 0; ply <= game.size(); ply++) {
+            ArrayList<Move> legalMoves = chessBoard.getPossibleMoves(chessBoard.getHasTurn());
+            if (legalMoves.isEmpty()) {
+                // Mate and stalemate are already visible in the movetext
+                break;
+            }
+            Colour hasTurn = chessBoard.getHasTurn();
+            ai.playerColour = hasTurn;
+            collector.reset();
+            ai.getPlay();
+            positions.incrementAndGet();
+            nodes.addAndGet(ai.getStatistics().getTotalNodes());
+            if (collector.principalVariation == null) {
+                // Not even the first iteration was completed within the node limit
+                continue;
+            }
+            if (ply > 0) {
+                double score = (hasTurn == Colour.White) ? collector.score : -collector.score;
+                String evaluation = ScoreFormat.toPawns(score, collector.principalVariation.size()) + "/" + collector.depth;
+                String comment = game.getComment(ply - 1);
+                game.setComment(ply - 1, (comment == null) ? evaluation : comment + " " + evaluation);
+            }
+            if (ply == game.size()) {
+                break;
+            }
+            String played = game.getMove(ply);
+            if (!collector.principalVariation.isEmpty() && !collector.principalVariation.get(0).equals(played)) {
+                game.setVariation(ply, toSAN(chessBoard, legalMoves, collector.principalVariation));
+            }
+            Move move = findMove(legalMoves, played);
+            if (move == null) {
+                throw new IllegalStateException("Illegal move " + played + " in " + chessBoard.getFEN());
+            }
+            move.doMove();
+        }
+    }
+
+    /**
+     * Write a principal variation in SAN. The moves are played on the chess
+     * board and taken back afterwards.
+     *
+     * @param chessBoard The chess board.
+     * @param legalMoves The legal moves of the current position.
+     * @param principalVariation The moves in long algebraic notation.
+     * @return The moves in SAN, up to the first move that is not legal.
+     */
+    private static List<String> toSAN(ChessBoard chessBoard, List<Move> legalMoves, List<String> principalVariation) {
+        List<String> variation = new ArrayList<>(principalVariation.size());
+        List<Move> played = new ArrayList<>(principalVariation.size());
+        List<Move> moves = legalMoves;
+        for (String notation : principalVariation) {
+            Move move = findMove(moves, notation);
+            if (move == null) {
+                break;
+            }
+            variation.add(SAN.format(move, moves));
+            move.doMove();
+            played.add(move);
+            moves = chessBoard.getPossibleMoves(chessBoard.getHasTurn());
+        }
+        for (int i = played.size() - 1; i >= 0; i--) {
+            played.get(i).undoMove();
+        }
+        return variation;
+    }
+
+    /**
+     *
+     * @param legalMoves The legal moves of a position.
+     * @param notation A move in long algebraic notation.
+     * @return The legal move, or <code>null</code> if it is not legal.
+     */
+    private static Move findMove(List<Move> legalMoves, String notation) {
+        for (Move move : legalMoves) {
+            if (move.toLongAlgebraicString().equals(notation)) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    /**
+     *
+     * @return The number of searched positions.
+     */
+    public long getPositions() {
+        return positions.get();
+    }
+
+    /**
+     *
+     * @return The number of nodes of all searches.
+     */
+    public long getNodes() {
+        return nodes.get();
+    }
+
+    /**
+     *
+     * @return The number of games of the last call to
+     * {@link #annotate(PGNReader, PGNWriter)} that could not be read.
+     */
+    public long getInvalidGames() {
+        return invalidGames;
+    }
+
+    /**
+     * A game and its place in the stream. A game of <code>null</code> marks
+     * the end: for the workers it means stop, for the writer the index is
+     * the number of games. A game with a failure could not be annotated.
+     */
+    private static class IndexedGame {
+
+        private final long index;
+        private final PGNGame game;
+        private final Throwable failure;
+
+        IndexedGame(long index, PGNGame game) {
+            this(index, game, null);
+        }
+
+        IndexedGame(long index, PGNGame game, Throwable failure) {
+            this.index = index;
+            this.game = game;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * Keeps the depth, score and principal variation of the last completed
+     * iteration.
+     */
+    private static class ResultCollector implements SearchListener {
+
+        private int depth;
+        private double score;
+        private List<String> principalVariation;
+
+        void reset() {
+            principalVariation = null;
+        }
+
+        @Override
+        public void iterationFinished(int depth, double score, List<String> principalVariation, SearchStatistics statistics) {
+            this.depth = depth;
+            this.score = score;
+            this.principalVariation = principalVariation;
+        }
+
+        @Override
+        public void searchProgress(int depth, SearchStatistics statistics) {
+            // The annotation is made from the last iteration.
+        }
+
+        @Override
+        public void searchFinished(Move bestMove, SearchStatistics statistics) {
+            // The annotation is made from the last iteration.
+        }
+    }
+
+    /**
+     * Annotate a PGN file and report the throughput.
+     *
+     * Usage: <code>PGNAnnotator input output [depth] [nodes] [workers] [hash
+     * size per worker in MB]</code>
+     *
+     * A node limit of 0 searches every position to the full depth.
+     *
+     * @param args The command line arguments.
+     * @throws IOException If reading or writing fails.
+     * @throws InterruptedException If the annotation is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: PGNAnnotator input output [depth] [nodes] [workers] [hash size per worker in MB]");
+            System.exit(1);
+        }
+        long nodeLimit = (args.length > 3) ? Long.parseLong(args[3]) : 0;
+        int depth = (args.length > 2) ? Integer.parseInt(args[2]) : (nodeLimit > 0) ? AI.MAX_DEPTH : DEFAULT_DEPTH;
+        int workerCount = (args.length > 4) ? Integer.parseInt(args[4])
+                : Runtime.getRuntime().availableProcessors();
+        int hashSize = (args.length > 5) ? Integer.parseInt(args[5]) : AI.DEFAULT_HASH_SIZE;
+        PGNAnnotator annotator = new PGNAnnotator(workerCount, depth, nodeLimit, hashSize, 4 * workerCount);
+        long startTime = System.nanoTime();
+        long games;
+        try (PGNReader reader = PGNReader.open(Paths.get(args[0]));
+                PGNWriter writer = new PGNWriter(new BufferedWriter(new OutputStreamWriter(
+                        Files.newOutputStream(Paths.get(args[1])), StandardCharsets.UTF_8)))) {
+            games = annotator.annotate(reader, writer);
+        }
+        double seconds = (System.nanoTime() - startTime) / 1000000000.0;
+        System.out.println("Games: " + games + ", positions: " + annotator.getPositions()
+                + ", invalid games: " + annotator.getInvalidGames() + ", workers: " + workerCount);
+        System.out.println("Elapsed time: " + seconds + " s");
+        System.out.println("Games per second: " + games / seconds);
+        System.out.println("Positions per second: " + (long) (annotator.getPositions() / seconds));
+        System.out.println("Nodes per second: " + (long) (annotator.getNodes() / seconds));
+    }
+
+}
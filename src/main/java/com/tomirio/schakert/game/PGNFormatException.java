@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.game;
+
+/**
+ * Thrown when a game of a PGN file is not valid, for example because of an
+ * illegal move. The reader skips the rest of the game, so the next game can
+ * still be read.
+ *
+ * @author Tom Sandmann
+ */
+public class PGNFormatException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The line of the file where the error was found.
+     */
+    private final long lineNumber;
+
+    /**
+     *
+     * @param message The description of the error.
+     * @param lineNumber The line of the file where the error was found,
+     * starting at 1.
+     */
+    public PGNFormatException(String message, long lineNumber) {
+        super(message + " at line " + lineNumber);
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     *
+     * @return The line of the file where the error was found, starting at 1.
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+}
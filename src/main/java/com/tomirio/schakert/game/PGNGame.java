@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.game;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A game of a PGN file: the tag pairs, the moves and their comments and
+ * variations. Every move is kept both
+ * in standard algebraic notation and in long algebraic notation, the latter
+ * can be played on any chess board that is set up with
+ * {@link #getInitialFEN()}, for example by another thread.
+ *
+ * @author Tom Sandmann
+ */
+public class PGNGame {
+
+    /**
+     * The result of a game that is still in progress or unknown.
+     */
+    public static final String UNKNOWN_RESULT = "*";
+    /**
+     * The tags of the Seven Tag Roster, written first and in this order.
+     */
+    static final String[] SEVEN_TAG_ROSTER = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+
+    /**
+     * The tag pairs, in the order they were added.
+     */
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    /**
+     * The moves in standard algebraic notation.
+     */
+    private final List<String> sanMoves = new ArrayList<>();
+    /**
+     * The moves in long algebraic notation.
+     */
+    private final List<String> moves = new ArrayList<>();
+    /**
+     * The comment after every move, <code>null</code> if there is none.
+     */
+    private final List<String> comments = new ArrayList<>();
+    /**
+     * The variation of every move in standard algebraic notation,
+     * <code>null</code> if there is none.
+     */
+    private final List<List<String>> variations = new ArrayList<>();
+    /**
+     * The comment in front of the first move, or <code>null</code>.
+     */
+    private String initialComment;
+
+    /**
+     *
+     * @param name The name of the tag.
+     * @return The value of the tag, or <code>null</code> if the game does not
+     * have the tag.
+     */
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    /**
+     * Set a tag, tags that are already present keep their place.
+     *
+     * @param name The name of the tag.
+     * @param value The value of the tag.
+     */
+    public void setTag(String name, String value) {
+        tags.put(name, value);
+    }
+
+    /**
+     *
+     * @return The tag pairs, in the order they were added.
+     */
+    public Map<String, String> getTags() {
+        return Collections.unmodifiableMap(tags);
+    }
+
+    /**
+     *
+     * @return The FEN string of the <code>FEN</code> tag, or the initial
+     * position if the game has no such tag.
+     */
+    public String getInitialFEN() {
+        String FEN = tags.get("FEN");
+        return (FEN == null) ? ChessBoard.START_POSITION : FEN;
+    }
+
+    /**
+     *
+     * @return The value of the <code>Result</code> tag, or
+     * {@link #UNKNOWN_RESULT}.
+     */
+    public String getResult() {
+        String result = tags.get("Result");
+        return (result == null) ? UNKNOWN_RESULT : result;
+    }
+
+    /**
+     *
+     * @param result The result: <code>1-0</code>, <code>0-1</code>,
+     * <code>1/2-1/2</code> or {@link #UNKNOWN_RESULT}.
+     */
+    public void setResult(String result) {
+        tags.put("Result", result);
+    }
+
+    /**
+     * Add a move.
+     *
+     * @param san The move in standard algebraic notation.
+     * @param longAlgebraic The move in long algebraic notation.
+     */
+    public void addMove(String san, String longAlgebraic) {
+        sanMoves.add(san);
+        moves.add(longAlgebraic);
+        comments.add(null);
+        variations.add(null);
+    }
+
+    /**
+     *
+     * @return The number of plies of the game.
+     */
+    public int size() {
+        return moves.size();
+    }
+
+    /**
+     *
+     * @param ply The index of the move, starting at 0.
+     * @return The move in standard algebraic notation.
+     */
+    public String getSAN(int ply) {
+        return sanMoves.get(ply);
+    }
+
+    /**
+     *
+     * @param ply The index of the move, starting at 0.
+     * @return The move in long algebraic notation.
+     */
+    public String getMove(int ply) {
+        return moves.get(ply);
+    }
+
+    /**
+     *
+     * @return The moves in long algebraic notation.
+     */
+    public List<String> getMoves() {
+        return Collections.unmodifiableList(moves);
+    }
+
+    /**
+     *
+     * @param ply The index of the move, starting at 0.
+     * @return The comment after the move, or <code>null</code>.
+     */
+    public String getComment(int ply) {
+        return comments.get(ply);
+    }
+
+    /**
+     *
+     * @param ply The index of the move, starting at 0.
+     * @param comment The comment after the move, or <code>null</code>.
+     */
+    public void setComment(int ply, String comment) {
+        comments.set(ply, comment);
+    }
+
+    /**
+     *
+     * @param ply The index of the move, starting at 0.
+     * @return The variation that replaces the move in standard algebraic
+     * notation, or <code>null</code>.
+     */
+    public List<String> getVariation(int ply) {
+        return variations.get(ply);
+    }
+
+    /**
+     *
+     * @param ply The index of the move, starting at 0.
+     * @param variation The moves in standard algebraic notation that could
+     * have been played instead of the move, starting with the alternative to
+     * the move itself, or <code>null</code>.
+     */
+    public void setVariation(int ply, List<String> variation) {
+        variations.set(ply, (variation == null || variation.isEmpty()) ? null
+                : Collections.unmodifiableList(new ArrayList<>(variation)));
+    }
+
+    /**
+     *
+     * @return The comment in front of the first move, or <code>null</code>.
+     */
+    public String getInitialComment() {
+        return initialComment;
+    }
+
+    /**
+     *
+     * @param initialComment The comment in front of the first move, or
+     * <code>null</code>.
+     */
+    public void setInitialComment(String initialComment) {
+        this.initialComment = initialComment;
+    }
+
+}
@@ -0,0 +1,482 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.game;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.moves.Move;
+import com.tomirio.schakert.moves.SAN;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Streaming reader for PGN files. Games are read one at a time, so the memory
+ * use does not depend on the size of the file. Every move is resolved against
+ * the legal moves of the position it is played in, which is kept on a chess
+ * board of the reader.
+ *
+ * Comments are kept, variations, numeric annotation glyphs and escaped lines
+ * are skipped. A game that cannot be read results in a
+ * {@link PGNFormatException}, after which the reader continues with the next
+ * game.
+ *
+ * A reader is not thread safe.
+ *
+ * @see <a href="http://www.saremba.de/chessgml/standards/pgn/pgn-complete.htm">
+ * http://www.saremba.de/chessgml/standards/pgn/pgn-complete.htm</a>
+ *
+ * @author Tom Sandmann
+ */
+public class PGNReader implements Closeable {
+
+    /**
+     * The number of characters that is read from the source at once.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    /**
+     * The index of the next character in the buffer.
+     */
+    private int position;
+    /**
+     * The number of characters in the buffer.
+     */
+    private int limit;
+    /**
+     * The line of the next character, starting at 1.
+     */
+    private long lineNumber = 1;
+    /**
+     * Whether the next character is the first of a line.
+     */
+    private boolean lineStart = true;
+    /**
+     * Whether the movetext of the current game is being read.
+     */
+    private boolean inMoveText;
+    /**
+     * Whether the rest of the current game has to be skipped after an error.
+     */
+    private boolean skipGame;
+    /**
+     * The position of the game that is read.
+     */
+    private final ChessBoard chessBoard = new ChessBoard();
+    private final StringBuilder token = new StringBuilder();
+
+    /**
+     *
+     * @param in The source, which is buffered by the reader.
+     */
+    public PGNReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Read a UTF-8 (or ASCII) PGN file through a memory mapping.
+     *
+     * @param path The file.
+     * @return The reader.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static PGNReader open(Path path) throws IOException {
+        return open(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read a PGN file through a memory mapping.
+     *
+     * @param path The file.
+     * @param charset The character set of the file, the PGN standard uses
+     * ISO-8859-1.
+     * @return The reader.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static PGNReader open(Path path, Charset charset) throws IOException {
+        return new PGNReader(new MappedFileReader(path, charset));
+    }
+
+    /**
+     * Read the next game.
+     *
+     * @return The game, or <code>null</code> if there are no more games.
+     * @throws IOException If reading the source fails.
+     * @throws PGNFormatException If the game is not valid, the next call
+     * continues with the next game.
+     */
+    public PGNGame readGame() throws IOException {
+        if (skipGame) {
+            skipGame = false;
+            skipToNextGame();
+        }
+        inMoveText = false;
+        skipWhiteSpace();
+        if (peek() == -1) {
+            return null;
+        }
+        PGNGame game = new PGNGame();
+        try {
+            readTags(game);
+            loadPosition(game);
+            readMoveText(game);
+        } catch (PGNFormatException ex) {
+            skipGame = true;
+            throw ex;
+        }
+        return game;
+    }
+
+    /**
+     *
+     * @return The chess board with the final position of the last game that
+     * was read. It is reused for the next game.
+     */
+    public ChessBoard getChessBoard() {
+        return chessBoard;
+    }
+
+    /**
+     *
+     * @return The line of the next character, starting at 1.
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private PGNFormatException error(String message) {
+        return new PGNFormatException(message, lineNumber);
+    }
+
+    private void readTags(PGNGame game) throws IOException {
+        while (true) {
+            skipWhiteSpace();
+            if (peek() != '[') {
+                return;
+            }
+            next();
+            skipWhiteSpace();
+            String name = readSymbol();
+            if (name.isEmpty()) {
+                throw error("Expected a tag name");
+            }
+            skipWhiteSpace();
+            if (next() != '"') {
+                throw error("Expected the value of tag " + name);
+            }
+            token.setLength(0);
+            while (true) {
+                int c = next();
+                if (c == '\\') {
+                    c = next();
+                } else if (c == '"') {
+                    break;
+                }
+                if (c == -1 || c == '\n') {
+                    throw error("Unterminated value of tag " + name);
+                }
+                token.append((char) c);
+            }
+            skipWhiteSpace();
+            if (next() != ']') {
+                throw error("Expected ']' after tag " + name);
+            }
+            game.setTag(name, token.toString());
+        }
+    }
+
+    private void loadPosition(PGNGame game) {
+        try {
+            chessBoard.loadFEN(game.getInitialFEN());
+        } catch (FENFormatException ex) {
+            throw error("Invalid FEN tag: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Read the movetext up to and including the game termination marker. A
+     * game without a marker ends at the tags of the next game or at the end
+     * of the file.
+     */
+    private void readMoveText(PGNGame game) throws IOException {
+        inMoveText = true;
+        while (true) {
+            skipWhiteSpace();
+            int c = peek();
+            if (c == -1 || c == '[') {
+                break;
+            } else if (c == '{') {
+                next();
+                addComment(game, readUntil('}'));
+            } else if (c == ';') {
+                next();
+                addComment(game, readUntil('\n'));
+            } else if (c == '(') {
+                skipVariation();
+            } else if (c == '$') {
+                next();
+                readSymbol();
+            } else if (c == '*') {
+                next();
+                game.setResult(PGNGame.UNKNOWN_RESULT);
+                break;
+            } else if (c == '.') {
+                next();
+            } else if (isSymbolCharacter(c)) {
+                String symbol = readSymbol();
+                if (isResult(symbol)) {
+                    game.setResult(symbol);
+                    break;
+                }
+                if (!isMoveNumber(symbol)) {
+                    playMove(game, symbol);
+                }
+                while (peek() == '!' || peek() == '?') {
+                    next();
+                }
+            } else {
+                throw error("Unexpected character '" + (char) c + "'");
+            }
+        }
+        inMoveText = false;
+    }
+
+    private void playMove(PGNGame game, String san) {
+        Move move = SAN.parse(chessBoard, san);
+        if (move == null) {
+            throw error("Illegal or ambiguous move " + san + " in " + chessBoard.getFEN());
+        }
+        game.addMove(san, move.toLongAlgebraicString());
+        move.doMove();
+    }
+
+    private static void addComment(PGNGame game, String comment) {
+        String trimmed = comment.trim();
+        if (trimmed.isEmpty()) {
+            return;
+        }
+        if (game.size() == 0) {
+            String previous = game.getInitialComment();
+            game.setInitialComment((previous == null) ? trimmed : previous + " " + trimmed);
+        } else {
+            int ply = game.size() - 1;
+            String previous = game.getComment(ply);
+            game.setComment(ply, (previous == null) ? trimmed : previous + " " + trimmed);
+        }
+    }
+
+    /**
+     * Skip a variation, including nested variations and comments.
+     */
+    private void skipVariation() throws IOException {
+        int depth = 0;
+        do {
+            int c = next();
+            if (c == -1) {
+                throw error("Unterminated variation");
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '{') {
+                readUntil('}');
+            } else if (c == ';') {
+                readUntil('\n');
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Skip the rest of a game that could not be read, up to the tags of the
+     * next game.
+     */
+    private void skipToNextGame() throws IOException {
+        boolean moveText = inMoveText;
+        while (true) {
+            int c = peek();
+            if (c == -1) {
+                return;
+            }
+            if (lineStart) {
+                if (c == '[' && moveText) {
+                    return;
+                } else if (c != '[' && !isWhiteSpace(c)) {
+                    moveText = true;
+                }
+            }
+            next();
+        }
+    }
+
+    /**
+     * Read the characters up to the end character, which is consumed but not
+     * returned.
+     *
+     * @param end <code>}</code> for a comment, a new line for a comment to
+     * the end of the line.
+     * @return The characters.
+     */
+    private String readUntil(char end) throws IOException {
+        token.setLength(0);
+        while (true) {
+            int c = next();
+            if (c == end || c == -1 && end == '\n') {
+                return token.toString();
+            }
+            if (c == -1) {
+                throw error("Unterminated comment");
+            }
+            token.append((char) c);
+        }
+    }
+
+    private String readSymbol() throws IOException {
+        token.setLength(0);
+        while (isSymbolCharacter(peek())) {
+            token.append((char) next());
+        }
+        return token.toString();
+    }
+
+    private void skipWhiteSpace() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c == '%' && lineStart) {
+                // Escaped line
+                readUntil('\n');
+            } else if (isWhiteSpace(c)) {
+                next();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static boolean isWhiteSpace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\uFEFF';
+    }
+
+    private static boolean isSymbolCharacter(int c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+                || c == '_' || c == '+' || c == '#' || c == '=' || c == ':' || c == '-' || c == '/';
+    }
+
+    private static boolean isResult(String symbol) {
+        return symbol.equals("1-0") || symbol.equals("0-1") || symbol.equals("1/2-1/2");
+    }
+
+    private static boolean isMoveNumber(String symbol) {
+        for (int i = 0; i < symbol.length(); i++) {
+            char c = symbol.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private int next() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        char c = buffer[position++];
+        lineStart = c == '\n';
+        if (lineStart) {
+            lineNumber++;
+        }
+        return c;
+    }
+
+    /**
+     * Refill the buffer.
+     *
+     * @return <code>False</code> at the end of the source.
+     */
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = in.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read == -1) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    /**
+     * Read every game of a PGN file and report the throughput.
+     *
+     * Usage: <code>PGNReader file</code>
+     *
+     * Invalid games are reported and skipped.
+     *
+     * @param args The command line arguments.
+     * @throws IOException If the file could not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: PGNReader file");
+            System.exit(1);
+        }
+        long games = 0;
+        long plies = 0;
+        int errors = 0;
+        long startTime = System.nanoTime();
+        try (PGNReader reader = PGNReader.open(Paths.get(args[0]))) {
+            while (true) {
+                PGNGame game;
+                try {
+                    game = reader.readGame();
+                } catch (PGNFormatException ex) {
+                    errors++;
+                    System.out.println("Game " + (games + errors) + ": " + ex.getMessage());
+                    continue;
+                }
+                if (game == null) {
+                    break;
+                }
+                games++;
+                plies += game.size();
+            }
+        }
+        double seconds = (System.nanoTime() - startTime) / 1000000000.0;
+        System.out.println("Games: " + games + ", plies: " + plies + ", invalid games: " + errors);
+        System.out.println("Elapsed time: " + seconds + " s");
+        System.out.println("Games per second: " + (long) (games / seconds));
+        System.out.println("Plies per second: " + (long) (plies / seconds));
+    }
+
+}
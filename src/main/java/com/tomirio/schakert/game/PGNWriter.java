@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.game;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes games in the export format of PGN: the Seven Tag Roster first, the
+ * other tags in their order, then the movetext with comments and variations
+ * in lines of at most 79 characters.
+ *
+ * A writer is not thread safe.
+ *
+ * @author Tom Sandmann
+ */
+public class PGNWriter implements Closeable, Flushable {
+
+    /**
+     * The maximum length of a line of movetext.
+     */
+    private static final int MAX_LINE_LENGTH = 79;
+
+    private final Writer out;
+    /**
+     * The length of the movetext line that is written.
+     */
+    private int lineLength;
+
+    /**
+     *
+     * @param out The destination, preferably buffered.
+     */
+    public PGNWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Write a game, followed by an empty line.
+     *
+     * @param game The game.
+     * @throws IOException If writing fails.
+     */
+    public void write(PGNGame game) throws IOException {
+        Map<String, String> tags = game.getTags();
+        for (String name : PGNGame.SEVEN_TAG_ROSTER) {
+            String value = tags.get(name);
+            if (value == null) {
+                value = name.equals("Result") ? PGNGame.UNKNOWN_RESULT : "?";
+            }
+            writeTag(name, value);
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!isSevenTagRoster(tag.getKey())) {
+                writeTag(tag.getKey(), tag.getValue());
+            }
+        }
+        out.write('\n');
+
+        String[] fields = game.getInitialFEN().trim().split("\\s+");
+        boolean whiteToMove = fields.length < 2 || !fields[1].equals("b");
+        int moveNumber = fullMoveNumber(fields);
+        lineLength = 0;
+        if (game.getInitialComment() != null) {
+            writeComment(game.getInitialComment());
+        }
+        boolean writeNumber = true;
+        for (int ply = 0; ply < game.size(); ply++) {
+            if (whiteToMove) {
+                writeWord(moveNumber + ".");
+            } else if (writeNumber) {
+                writeWord(moveNumber + "...");
+            }
+            writeWord(game.getSAN(ply));
+            String comment = game.getComment(ply);
+            if (comment != null) {
+                writeComment(comment);
+            }
+            List<String> variation = game.getVariation(ply);
+            if (variation != null) {
+                writeVariation(variation, moveNumber, whiteToMove);
+            }
+            // Black's move needs a number after a comment or variation
+            writeNumber = comment != null || variation != null;
+            if (!whiteToMove) {
+                moveNumber++;
+            }
+            whiteToMove = !whiteToMove;
+        }
+        writeWord(game.getResult());
+        out.write("\n\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+            }
+            out.write(c);
+        }
+        out.write("\"]\n");
+    }
+
+    /**
+     * Write a variation between parentheses. The first move of the variation
+     * replaces the move that was just written, so it has the same number.
+     */
+    private void writeVariation(List<String> variation, int moveNumber, boolean whiteToMove) throws IOException {
+        for (int i = 0; i < variation.size(); i++) {
+            StringBuilder word = new StringBuilder();
+            if (i == 0) {
+                word.append('(');
+            }
+            if (whiteToMove) {
+                word.append(moveNumber).append(". ");
+            } else if (i == 0) {
+                word.append(moveNumber).append("... ");
+            }
+            word.append(variation.get(i));
+            if (i == variation.size() - 1) {
+                word.append(')');
+            }
+            // A move number and its move stay on the same line
+            writeWord(word.toString());
+            if (!whiteToMove) {
+                moveNumber++;
+            }
+            whiteToMove = !whiteToMove;
+        }
+    }
+
+    /**
+     * Write a comment between braces. Braces inside the comment would end it,
+     * so they are left out.
+     */
+    private void writeComment(String comment) throws IOException {
+        StringBuilder sb = new StringBuilder(comment.length() + 2);
+        sb.append('{');
+        for (int i = 0; i < comment.length(); i++) {
+            char c = comment.charAt(i);
+            if (c != '{' && c != '}') {
+                sb.append(c);
+            }
+        }
+        sb.append('}');
+        for (String word : sb.toString().split("\\s+")) {
+            writeWord(word);
+        }
+    }
+
+    /**
+     * Write a word of the movetext, on a new line if it does not fit on the
+     * current line.
+     */
+    private void writeWord(String word) throws IOException {
+        if (lineLength > 0 && lineLength + 1 + word.length() > MAX_LINE_LENGTH) {
+            out.write('\n');
+            lineLength = 0;
+        }
+        if (lineLength > 0) {
+            out.write(' ');
+            lineLength++;
+        }
+        out.write(word);
+        lineLength += word.length();
+    }
+
+    private static boolean isSevenTagRoster(String name) {
+        for (String tag : PGNGame.SEVEN_TAG_ROSTER) {
+            if (tag.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     *
+     * @param fields The fields of a FEN string.
+     * @return The fullmove number, 1 if the FEN string does not contain it.
+     */
+    private static int fullMoveNumber(String[] fields) {
+        if (fields.length < 6) {
+            return 1;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(fields[5]));
+        } catch (NumberFormatException ex) {
+            return 1;
+        }
+    }
+
+}
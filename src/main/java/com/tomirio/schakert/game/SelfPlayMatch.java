@@ -0,0 +1,541 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.game;
+
+import com.tomirio.schakert.agent.AI;
+import com.tomirio.schakert.agent.Evaluation;
+import com.tomirio.schakert.agent.Evaluator;
+import com.tomirio.schakert.agent.NeuralNetwork;
+import com.tomirio.schakert.agent.NeuralNetworkEvaluation;
+import com.tomirio.schakert.agent.SearchMonitor;
+import com.tomirio.schakert.agent.TranspositionTable;
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.chessboard.ChessPiece;
+import com.tomirio.schakert.chessboard.Colour;
+import com.tomirio.schakert.moves.Move;
+import com.tomirio.schakert.moves.SAN;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Plays a match between two engine configurations without a user interface.
+ * Every opening is played twice, once with either engine as white. Games are
+ * played concurrently; every thread has its own chess board and an agent and
+ * transposition table for both engines, which are reused for its next games.
+ *
+ * A game ends in checkmate or stalemate, or in a draw by threefold
+ * repetition, the fifty-move rule, insufficient material or the move limit.
+ *
+ * While a match is played, the searches of either engine are published over
+ * JMX by a {@link SearchMonitor}, named
+ * <code>self-play 1 &lt;name&gt;</code> for the first engine and
+ * <code>self-play 2 &lt;name&gt;</code> for the second.
+ *
+ * @author Tom Sandmann
+ */
+public class SelfPlayMatch {
+
+    /**
+     * The number of plies after which a game is adjudicated a draw.
+     */
+    public static final int DEFAULT_MAX_PLIES = 400;
+
+    /**
+     * The engine of the even games as white and the odd games as black.
+     */
+    private final Engine first;
+    /**
+     * The other engine.
+     */
+    private final Engine second;
+    /**
+     * The number of games that are played at the same time.
+     */
+    private final int concurrency;
+    /**
+     * The number of plies after which a game is adjudicated a draw.
+     */
+    private final int maxPlies;
+
+    /**
+     *
+     * @param first The first engine, white in the even games.
+     * @param second The second engine, white in the odd games.
+     * @param concurrency The number of games that are played at the same
+     * time.
+     * @param maxPlies The number of plies after which a game is adjudicated a
+     * draw.
+     */
+    public SelfPlayMatch(Engine first, Engine second, int concurrency, int maxPlies) {
+        this.first = first;
+        this.second = second;
+        this.concurrency = Math.max(1, concurrency);
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Play the match.
+     *
+     * @param games The number of games.
+     * @param openings The FEN strings of the start positions, game
+     * <code>i</code> starts from opening <code>(i / 2) % openings.size()</code>.
+     * @param listener Receives every game in order, on the calling thread.
+     * @return The score of the first engine.
+     * @throws InterruptedException If the calling thread is interrupted.
+     */
+    public Score play(int games, List<String> openings, GameListener listener) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        // Every engine reports the searches of all its agents to one monitor.
+        SearchMonitor firstMonitor = SearchMonitor.create("self-play 1 " + first.name);
+        SearchMonitor secondMonitor = SearchMonitor.create("self-play 2 " + second.name);
+        ThreadLocal<Worker> workers = ThreadLocal.withInitial(() -> new Worker(firstMonitor, secondMonitor));
+        String date = new SimpleDateFormat("yyyy.MM.dd").format(new Date());
+        try {
+            List<Future<PGNGame>> futures = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                int round = i;
+                String opening = openings.get((i / 2) % openings.size());
+                futures.add(executor.submit(() -> workers.get().play(round, opening, date)));
+            }
+            Score score = new Score();
+            for (int i = 0; i < games; i++) {
+                PGNGame game;
+                try {
+                    game = futures.get(i).get();
+                } catch (ExecutionException ex) {
+                    throw new IllegalStateException("Game " + (i + 1) + " failed", ex.getCause());
+                }
+                score.add(game.getResult(), i % 2 == 0);
+                listener.gameFinished(i, game, score);
+            }
+            return score;
+        } finally {
+            executor.shutdownNow();
+            firstMonitor.unregister();
+            secondMonitor.unregister();
+        }
+    }
+
+    /**
+     * Receives the games of a match.
+     */
+    public interface GameListener {
+
+        /**
+         *
+         * @param index The index of the game, starting at 0.
+         * @param game The game.
+         * @param score The score of the first engine so far.
+         */
+        void gameFinished(int index, PGNGame game, Score score);
+    }
+
+    /**
+     * The chess board and agents of a thread.
+     */
+    private class Worker {
+
+        private final ChessBoard chessBoard = new ChessBoard();
+        private final AI firstAI = first.createAI(chessBoard);
+        private final AI secondAI = second.createAI(chessBoard);
+
+        Worker(SearchMonitor firstMonitor, SearchMonitor secondMonitor) {
+            firstAI.addSearchListener(firstMonitor);
+            secondAI.addSearchListener(secondMonitor);
+        }
+
+        PGNGame play(int round, String opening, String date) {
+            chessBoard.loadFEN(opening);
+            firstAI.getTranspositionTable().clear();
+            secondAI.getTranspositionTable().clear();
+            AI whiteAI = (round % 2 == 0) ? firstAI : secondAI;
+            AI blackAI = (round % 2 == 0) ? secondAI : firstAI;
+            whiteAI.playerColour = Colour.White;
+            blackAI.playerColour = Colour.Black;
+
+            PGNGame game = new PGNGame();
+            game.setTag("Event", "Self-play match");
+            game.setTag("Site", "?");
+            game.setTag("Date", date);
+            game.setTag("Round", Integer.toString(round + 1));
+            game.setTag("White", (round % 2 == 0) ? first.name : second.name);
+            game.setTag("Black", (round % 2 == 0) ? second.name : first.name);
+            if (!Game.isInitialPosition(opening)) {
+                game.setTag("SetUp", "1");
+                game.setTag("FEN", opening);
+            }
+
+            String result;
+            String reason;
+            while (true) {
+                Colour hasTurn = chessBoard.getHasTurn();
+                List<Move> legalMoves = chessBoard.getPossibleMoves(hasTurn);
+                if (legalMoves.isEmpty()) {
+                    if (chessBoard.getKing(hasTurn).inCheck()) {
+                        result = (hasTurn == Colour.White) ? "0-1" : "1-0";
+                        reason = (hasTurn == Colour.White) ? "Black mates" : "White mates";
+                    } else {
+                        result = "1/2-1/2";
+                        reason = "Stalemate";
+                    }
+                    break;
+                } else if (chessBoard.isThreefoldRepetition()) {
+                    result = "1/2-1/2";
+                    reason = "Threefold repetition";
+                    break;
+                } else if (chessBoard.isFiftyMoveRuleDraw()) {
+                    result = "1/2-1/2";
+                    reason = "Fifty-move rule";
+                    break;
+                } else if (hasInsufficientMaterial(chessBoard)) {
+                    result = "1/2-1/2";
+                    reason = "Insufficient material";
+                    break;
+                } else if (game.size() >= maxPlies) {
+                    result = "1/2-1/2";
+                    reason = "Move limit";
+                    game.setTag("Termination", "adjudication");
+                    break;
+                }
+                AI ai = (hasTurn == Colour.White) ? whiteAI : blackAI;
+                Move move = ai.getPlay();
+                game.addMove(SAN.format(move, legalMoves), move.toLongAlgebraicString());
+                move.doMove();
+            }
+            game.setResult(result);
+            if (game.size() > 0) {
+                game.setComment(game.size() - 1, reason);
+            } else {
+                game.setInitialComment(reason);
+            }
+            return game;
+        }
+    }
+
+    /**
+     *
+     * @param chessBoard The chess board.
+     * @return <code>True</code> if neither player can mate: only kings, or
+     * kings and a single bishop or knight.
+     */
+    static boolean hasInsufficientMaterial(ChessBoard chessBoard) {
+        int minorPieces = 0;
+        for (Colour colour : Colour.values()) {
+            for (ChessPiece p : chessBoard.getPieces(colour)) {
+                switch (p.getType()) {
+                    case King:
+                        break;
+                    case Bishop:
+                    case Knight:
+                        minorPieces++;
+                        break;
+                    default:
+                        return false;
+                }
+            }
+        }
+        return minorPieces <= 1;
+    }
+
+    /**
+     * An engine configuration: search limits and evaluation function.
+     */
+    public static final class Engine {
+
+        /**
+         * The name in the tags of the games.
+         */
+        public final String name;
+        /**
+         * The search depth.
+         */
+        public final int depth;
+        /**
+         * The maximum duration of a search in milliseconds, 0 for no limit.
+         */
+        public final long timeLimit;
+        /**
+         * The maximum number of nodes of a search, 0 for no limit.
+         */
+        public final long nodeLimit;
+        /**
+         * The size of the transposition table in megabytes.
+         */
+        public final int hashSize;
+        /**
+         * Creates the evaluation function of every agent.
+         */
+        private final Supplier<Evaluator> evaluator;
+
+        /**
+         *
+         * @param name The name in the tags of the games.
+         * @param depth The search depth.
+         * @param timeLimit The maximum duration of a search in milliseconds,
+         * 0 for no limit.
+         * @param nodeLimit The maximum number of nodes of a search, 0 for no
+         * limit.
+         * @param hashSize The size of the transposition table in megabytes.
+         * @param evaluator Creates the evaluation function of every agent, it
+         * is called once per thread.
+         */
+        public Engine(String name, int depth, long timeLimit, long nodeLimit, int hashSize,
+                Supplier<Evaluator> evaluator) {
+            this.name = name;
+            this.depth = Math.max(1, Math.min(depth, AI.MAX_DEPTH));
+            this.timeLimit = timeLimit;
+            this.nodeLimit = nodeLimit;
+            this.hashSize = hashSize;
+            this.evaluator = evaluator;
+        }
+
+        AI createAI(ChessBoard chessBoard) {
+            AI ai = new AI(Colour.White, chessBoard, new TranspositionTable(hashSize));
+            ai.setEvaluator(evaluator.get());
+            ai.searchDepth = depth;
+            ai.setTimeLimit(timeLimit);
+            ai.setNodeLimit(nodeLimit);
+            return ai;
+        }
+
+        /**
+         * Parse an engine configuration of the form
+         * <code>name:depth=4,time=100,nodes=0,hash=16,network=file</code>.
+         * Every option is optional; without a network the hand-written
+         * {@link Evaluation} is used.
+         *
+         * @param configuration The configuration.
+         * @return The engine.
+         * @throws IOException If the network cannot be loaded.
+         * @throws IllegalArgumentException If an option is not valid.
+         */
+        public static Engine parse(String configuration) throws IOException {
+            int colon = configuration.indexOf(':');
+            String name = (colon == -1) ? configuration : configuration.substring(0, colon);
+            int depth = AI.MAX_DEPTH;
+            long timeLimit = 0;
+            long nodeLimit = 0;
+            int hashSize = AI.DEFAULT_HASH_SIZE;
+            NeuralNetwork network = null;
+            if (colon != -1) {
+                for (String option : configuration.substring(colon + 1).split(",")) {
+                    int equals = option.indexOf('=');
+                    if (equals == -1) {
+                        throw new IllegalArgumentException("Expected name=value instead of " + option);
+                    }
+                    String value = option.substring(equals + 1);
+                    switch (option.substring(0, equals)) {
+                        case "depth":
+                            depth = Integer.parseInt(value);
+                            break;
+                        case "time":
+                            timeLimit = Long.parseLong(value);
+                            break;
+                        case "nodes":
+                            nodeLimit = Long.parseLong(value);
+                            break;
+                        case "hash":
+                            hashSize = Integer.parseInt(value);
+                            break;
+                        case "network":
+                            network = NeuralNetwork.load(Paths.get(value));
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown option " + option);
+                    }
+                }
+            }
+            if (depth == AI.MAX_DEPTH && timeLimit == 0 && nodeLimit == 0) {
+                throw new IllegalArgumentException("Engine " + name + " needs a depth, time or node limit");
+            }
+            NeuralNetwork finalNetwork = network;
+            Supplier<Evaluator> evaluator = (network == null) ? Evaluation::new
+                    : () -> new NeuralNetworkEvaluation(finalNetwork);
+            return new Engine(name, depth, timeLimit, nodeLimit, hashSize, evaluator);
+        }
+    }
+
+    /**
+     * The wins, draws and losses of the first engine.
+     */
+    public static final class Score {
+
+        private int wins;
+        private int draws;
+        private int losses;
+
+        /**
+         * Add the result of a game.
+         *
+         * @param result The result of the game.
+         * @param firstIsWhite <code>True</code> if the first engine played
+         * white.
+         */
+        void add(String result, boolean firstIsWhite) {
+            if (result.equals("1/2-1/2")) {
+                draws++;
+            } else if (result.equals("1-0") == firstIsWhite) {
+                wins++;
+            } else {
+                losses++;
+            }
+        }
+
+        /**
+         *
+         * @return The number of games.
+         */
+        public int getGames() {
+            return wins + draws + losses;
+        }
+
+        /**
+         *
+         * @return The fraction of the points scored, a draw counting as half
+         * a point.
+         */
+        public double getScore() {
+            int games = getGames();
+            return (games == 0) ? 0.5 : (wins + draws / 2.0) / games;
+        }
+
+        /**
+         *
+         * @return The estimated Elo difference of the first engine over the
+         * second.
+         */
+        public double getEloDifference() {
+            return elo(getScore());
+        }
+
+        /**
+         *
+         * @return Half the width of the 95% confidence interval of the Elo
+         * difference.
+         */
+        public double getEloMargin() {
+            int games = getGames();
+            if (games == 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double score = getScore();
+            // The variance of the result of a single game
+            double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2)
+                    + losses * Math.pow(score, 2)) / games;
+            double margin = 1.96 * Math.sqrt(variance / games);
+            double eloMargin = (elo(score + margin) - elo(score - margin)) / 2;
+            // Without losses or without wins the interval has no upper or lower bound
+            return Double.isNaN(eloMargin) ? Double.POSITIVE_INFINITY : eloMargin;
+        }
+
+        /**
+         *
+         * @param score The fraction of the points scored.
+         * @return The Elo difference that predicts the score.
+         */
+        private static double elo(double score) {
+            if (score <= 0) {
+                return Double.NEGATIVE_INFINITY;
+            } else if (score >= 1) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return -400 * Math.log10(1 / score - 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "+%d =%d -%d, score %.1f%%, Elo difference %.1f +/- %.1f",
+                    wins, draws, losses, 100 * getScore(), getEloDifference(), getEloMargin());
+        }
+    }
+
+    /**
+     * Play a match and write the games as PGN.
+     *
+     * Usage: <code>SelfPlayMatch games first second [output] [openings]
+     * [concurrent games] [maximum plies]</code>
+     *
+     * An engine is written as
+     * <code>name:depth=4,time=100,nodes=0,hash=16,network=file</code>, see
+     * {@link Engine#parse(String)}. The openings file has a FEN string per
+     * line; without it every game starts from the initial position.
+     *
+     * @param args The command line arguments.
+     * @throws IOException If a file cannot be read or written.
+     * @throws InterruptedException If the match is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 3) {
+            System.err.println("Usage: SelfPlayMatch games first second [output] [openings] "
+                    + "[concurrent games] [maximum plies]");
+            System.exit(1);
+        }
+        int games = Integer.parseInt(args[0]);
+        Engine first = Engine.parse(args[1]);
+        Engine second = Engine.parse(args[2]);
+        String output = (args.length > 3) ? args[3] : "match.pgn";
+        List<String> openings = Collections.singletonList(ChessBoard.START_POSITION);
+        if (args.length > 4) {
+            openings = new ArrayList<>();
+            for (String line : Files.readAllLines(Paths.get(args[4]), StandardCharsets.UTF_8)) {
+                if (!line.trim().isEmpty() && !line.startsWith("#")) {
+                    openings.add(line.trim());
+                }
+            }
+        }
+        int concurrency = (args.length > 5) ? Integer.parseInt(args[5])
+                : Runtime.getRuntime().availableProcessors();
+        int maxPlies = (args.length > 6) ? Integer.parseInt(args[6]) : DEFAULT_MAX_PLIES;
+
+        SelfPlayMatch match = new SelfPlayMatch(first, second, concurrency, maxPlies);
+        long startTime = System.nanoTime();
+        Score score;
+        try (PGNWriter writer = new PGNWriter(new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(Paths.get(output)), StandardCharsets.UTF_8)))) {
+            score = match.play(games, openings, (index, game, current) -> {
+                try {
+                    writer.write(game);
+                } catch (IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                System.out.println("Game " + (index + 1) + ": " + game.getTag("White") + " - "
+                        + game.getTag("Black") + " " + game.getResult() + " (" + game.size() + " plies), "
+                        + first.name + " " + current);
+            });
+        }
+        double seconds = (System.nanoTime() - startTime) / 1000000000.0;
+        System.out.println(first.name + " vs " + second.name + ": " + score);
+        System.out.println("Elapsed time: " + seconds + " s, concurrent games: " + concurrency);
+        System.out.println("Games per second: " + games / seconds);
+    }
+
+}
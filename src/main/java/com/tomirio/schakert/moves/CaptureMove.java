@@ -17,7 +17,6 @@
 package com.tomirio.schakert.moves;
 
 import com.tomirio.schakert.chessboard.ChessPiece;
-import com.tomirio.schakert.chessboard.PieceType;
 import com.tomirio.schakert.chessboard.Position;
 
 /**
@@ -44,34 +43,9 @@ public class CaptureMove extends NormalMove {
     }
 
     @Override
-    public String toString() {
-        String prefix = "";
-        if (!getAmbiguousPieces().isEmpty()) {
-            prefix += this.getUniquePrefix(getAmbiguousPieces());
-        }
-        if (movedPiece.getType() == PieceType.Pawn) {
-            if (movePutsEnemyKingInCheckmate()) {
-                return prefix + "x" + newPos.toString() + "#";
-            } else if (movePutsEnemyKingInCheck()) {
-                return prefix + "x" + newPos.toString() + "+";
-            } else {
-                return prefix + "x" + newPos.toString();
-            }
-
-        } else if (this.movePutsEnemyKingInCheckmate()) {
-            return movedPiece.getType().toShortString() + prefix + "x" + newPos.toString() + "#";
-        } else if (movePutsEnemyKingInCheck()) {
-            return movedPiece.getType().toShortString() + prefix + "x" + newPos.toString() + "+";
-        } else {
-            return movedPiece.getType().toShortString() + prefix + "x" + newPos.toString();
-        }
-    }
-
-    @Override
-    public void undoMove() {
-        super.undoMove();
+    protected void revertMove() {
+        super.revertMove();
         chessBoard.setPiece(capturedPiece);
-        chessBoard.setEnPassantTargetSquare(this.orgVulnerableEnPassantPos);
         chessBoard.updateKingStatus();
     }
 
@@ -25,6 +25,7 @@ import com.tomirio.schakert.chesspieces.Knight;
 import com.tomirio.schakert.chesspieces.Pawn;
 import com.tomirio.schakert.chesspieces.Queen;
 import com.tomirio.schakert.chesspieces.Rook;
+import java.util.Locale;
 import java.util.NoSuchElementException;
 
 /**
@@ -51,8 +52,8 @@ public class CapturePromotionMove extends CaptureMove {
     }
 
     @Override
-    public void doMove() {
-        super.doMove();
+    protected void applyMove() {
+        super.applyMove();
         // Create a chess piece of the correct type with the same colour and position of the pawn we just moved.
         ChessPiece p;
         switch (typeToPromoteTo) {
@@ -60,10 +61,7 @@ public class CapturePromotionMove extends CaptureMove {
                 p = new Queen(movedPiece.getColour(), movedPiece.getPos(), chessBoard);
                 break;
             case Rook:
-                Rook r = new Rook(movedPiece.getColour(), movedPiece.getPos(), chessBoard);
-                // Castling is only possible with one of the original rooks.
-                r.setCastlingPossible(false);
-                p = r;
+                p = new Rook(movedPiece.getColour(), movedPiece.getPos(), chessBoard);
                 break;
             case Knight:
                 p = new Knight(movedPiece.getColour(), movedPiece.getPos(), chessBoard);
@@ -77,7 +75,6 @@ public class CapturePromotionMove extends CaptureMove {
         chessBoard.setPiece(p);
         // Set piece to the queen we just created
         movedPiece = p;
-        chessBoard.setEnPassantTargetSquare(null);
         chessBoard.updateKingStatus();
     }
 
@@ -87,23 +84,8 @@ public class CapturePromotionMove extends CaptureMove {
     }
 
     @Override
-    public String toString() {
-        String prefix = "";
-        if (!getAmbiguousPieces().isEmpty()) {
-            prefix += this.getUniquePrefix(getAmbiguousPieces());
-        }
-        if (movePutsEnemyKingInCheckmate()) {
-            return prefix + "x" + newPos.toString() + "=Q" + "#";
-        } else if (movePutsEnemyKingInCheck()) {
-            return prefix + "x" + newPos.toString() + "=Q" + "+";
-        } else {
-            return prefix + "x" + newPos.toString() + "=Q";
-        }
-    }
-
-    @Override
-    public void undoMove() {
-        super.undoMove();
+    protected void revertMove() {
+        super.revertMove();
         /*
         Create a new pawn with the position of queen we just moved back.
         Note that we cannot use orgPos here, it will give the wrong position.
@@ -112,6 +94,13 @@ public class CapturePromotionMove extends CaptureMove {
          */
         Pawn p = new Pawn(movedPiece.getColour(), movedPiece.getPos(), chessBoard);
         chessBoard.setPiece(p);
+        // Set the piece to the pawn we just created
+        movedPiece = p;
+    }
+
+    @Override
+    public String toLongAlgebraicString() {
+        return super.toLongAlgebraicString() + typeToPromoteTo.toShortString().toLowerCase(Locale.ENGLISH);
     }
 
     public PieceType getPromotionType() {
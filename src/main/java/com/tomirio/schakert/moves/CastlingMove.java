@@ -19,6 +19,7 @@ package com.tomirio.schakert.moves;
 import com.tomirio.schakert.chessboard.Position;
 import com.tomirio.schakert.chesspieces.King;
 import com.tomirio.schakert.chesspieces.Rook;
+import java.util.ArrayList;
 
 /**
  *
@@ -55,53 +56,29 @@ public class CastlingMove extends NormalMove {
     }
 
     @Override
-    public void doMove() {
-        super.doMove();
-        King king = (King) movedPiece;
-        king.setCastlingPossible(false);
-        rook.setCastlingPossible(false);
+    protected void applyMove() {
+        super.applyMove();
         chessBoard.silentMovePiece(rook, rookNewPos);
-        movedPiece = king;
-        chessBoard.setEnPassantTargetSquare(null);
         chessBoard.updateKingStatus();
     }
 
     @Override
-    public boolean isCaptureMove() {
-        return false;
+    public ArrayList<Position> getChangedPositions() {
+        ArrayList<Position> changedPositions = super.getChangedPositions();
+        changedPositions.add(rookOrgPos);
+        changedPositions.add(rookNewPos);
+        return changedPositions;
     }
 
     @Override
-    public String toString() {
-        int colDist = Math.abs(rookOrgPos.getColumn() - orgPos.getColumn());
-        if (colDist == 3) {
-            // King side rook, castling short. 
-            if (this.movePutsEnemyKingInCheckmate()) {
-                return "O-O" + "#";
-            } else if (this.movePutsEnemyKingInCheck()) {
-                return "O-O" + "+";
-            } else {
-                return "O-O";
-            }
-
-        } else // Queen side rook, castling long.
-         if (this.movePutsEnemyKingInCheckmate()) {
-                return "O-O-O" + "#";
-            } else if (this.movePutsEnemyKingInCheck()) {
-                return "O-O-O" + "+";
-            } else {
-                return "O-O-O";
-            }
+    public boolean isCaptureMove() {
+        return false;
     }
 
     @Override
-    public void undoMove() {
-        super.undoMove();
-        King king = (King) movedPiece;
-        king.setCastlingPossible(true);
-        rook.setCastlingPossible(true);
+    protected void revertMove() {
+        super.revertMove();
         chessBoard.silentMovePiece(rook, rookOrgPos);
-        movedPiece = king;
         chessBoard.updateKingStatus();
     }
 
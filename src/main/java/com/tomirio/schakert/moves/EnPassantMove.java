@@ -18,6 +18,7 @@ package com.tomirio.schakert.moves;
 
 import com.tomirio.schakert.chessboard.ChessPiece;
 import com.tomirio.schakert.chessboard.Position;
+import java.util.ArrayList;
 
 /**
  *
@@ -38,8 +39,7 @@ public class EnPassantMove extends CaptureMove {
     }
 
     @Override
-    public void doMove() {
-        chessBoard.setEnPassantTargetSquare(null);
+    protected void applyMove() {
         chessBoard.silentMovePiece(movedPiece, newPos);
         chessBoard.deletePieceOnPos(capturedPiece.getPos());
         chessBoard.updateKingStatus();
@@ -47,18 +47,16 @@ public class EnPassantMove extends CaptureMove {
     }
 
     @Override
-    public boolean isCaptureMove() {
-        return true;
+    public ArrayList<Position> getChangedPositions() {
+        ArrayList<Position> changedPositions = super.getChangedPositions();
+        // The captured pawn is next to the original position
+        changedPositions.add(new Position(orgPos.getRow(), newPos.getColumn()));
+        return changedPositions;
     }
 
     @Override
-    public String toString() {
-        if (movePutsEnemyKingInCheckmate()) {
-            return orgPos.toString().charAt(0) + "x" + newPos.toString() + " e.p." + "#";
-        } else if (this.movePutsEnemyKingInCheck()) {
-            return orgPos.toString().charAt(0) + "x" + newPos.toString() + " e.p." + "+";
-        } else {
-            return orgPos.toString().charAt(0) + "x" + newPos.toString() + " e.p.";
-        }
+    public boolean isCaptureMove() {
+        return true;
     }
+
 }
@@ -18,11 +18,8 @@ package com.tomirio.schakert.moves;
 
 import com.tomirio.schakert.chessboard.ChessBoard;
 import com.tomirio.schakert.chessboard.ChessPiece;
-import com.tomirio.schakert.chessboard.Colour;
 import com.tomirio.schakert.chessboard.PieceType;
 import com.tomirio.schakert.chessboard.Position;
-import com.tomirio.schakert.chesspieces.King;
-import com.tomirio.schakert.chesspieces.Rook;
 import java.util.ArrayList;
 
 /**
@@ -49,21 +46,6 @@ public abstract class Move {
      */
     protected final Position orgPos;
 
-    /**
-     * Position that a pawn could en Passant capture.
-     */
-    protected Position orgVulnerableEnPassantPos;
-    /**
-     * Previous value for the variable that indicates whether the king that was
-     * involved in this move is able to perform a castling move.
-     */
-    protected boolean previousCastlingPossibleKing;
-    /**
-     * Previous value for the variable that indicates whether the rook that was
-     * involved in this move is able to perform a castling move.
-     */
-    protected boolean previousCastlingPossibleRook;
-
     /**
      *
      * @param movedPiece The chess piece involved in this move.
@@ -74,49 +56,24 @@ public abstract class Move {
         this.orgPos = movedPiece.getPos().deepClone();
         this.newPos = newPos.deepClone();
         this.chessBoard = movedPiece.getChessBoard();
-
-        if (chessBoard.getEnPassantTargetSquare() != null) {
-            this.orgVulnerableEnPassantPos = chessBoard.getEnPassantTargetSquare().deepClone();
-        }
-        saveCurrentCastlingValues();
     }
 
     /**
-     * Apply the move.
+     * Apply the move and add the new position to the position history of the
+     * chess board, which also derives the castling rights, the en passant
+     * target square and the move counters of the new position.
      */
-    public abstract void doMove();
+    public final void doMove() {
+        // A promotion replaces the moved piece
+        boolean pawnMove = movedPiece.getType() == PieceType.Pawn;
+        applyMove();
+        chessBoard.pushPosition(orgPos, newPos, pawnMove, isCaptureMove());
+    }
 
     /**
-     * Get Chesspieces of the same type that can move to the same new position
-     * as this move.
-     *
-     * @return List of ambiguous chess pieces.
+     * Move the pieces and update the turn.
      */
-    protected ArrayList<ChessPiece> getAmbiguousPieces() {
-        ArrayList<ChessPiece> ambiguousPieces = new ArrayList();
-        if (movedPiece.getType() == PieceType.King) {
-            return ambiguousPieces;
-        }
-        ArrayList<ChessPiece> friendlyPieces = chessBoard.getPieces(movedPiece.getColour());
-        for (ChessPiece p : friendlyPieces) {
-            if (p.getType() == movedPiece.getType()
-                    && !p.getPos().equals(movedPiece.getPos())) {
-                // Both pieces are of the same type
-                // Other piece is not the same as the piece in this move.
-                for (Move move : p.getPossibleMoves()) {
-                    if (move.getNewPos().equals(newPos)) {
-                        /*
-                            Other piece can move to the same position as
-                            the piece that is involved in this move.
-                         */
-                        ambiguousPieces.add(p);
-                    }
-                }
-
-            }
-        }
-        return ambiguousPieces;
-    }
+    protected abstract void applyMove();
 
     /**
      * Get the chess piece that was involved in the move
@@ -127,6 +84,15 @@ public abstract class Move {
         return movedPiece;
     }
 
+    /**
+     * Get the original position of the chess piece.
+     *
+     * @return The position of the chess piece before the move is applied.
+     */
+    public Position getOrgPos() {
+        return orgPos;
+    }
+
     /**
      * Get the new position of the chess piece if the move was applied.
      *
@@ -137,30 +103,17 @@ public abstract class Move {
     }
 
     /**
-     * When two (or more) identical pieces can move to the same square, the
-     * moving piece is uniquely identified by specifying the piece's letter,
-     * followed by (in descending order of preference): - the file of departure
-     * (if they differ); or - the rank of departure (if the files are the same
-     * but the ranks differ); or - both the file and rank (if neither alone is
-     * sufficient to identify the piece — which occurs only in rare cases where
-     * one or more pawns have promoted, resulting in a player having three or
-     * more identical pieces able to reach the same square).
+     * Get the positions whose content changes when the move is applied or
+     * undone: the original and the new position of the moved piece, and those
+     * of a piece that is moved or captured elsewhere.
      *
-     * @param ambiguousPieces The ambiguous chess pieces.
-     * @return The correct prefix to make the representation of the move unique.
+     * @return The changed positions.
      */
-    protected String getUniquePrefix(ArrayList<ChessPiece> ambiguousPieces) {
-        // Ranks are rows
-        // Files are columns
-        if (isUniqueColumn(ambiguousPieces)) {
-            // file of departure is different
-            return Character.toString(movedPiece.getPos().toString().charAt(0));
-        } else if (isUniqueRow(ambiguousPieces)) {
-            // rank of deperature is different
-            return Character.toString(movedPiece.getPos().toString().charAt(1));
-        } else {
-            return movedPiece.getPos().toString();
-        }
+    public ArrayList<Position> getChangedPositions() {
+        ArrayList<Position> changedPositions = new ArrayList<>(4);
+        changedPositions.add(orgPos);
+        changedPositions.add(newPos);
+        return changedPositions;
     }
 
     /**
@@ -200,47 +153,6 @@ public abstract class Move {
         return isStalemate;
     }
 
-    /**
-     * For all the pieces of the same type having a move that is the same as the
-     * final position of this move, check whether the column of the piece
-     * involved in this move is different from the ambiguous pieces.
-     *
-     * @param ambiguousPieces The ambiguous pieces.
-     * @return <code>True</code> if the column is unique, <code>False</code>
-     * otherwise.
-     */
-    private boolean isUniqueColumn(ArrayList<ChessPiece> ambiguousPieces) {
-        for (ChessPiece otherPiece : ambiguousPieces) {
-            if (otherPiece.getColumn() == movedPiece.getColumn()) {
-                // Column is not unique
-                return false;
-            }
-        }
-        // Column is unique
-        return true;
-    }
-
-    /**
-     * For all the pieces of the same type having a move that is the same as the
-     * final position of this move, check whether the row of the piece involved
-     * in this move is different from the ambiguous pieces.
-     *
-     * @param ambiguousPieces The ambiguous pieces.
-     * @return <code>True</code> if the row is unique, <code>False</code>
-     * otherwise.
-     */
-    private boolean isUniqueRow(ArrayList<ChessPiece> ambiguousPieces) {
-        for (ChessPiece otherPiece : ambiguousPieces) {
-            if (otherPiece.getRow() == movedPiece.getRow()) {
-                // Row is not unique
-                return false;
-            }
-
-        }
-        // Row is unique
-        return true;
-    }
-
     /**
      *
      * @return If the move is applied and will put the enemy king in check, this
@@ -268,41 +180,6 @@ public abstract class Move {
         return putsEnemyKingInCheckmate;
     }
 
-    /**
-     * Restore the original variable that indcates if a castlig move was
-     * possible
-     */
-    protected void restorePreviousCastlingValues() {
-        if (movedPiece.getType() == PieceType.King) {
-            King king = (King) movedPiece;
-            king.setCastlingPossible(previousCastlingPossibleKing);
-        }
-        if (movedPiece.getType() == PieceType.Rook) {
-            Rook rook = (Rook) movedPiece;
-            rook.setCastlingPossible(previousCastlingPossibleRook);
-        }
-    }
-
-    /**
-     * Restore the position that could be attacked by a pawn to perform an en
-     * Passant move.
-     */
-    protected void restoreVulnerableEnPassantPosition() {
-        chessBoard.setEnPassantTargetSquare(orgVulnerableEnPassantPos);
-
-    }
-
-    private void saveCurrentCastlingValues() {
-        if (movedPiece.getType() == PieceType.King) {
-            King king = (King) movedPiece;
-            previousCastlingPossibleKing = king.getCastlingPossible();
-        }
-        if (movedPiece.getType() == PieceType.Rook) {
-            Rook rook = (Rook) movedPiece;
-            previousCastlingPossibleRook = rook.getCastlingPossible();
-        }
-    }
-
     public boolean stalemateMove() {
         return isStalemateMove();
     }
@@ -310,52 +187,40 @@ public abstract class Move {
     /*
     NOTE: this method produces the String representation of the move
     assuming the move has NOT been performed on the chess board.
-    It will actually perform the move, check whether it puts the enemy king in 
-    check (or mate) position, and undo it.
+    It will perform the move once to determine the check or mate suffix,
+    and undo it. When the legal moves of the position are known, use
+    SAN.format(Move, List) instead.
      */
     @Override
-    public abstract String toString();
+    public String toString() {
+        return SAN.format(this);
+    }
 
     /**
-     * Undo the move.
+     * Undo the move and remove its position from the position history of the
+     * chess board, which restores the castling rights, the en passant target
+     * square and the move counters of the previous position.
      */
-    public abstract void undoMove();
+    public final void undoMove() {
+        chessBoard.popPosition();
+        revertMove();
+    }
 
     /**
-     * Upte the castling values if a move is peformed by either a king or a
-     * rook.
+     * Restore the pieces and the turn.
      */
-    protected void updateCastlingValues() {
-        if (movedPiece.getType() == PieceType.King) {
-            King king = (King) movedPiece;
-            king.setCastlingPossible(false);
-        }
-        if (movedPiece.getType() == PieceType.Rook) {
-            Rook rook = (Rook) movedPiece;
-            rook.setCastlingPossible(false);
-        }
-    }
+    protected abstract void revertMove();
 
     /**
-     * Update the vulernable enPassant position if a pawn moves to squares
-     * forward.
+     * Get the move in long algebraic notation as used by the UCI protocol,
+     * which is the original position followed by the new position, for
+     * example <code>e2e4</code>. Promotions are followed by the lower case
+     * letter of the promotion type, for example <code>e7e8q</code>.
+     *
+     * @return The move in long algebraic notation.
      */
-    protected void updateVulnerableEnPassantPosition() {
-        if (movedPiece.getType() == PieceType.Pawn) {
-            int rowDist = Math.abs(newPos.getRow() - orgPos.getRow());
-            if (rowDist == 2) {
-                // This move enables enPassant.
-                int rowShift = (movedPiece.getColour() == Colour.White) ? 1 : -1;
-                Position vulnerableEnPassantPos = new Position(newPos.getRow() + rowShift, newPos.getColumn());
-                chessBoard.setEnPassantTargetSquare(vulnerableEnPassantPos.deepClone());
-            } else {
-                // Move did not enable enPassant.
-                chessBoard.setEnPassantTargetSquare(null);
-            }
-        } else {
-            // Move did not involve a pawn, so we reset enPassant square.
-            chessBoard.setEnPassantTargetSquare(null);
-        }
+    public String toLongAlgebraicString() {
+        return orgPos.toString() + newPos.toString();
     }
 
 }
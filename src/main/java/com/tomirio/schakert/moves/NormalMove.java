@@ -17,7 +17,6 @@
 package com.tomirio.schakert.moves;
 
 import com.tomirio.schakert.chessboard.ChessPiece;
-import com.tomirio.schakert.chessboard.PieceType;
 import com.tomirio.schakert.chessboard.Position;
 
 /**
@@ -37,9 +36,7 @@ public class NormalMove extends Move {
     }
 
     @Override
-    public void doMove() {
-        updateVulnerableEnPassantPosition();
-        updateCastlingValues();
+    protected void applyMove() {
         chessBoard.silentMovePiece(movedPiece, newPos);
         chessBoard.updateKingStatus();
         chessBoard.updateTurn();
@@ -51,39 +48,8 @@ public class NormalMove extends Move {
     }
 
     @Override
-    public String toString() {
-        String prefix = "";
-        if (!getAmbiguousPieces().isEmpty()) {
-            prefix += this.getUniquePrefix(getAmbiguousPieces());
-        }
-        if (movedPiece.getType() == PieceType.Pawn) {
-            // Also need to check for ambuigity
-            String pos = newPos.toString();
-            if (this.movePutsEnemyKingInCheckmate()) {
-                return prefix + pos + "#";
-            } else if (movePutsEnemyKingInCheck()) {
-                return prefix + pos + "+";
-            } else {
-                return prefix + pos;
-            }
-        } else {
-            String type = movedPiece.getType().toShortString();
-            String move = prefix + newPos.toString();
-            if (movePutsEnemyKingInCheckmate()) {
-                return type + move + "#";
-            } else if (movePutsEnemyKingInCheck()) {
-                return type + move + "+";
-            } else {
-                return type + move;
-            }
-        }
-    }
-
-    @Override
-    public void undoMove() {
+    protected void revertMove() {
         chessBoard.silentMovePiece(movedPiece, orgPos);
-        restoreVulnerableEnPassantPosition();
-        restorePreviousCastlingValues();
         chessBoard.updateKingStatus();
         chessBoard.updateTurn();
     }
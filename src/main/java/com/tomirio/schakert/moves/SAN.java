@@ -0,0 +1,392 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.moves;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.chessboard.ChessPiece;
+import com.tomirio.schakert.chessboard.Colour;
+import com.tomirio.schakert.chessboard.PieceType;
+import com.tomirio.schakert.chessboard.Position;
+import java.util.List;
+
+/**
+ * Standard Algebraic Notation (SAN). A move in SAN is resolved against the
+ * legal moves of the pieces that could have made it, so only the moves of the
+ * pieces of the right type (and file or rank, if given) are generated.
+ *
+ * A move is written in SAN from the legal moves of its position, which are
+ * needed to disambiguate it, and a single make and unmake of the move to
+ * determine the check or mate suffix. Only if the move gives check, the
+ * opponent is searched for a legal move, and the search stops at the first
+ * one.
+ *
+ * The notation is read leniently: check, mate and annotation suffixes
+ * (<code>+ # ! ?</code>) and the en passant suffix <code>e.p.</code> are
+ * ignored, captures may be written with <code>x</code>, <code>:</code> or not
+ * at all, castling with letter O or digit zero and a promotion with or
+ * without <code>=</code>.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Algebraic_notation_(chess)">
+ * https://en.wikipedia.org/wiki/Algebraic_notation_(chess)</a>
+ *
+ * @author Tom Sandmann
+ */
+public final class SAN {
+
+    /**
+     * Another piece of the same type can move to the same square.
+     */
+    private static final int AMBIGUOUS = 1;
+    /**
+     * Such a piece is on the same file.
+     */
+    private static final int SAME_FILE = 2;
+    /**
+     * Such a piece is on the same rank.
+     */
+    private static final int SAME_RANK = 4;
+    /**
+     * The optional suffix of an en passant capture, which is read but not
+     * written.
+     */
+    private static final String EN_PASSANT_SUFFIX = "e.p.";
+
+    private SAN() {
+    }
+
+    /**
+     * Write a move that has not been applied yet in SAN.
+     *
+     * @param move The move.
+     * @param legalMoves The legal moves of the position, the move may be one
+     * of them.
+     * @return The move in SAN.
+     */
+    public static String format(Move move, List<Move> legalMoves) {
+        int ambiguity = 0;
+        if (needsDisambiguation(move)) {
+            for (Move other : legalMoves) {
+                ambiguity |= ambiguity(move, other);
+            }
+        }
+        return format(move, ambiguity);
+    }
+
+    /**
+     * Write a move that has not been applied yet in SAN, when the legal moves
+     * of the position are not known. Only the pieces of the same type that
+     * can reach the new position are tested for legality.
+     *
+     * @param move The move.
+     * @return The move in SAN.
+     */
+    public static String format(Move move) {
+        int ambiguity = 0;
+        if (needsDisambiguation(move)) {
+            ChessPiece movedPiece = move.getInvolvedPiece();
+            ChessBoard chessBoard = move.chessBoard;
+            for (ChessPiece p : chessBoard.getPieces(movedPiece.getColour())) {
+                if (p.getType() != movedPiece.getType() || p == movedPiece) {
+                    continue;
+                }
+                for (Move other : p.getRawPossibleMoves()) {
+                    int otherAmbiguity = ambiguity(move, other);
+                    if (otherAmbiguity != 0 && chessBoard.doesNotPutOwnKingInCheck(other)) {
+                        ambiguity |= otherAmbiguity;
+                    }
+                }
+            }
+        }
+        return format(move, ambiguity);
+    }
+
+    private static String format(Move move, int ambiguity) {
+        StringBuilder san = new StringBuilder(8);
+        Position orgPos = move.getOrgPos();
+        Position newPos = move.getNewPos();
+        PieceType type = move.getInvolvedPiece().getType();
+        if (move instanceof CastlingMove) {
+            san.append((newPos.getColumn() > orgPos.getColumn()) ? "O-O" : "O-O-O");
+        } else {
+            if (type == PieceType.Pawn) {
+                if (move.isCaptureMove()) {
+                    san.append(file(orgPos));
+                }
+            } else {
+                san.append(type.toShortString());
+                if ((ambiguity & AMBIGUOUS) != 0) {
+                    // The file if it is unique, else the rank if it is unique, else both
+                    if ((ambiguity & SAME_FILE) == 0) {
+                        san.append(file(orgPos));
+                    } else if ((ambiguity & SAME_RANK) == 0) {
+                        san.append(rank(orgPos));
+                    } else {
+                        san.append(file(orgPos)).append(rank(orgPos));
+                    }
+                }
+            }
+            if (move.isCaptureMove()) {
+                san.append('x');
+            }
+            san.append(file(newPos)).append(rank(newPos));
+            PieceType promotionType = getPromotionType(move);
+            if (promotionType != null) {
+                san.append('=').append(promotionType.toShortString());
+            }
+        }
+        return san.append(checkSuffix(move)).toString();
+    }
+
+    /**
+     *
+     * @param move The move.
+     * @return <code>True</code> if another piece could make the same move,
+     * which is never the case for pawns (the file of a capture is always
+     * written), kings and castling.
+     */
+    private static boolean needsDisambiguation(Move move) {
+        PieceType type = move.getInvolvedPiece().getType();
+        return type != PieceType.Pawn && type != PieceType.King;
+    }
+
+    /**
+     *
+     * @param move The move.
+     * @param other Another legal move.
+     * @return The ambiguity flags if the other move is made by another piece
+     * of the same type to the same square, 0 otherwise.
+     */
+    private static int ambiguity(Move move, Move other) {
+        Position orgPos = move.getOrgPos();
+        Position otherOrgPos = other.getOrgPos();
+        if (other.getInvolvedPiece().getType() != move.getInvolvedPiece().getType()
+                || !other.getNewPos().equals(move.getNewPos())
+                || otherOrgPos.equals(orgPos)) {
+            return 0;
+        }
+        int ambiguity = AMBIGUOUS;
+        if (otherOrgPos.getColumn() == orgPos.getColumn()) {
+            ambiguity |= SAME_FILE;
+        }
+        if (otherOrgPos.getRow() == orgPos.getRow()) {
+            ambiguity |= SAME_RANK;
+        }
+        return ambiguity;
+    }
+
+    /**
+     * Apply the move once to determine whether it gives check or mate.
+     *
+     * @param move The move.
+     * @return <code>#</code> for mate, <code>+</code> for check, an empty
+     * string otherwise.
+     */
+    private static String checkSuffix(Move move) {
+        ChessBoard chessBoard = move.chessBoard;
+        Colour opponent = move.getInvolvedPiece().getColour().getOpposite();
+        move.doMove();
+        String suffix = "";
+        if (chessBoard.getKing(opponent).inCheck()) {
+            suffix = chessBoard.canMakeAMove(opponent) ? "+" : "#";
+        }
+        move.undoMove();
+        return suffix;
+    }
+
+    private static char file(Position pos) {
+        return (char) ('a' + pos.getColumn());
+    }
+
+    private static char rank(Position pos) {
+        return (char) ('0' + ChessBoard.ROWS - pos.getRow());
+    }
+
+    /**
+     * Find the legal move of the player having turn that is written in SAN.
+     *
+     * @param chessBoard The chess board.
+     * @param san The move in SAN.
+     * @return The legal move, or <code>null</code> if the notation is not
+     * valid, the move is not legal or more than one legal move matches.
+     */
+    public static Move parse(ChessBoard chessBoard, String san) {
+        int end = san.length();
+        while (end > 0 && isSuffix(san.charAt(end - 1))) {
+            end--;
+        }
+        if (san.startsWith(EN_PASSANT_SUFFIX, end - EN_PASSANT_SUFFIX.length())) {
+            end -= EN_PASSANT_SUFFIX.length();
+            while (end > 0 && san.charAt(end - 1) == ' ') {
+                end--;
+            }
+        }
+        if (end == 0) {
+            return null;
+        }
+        Colour colour = chessBoard.getHasTurn();
+        if (isCastling(san, end, 3)) {
+            return findCastlingMove(chessBoard, colour, 6);
+        }
+        if (isCastling(san, end, 5)) {
+            return findCastlingMove(chessBoard, colour, 2);
+        }
+
+        PieceType promotionType = null;
+        if (end >= 2 && san.charAt(end - 2) == '=') {
+            promotionType = pieceType(san.charAt(end - 1));
+            if (promotionType == null) {
+                return null;
+            }
+            end -= 2;
+        } else if (end >= 3 && pieceType(san.charAt(end - 1)) != null && isRank(san.charAt(end - 2))) {
+            // Promotion without '=', for example e8Q
+            promotionType = pieceType(san.charAt(end - 1));
+            end--;
+        }
+        if (end < 2 || !isFile(san.charAt(end - 2)) || !isRank(san.charAt(end - 1))) {
+            return null;
+        }
+        int toRow = ChessBoard.ROWS - (san.charAt(end - 1) - '0');
+        int toColumn = san.charAt(end - 2) - 'a';
+
+        int start = 0;
+        PieceType type = pieceType(san.charAt(0));
+        if (type == null) {
+            type = PieceType.Pawn;
+        } else {
+            start = 1;
+        }
+        int fromRow = -1;
+        int fromColumn = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (isFile(c)) {
+                fromColumn = c - 'a';
+            } else if (isRank(c)) {
+                fromRow = ChessBoard.ROWS - (c - '0');
+            } else if (c != 'x' && c != ':' && c != '-') {
+                return null;
+            }
+        }
+
+        Move found = null;
+        for (ChessPiece p : chessBoard.getPieces(colour)) {
+            if (p.getType() != type
+                    || fromRow != -1 && p.getRow() != fromRow
+                    || fromColumn != -1 && p.getColumn() != fromColumn) {
+                continue;
+            }
+            for (Move move : p.getPossibleMoves()) {
+                Position newPos = move.getNewPos();
+                if (newPos.getRow() == toRow && newPos.getColumn() == toColumn
+                        && !(move instanceof CastlingMove)
+                        && getPromotionType(move) == promotionType) {
+                    if (found != null) {
+                        // Ambiguous
+                        return null;
+                    }
+                    found = move;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     *
+     * @param move The move.
+     * @return The type the pawn promotes to, or <code>null</code> if the move
+     * is not a promotion.
+     */
+    public static PieceType getPromotionType(Move move) {
+        if (move instanceof PromotionMove) {
+            return ((PromotionMove) move).getPromotionType();
+        } else if (move instanceof CapturePromotionMove) {
+            return ((CapturePromotionMove) move).getPromotionType();
+        }
+        return null;
+    }
+
+    private static Move findCastlingMove(ChessBoard chessBoard, Colour colour, int kingColumn) {
+        for (Move move : chessBoard.getKing(colour).getPossibleMoves()) {
+            if (move instanceof CastlingMove && move.getNewPos().getColumn() == kingColumn) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    /**
+     *
+     * @param san The notation.
+     * @param end The end of the notation without suffixes.
+     * @param length 3 for castling king side, 5 for castling queen side.
+     * @return <code>True</code> if the notation is castling to that side.
+     */
+    private static boolean isCastling(String san, int end, int length) {
+        if (end != length) {
+            return false;
+        }
+        char o = san.charAt(0);
+        if (o != 'O' && o != '0') {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            char expected = (i % 2 == 1) ? '-' : o;
+            if (san.charAt(i) != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSuffix(char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    private static boolean isFile(char c) {
+        return c >= 'a' && c <= 'h';
+    }
+
+    private static boolean isRank(char c) {
+        return c >= '1' && c <= '8';
+    }
+
+    /**
+     *
+     * @param c A piece letter.
+     * @return The piece type of a piece letter other than the pawn, or
+     * <code>null</code>.
+     */
+    private static PieceType pieceType(char c) {
+        switch (c) {
+            case 'K':
+                return PieceType.King;
+            case 'Q':
+                return PieceType.Queen;
+            case 'R':
+                return PieceType.Rook;
+            case 'B':
+                return PieceType.Bishop;
+            case 'N':
+                return PieceType.Knight;
+            default:
+                return null;
+        }
+    }
+
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.perft;
+
+import com.tomirio.schakert.chessboard.BoardState;
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.moves.Move;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs perft on a pool of threads. The root moves of a position, and the
+ * positions of a suite, are split into independent tasks. Every task works on
+ * its own chess board, created from a {@link BoardState} of the root. The
+ * {@link PerftTable} is shared between all threads.
+ *
+ * @author Tom Sandmann
+ */
+public class ParallelPerft implements AutoCloseable {
+
+    /**
+     * The thread pool.
+     */
+    private final ExecutorService executor;
+    /**
+     * The shared hash table, <code>null</code> if hashing is disabled.
+     */
+    private final PerftTable table;
+    /**
+     * The statistics of every thread of the pool, by thread name.
+     */
+    private final ConcurrentHashMap<String, ThreadStatistics> statistics;
+
+    /**
+     *
+     * @param threads The number of threads.
+     * @param hashSize The size of the shared hash table in megabytes, 0
+     * disables hashing.
+     */
+    public ParallelPerft(int threads, int hashSize) {
+        executor = Executors.newFixedThreadPool(threads);
+        table = (hashSize > 0) ? new PerftTable(hashSize) : null;
+        statistics = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * The work done by one thread of the pool.
+     */
+    public static final class ThreadStatistics {
+
+        /**
+         * The name of the thread.
+         */
+        public final String threadName;
+        /**
+         * The number of finished tasks.
+         */
+        private long tasks;
+        /**
+         * The number of counted leaf nodes.
+         */
+        private long nodes;
+        /**
+         * The time spent on tasks in nanoseconds.
+         */
+        private long busyTime;
+
+        ThreadStatistics(String threadName) {
+            this.threadName = threadName;
+        }
+
+        /**
+         *
+         * @return The number of finished tasks.
+         */
+        public long getTasks() {
+            return tasks;
+        }
+
+        /**
+         *
+         * @return The number of counted leaf nodes.
+         */
+        public long getNodes() {
+            return nodes;
+        }
+
+        /**
+         *
+         * @return The number of leaf nodes per second of busy time.
+         */
+        public double getNodesPerSecond() {
+            return (busyTime == 0) ? 0 : nodes / (busyTime / 1000000000.0);
+        }
+
+        @Override
+        public String toString() {
+            return threadName + ": " + tasks + " tasks, " + nodes + " nodes, "
+                    + busyTime / 1000000 + " ms, " + (long) getNodesPerSecond() + " nodes per second";
+        }
+    }
+
+    /**
+     * Submit one task per root move of a position.
+     *
+     * @param FEN The FEN string of the position.
+     * @param depth The depth, at least 1.
+     * @return The futures of the leaf node counts, one per root move.
+     */
+    private List<Future<Long>> submit(String FEN, int depth) {
+        ChessBoard root = new ChessBoard();
+        root.loadFEN(FEN);
+        BoardState rootState = new BoardState();
+        rootState.copyFrom(root);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (Move rootMove : root.getPossibleMoves(root.getHasTurn())) {
+            String notation = rootMove.toLongAlgebraicString();
+            futures.add(executor.submit(() -> countRootMove(rootState, notation, depth)));
+        }
+        return futures;
+    }
+
+    /**
+     * Count the leaf nodes below a root move on a board of its own.
+     *
+     * @param rootState The state of the root, which is not modified.
+     * @param notation The root move in long algebraic notation.
+     * @param depth The depth of the root.
+     * @return The number of leaf nodes below the root move.
+     */
+    private long countRootMove(BoardState rootState, String notation, int depth) {
+        long startTime = System.nanoTime();
+        ChessBoard chessBoard = new ChessBoard(rootState);
+        Move move = findMove(chessBoard, notation);
+        move.doMove();
+        long nodes = new Perft(chessBoard, table).perft(depth - 1);
+        String name = Thread.currentThread().getName();
+        ThreadStatistics threadStatistics = statistics.computeIfAbsent(name, ThreadStatistics::new);
+        threadStatistics.tasks++;
+        threadStatistics.nodes += nodes;
+        threadStatistics.busyTime += System.nanoTime() - startTime;
+        return nodes;
+    }
+
+    private static Move findMove(ChessBoard chessBoard, String notation) {
+        for (Move move : chessBoard.getPossibleMoves(chessBoard.getHasTurn())) {
+            if (move.toLongAlgebraicString().equals(notation)) {
+                return move;
+            }
+        }
+        throw new IllegalStateException("The move " + notation + " is not legal on the copied board!");
+    }
+
+    private static long sum(List<Future<Long>> futures) throws InterruptedException, ExecutionException {
+        long nodes = 0;
+        for (Future<Long> future : futures) {
+            nodes += future.get();
+        }
+        return nodes;
+    }
+
+    /**
+     * Count the leaf nodes of a position, splitting the root moves over the
+     * threads.
+     *
+     * @param FEN The FEN string of the position.
+     * @param depth The depth.
+     * @return The number of leaf nodes.
+     * @throws InterruptedException If interrupted while waiting.
+     * @throws ExecutionException If a task failed.
+     */
+    public long perft(String FEN, int depth) throws InterruptedException, ExecutionException {
+        if (depth == 0) {
+            return 1;
+        }
+        return sum(submit(FEN, depth));
+    }
+
+    /**
+     * Run all entries of a suite. The root moves of all positions are
+     * submitted at once, so independent positions run in parallel as well.
+     *
+     * @param entries The entries, see {@link PerftSuite#parse}.
+     * @return The number of leaf nodes of each entry, in the same order.
+     * @throws InterruptedException If interrupted while waiting.
+     * @throws ExecutionException If a task failed.
+     */
+    public List<Long> runSuite(List<PerftSuite.Entry> entries) throws InterruptedException, ExecutionException {
+        List<List<Future<Long>>> submitted = new ArrayList<>();
+        for (PerftSuite.Entry entry : entries) {
+            submitted.add(submit(entry.FEN, entry.depth));
+        }
+        List<Long> results = new ArrayList<>();
+        for (List<Future<Long>> futures : submitted) {
+            results.add(sum(futures));
+        }
+        return results;
+    }
+
+    /**
+     *
+     * @return The statistics of every thread that executed a task.
+     */
+    public Collection<ThreadStatistics> getThreadStatistics() {
+        return statistics.values();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run a perft suite from the command line and check the results.
+     *
+     * Usage: <code>ParallelPerft [threads] [hash size in MB] [maximum number
+     * of nodes per entry] [suite file]</code>
+     *
+     * Entries with more expected nodes than the maximum are skipped. The suite
+     * file contains one entry per line; the standard suite is used if it is
+     * omitted.
+     *
+     * @param args The command line arguments.
+     * @throws Exception If the suite could not be read or a task failed.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = (args.length > 0) ? Integer.parseInt(args[0])
+                : Runtime.getRuntime().availableProcessors();
+        int hashSize = (args.length > 1) ? Integer.parseInt(args[1]) : Perft.DEFAULT_HASH_SIZE;
+        long maxNodes = (args.length > 2) ? Long.parseLong(args[2]) : Long.MAX_VALUE;
+        List<String> lines = (args.length > 3)
+                ? Files.readAllLines(Paths.get(args[3]), StandardCharsets.UTF_8) : PerftSuite.STANDARD;
+
+        List<PerftSuite.Entry> entries = new ArrayList<>();
+        for (String line : lines) {
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            PerftSuite.Entry entry = PerftSuite.parse(line);
+            if (entry.expectedNodes <= maxNodes) {
+                entries.add(entry);
+            }
+        }
+
+        int failures = 0;
+        try (ParallelPerft parallelPerft = new ParallelPerft(threads, hashSize)) {
+            long startTime = System.nanoTime();
+            List<Long> results = parallelPerft.runSuite(entries);
+            double seconds = (System.nanoTime() - startTime) / 1000000000.0;
+
+            long totalNodes = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                PerftSuite.Entry entry = entries.get(i);
+                long result = results.get(i);
+                totalNodes += result;
+                boolean passed = result == entry.expectedNodes;
+                if (!passed) {
+                    failures++;
+                }
+                System.out.println((passed ? "OK     " : "FAILED ") + entry.FEN + " depth " + entry.depth
+                        + ": expected " + entry.expectedNodes + ", got " + result);
+            }
+            System.out.println();
+            for (ThreadStatistics threadStatistics : parallelPerft.getThreadStatistics()) {
+                System.out.println(threadStatistics);
+            }
+            System.out.println();
+            System.out.println("Positions: " + entries.size() + ", failed: " + failures);
+            System.out.println("Nodes: " + totalNodes);
+            System.out.println("Elapsed time: " + seconds + " s");
+            System.out.println("Nodes per second: " + (long) (totalNodes / seconds));
+        }
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+}
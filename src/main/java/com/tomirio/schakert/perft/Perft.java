@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.perft;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.chessboard.ChessPiece;
+import com.tomirio.schakert.moves.Move;
+import com.tomirio.schakert.utils.NaturalOrderComparator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <b>Perft</b>, (performance test, move path enumeration) walks the move
+ * generation tree of strictly legal moves to count all the leaf nodes of a
+ * certain depth, which can be compared to predetermined values and used to
+ * isolate bugs.
+ *
+ * Two techniques keep the number of moves that are actually made low:
+ * <ul>
+ * <li><b>Bulk counting</b>: at the last ply the legal moves are counted instead
+ * of made and unmade one by one.</li>
+ * <li><b>Hashing</b>: the count below a position is stored in a
+ * {@link PerftTable} keyed by the Zobrist key of the position and the
+ * remaining depth, so transpositions are only searched once.</li>
+ * </ul>
+ *
+ * @see <a href="https://chessprogramming.wikispaces.com/Perft">
+ * https://chessprogramming.wikispaces.com/Perft</a>
+ *
+ * @author Tom Sandmann
+ */
+public class Perft {
+
+    /**
+     * Default size of the hash table in megabytes.
+     */
+    public static final int DEFAULT_HASH_SIZE = 64;
+
+    /**
+     * The chess board.
+     */
+    private final ChessBoard chessBoard;
+    /**
+     * The hash table, <code>null</code> if hashing is disabled.
+     */
+    private final PerftTable table;
+
+    /**
+     *
+     * @param chessBoard The chess board.
+     * @param table The hash table, or <code>null</code> to disable hashing.
+     */
+    public Perft(ChessBoard chessBoard, PerftTable table) {
+        this.chessBoard = chessBoard;
+        this.table = table;
+    }
+
+    /**
+     * Count the leaf nodes of the game tree for each legal move in the current
+     * position. The moves are in long algebraic notation.
+     *
+     * @param depth The depth, at least 1.
+     * @return Map from each move to its number of leaf nodes, ordered by the
+     * move.
+     * @throws IllegalArgumentException If the depth is less than 1.
+     */
+    public Map<String, Long> divide(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("The depth of divide must be at least 1: " + depth);
+        }
+        NaturalOrderComparator naturalOrder = new NaturalOrderComparator();
+        Map<String, Long> results = new TreeMap<>(naturalOrder::compare);
+        for (Move move : chessBoard.getPossibleMoves(chessBoard.getHasTurn())) {
+            String notation = move.toLongAlgebraicString();
+            move.doMove();
+            results.put(notation, perft(depth - 1));
+            move.undoMove();
+        }
+        return results;
+    }
+
+    /**
+     * Count the leaf nodes of the game tree of the current position.
+     *
+     * @param depth The depth, at least 0.
+     * @return The number of leaf nodes at the given depth, 1 for depth 0.
+     * @throws IllegalArgumentException If the depth is negative.
+     */
+    public long perft(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("The depth must be at least 0: " + depth);
+        }
+        if (depth == 0) {
+            return 1;
+        }
+        if (depth == 1) {
+            // Bulk counting, the legal moves are the leaf nodes.
+            long nodes = 0;
+            for (ChessPiece piece : chessBoard.getPieces(chessBoard.getHasTurn())) {
+                nodes += piece.getPossibleMoves().size();
+            }
+            return nodes;
+        }
+        long key = 0;
+        if (table != null) {
+            key = chessBoard.getZobristKey();
+            long stored = table.probe(key, depth);
+            if (stored != PerftTable.MISS) {
+                return stored;
+            }
+        }
+        long nodes = 0;
+        ArrayList<ChessPiece> pieces = chessBoard.getPieces(chessBoard.getHasTurn());
+        for (ChessPiece piece : pieces) {
+            for (Move move : piece.getPossibleMoves()) {
+                move.doMove();
+                nodes += perft(depth - 1);
+                move.undoMove();
+            }
+        }
+        if (table != null) {
+            table.store(key, depth, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * Run divide perft from the command line and print the count of every
+     * root move, the total number of leaf nodes and the speed.
+     *
+     * Usage: <code>Perft "FEN" depth [hash size in MB, 0 disables
+     * hashing]</code>
+     *
+     * @param args The command line arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: Perft \"FEN\" depth [hash size in MB, 0 disables hashing]");
+            System.exit(1);
+        }
+        int depth = Integer.parseInt(args[1]);
+        if (depth < 0) {
+            System.err.println("The depth must be at least 0.");
+            System.exit(1);
+        }
+        int hashSize = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_HASH_SIZE;
+        ChessBoard chessBoard = new ChessBoard();
+        chessBoard.loadFEN(args[0]);
+        Perft perft = new Perft(chessBoard, (hashSize > 0) ? new PerftTable(hashSize) : null);
+
+        long startTime = System.nanoTime();
+        Map<String, Long> results = (depth == 0) ? Collections.emptyMap() : perft.divide(depth);
+        long elapsedTime = System.nanoTime() - startTime;
+
+        // Depth 0 has no root moves to divide, only the root itself.
+        long nodes = (depth == 0) ? perft.perft(0) : 0;
+        for (Map.Entry<String, Long> result : results.entrySet()) {
+            System.out.println(result.getKey() + " " + result.getValue());
+            nodes += result.getValue();
+        }
+        double seconds = elapsedTime / 1000000000.0;
+        System.out.println();
+        System.out.println("Moves: " + results.size());
+        System.out.println("Nodes: " + nodes);
+        System.out.println("Elapsed time: " + seconds + " s");
+        System.out.println("Nodes per second: " + (long) (nodes / seconds));
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.perft;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Perft positions with known results. Each entry is a FEN string followed by
+ * the search depth (number of plies) and the correct number of leaf nodes.
+ *
+ * @see <a href="http://www.chessprogramming.net/perfect-perft/">
+ * http://www.chessprogramming.net/perfect-perft/</a>
+ *
+ * @author Tom Sandmann
+ */
+public final class PerftSuite {
+
+    /**
+     * The standard suite, the same positions as used in the perft test.
+     */
+    public static final List<String> STANDARD = Arrays.asList(
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 6 119060324",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 5 193690690",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 7 178633661",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1 6 706045033",
+            "1k6/1b6/8/8/7R/8/8/4K2R b K - 0 1 5 1063513",
+            // TalkChess PERFT Tests (by Martin Sedlak)
+            //--Illegal ep move #1
+            "3k4/3p4/8/K1P4r/8/8/8/8 b - - 0 1 6 1134888",
+            //--Illegal ep move #2
+            "8/8/4k3/8/2p5/8/B2P2K1/8 w - - 0 1 6 1015133",
+            //--EP Capture Checks Opponent
+            "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1 6 1440467",
+            //--Short Castling Gives Check
+            "5k2/8/8/8/8/8/8/4K2R w K - 0 1 6 661072",
+            //--Long Castling Gives Check
+            "3k4/8/8/8/8/8/8/R3K3 w Q - 0 1 6 803711",
+            //--Castle Rights
+            "r3k2r/1b4bq/8/8/8/8/7B/R3K2R w KQkq - 0 1 4 1274206",
+            //--Castling Prevented
+            "r3k2r/8/3Q4/8/8/5q2/8/R3K2R b KQkq - 0 1 4 1720476",
+            //--Promote out of Check
+            "2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1 6 3821001",
+            //--Discovered Check
+            "8/8/1P2K3/8/2n5/1q6/8/5k2 b - - 0 1 5 1004658",
+            //--Promote to give check
+            "4k3/1P6/8/8/8/8/K7/8 w - - 0 1 6 217342",
+            //--Under Promote to give check
+            "8/P1k5/K7/8/8/8/8/8 w - - 0 1 6 92683",
+            //--Self Stalemate
+            "K1k5/8/P7/8/8/8/8/8 w - - 0 1 6 2217",
+            //--Stalemate & Checkmate
+            "8/k1P5/8/1K6/8/8/8/8 w - - 0 1 7 567584",
+            //--Stalemate & Checkmate
+            "8/8/2k5/5q2/5n2/8/5K2/8 b - - 0 1 4 23527"
+    );
+
+    private PerftSuite() {
+    }
+
+    /**
+     * A position of the suite.
+     */
+    public static final class Entry {
+
+        /**
+         * The FEN string.
+         */
+        public final String FEN;
+        /**
+         * The search depth.
+         */
+        public final int depth;
+        /**
+         * The correct number of leaf nodes.
+         */
+        public final long expectedNodes;
+
+        /**
+         *
+         * @param FEN The FEN string.
+         * @param depth The search depth.
+         * @param expectedNodes The correct number of leaf nodes.
+         */
+        public Entry(String FEN, int depth, long expectedNodes) {
+            this.FEN = FEN;
+            this.depth = depth;
+            this.expectedNodes = expectedNodes;
+        }
+
+        @Override
+        public String toString() {
+            return FEN + " " + depth + " " + expectedNodes;
+        }
+    }
+
+    /**
+     * Parse an entry of a suite. The last two fields are the depth and the
+     * number of leaf nodes, everything in front of them is the FEN string.
+     *
+     * @param line The entry.
+     * @return The parsed entry.
+     */
+    public static Entry parse(String line) {
+        String trimmed = line.trim();
+        int nodesIndex = trimmed.lastIndexOf(' ');
+        int depthIndex = trimmed.lastIndexOf(' ', nodesIndex - 1);
+        if (depthIndex == -1) {
+            throw new IllegalArgumentException("The perft entry " + line + " does not contain a depth and a number of nodes!");
+        }
+        String FEN = trimmed.substring(0, depthIndex);
+        int depth = Integer.parseInt(trimmed.substring(depthIndex + 1, nodesIndex));
+        long nodes = Long.parseLong(trimmed.substring(nodesIndex + 1));
+        return new Entry(FEN, depth, nodes);
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.perft;
+
+/**
+ * Hash table that stores the number of leaf nodes below a position for a
+ * given depth, so that transpositions in the perft tree are only counted once.
+ *
+ * The table is direct mapped and always replaces. The check word of an entry
+ * is the key XOR the count (the "lockless hashing" scheme of Hyatt and Mann),
+ * so the table can be shared between threads without locks: an entry that is
+ * torn by a concurrent write simply does not verify and is treated as a miss.
+ *
+ * @author Tom Sandmann
+ */
+public final class PerftTable {
+
+    /**
+     * Returned by {@link #probe} if the table contains no count.
+     */
+    public static final long MISS = -1L;
+    /**
+     * Number of bytes used per entry.
+     */
+    private static final int ENTRY_SIZE = 16;
+
+    /**
+     * The check words: the key of the entry XOR its count.
+     */
+    private final long[] checks;
+    /**
+     * The stored counts.
+     */
+    private final long[] counts;
+    /**
+     * Mask to map a key to an index.
+     */
+    private final int mask;
+
+    /**
+     *
+     * @param sizeInMegaBytes The size of the table in megabytes. The number of
+     * entries is rounded down to a power of two.
+     */
+    public PerftTable(int sizeInMegaBytes) {
+        long entries = Math.max(1L, ((long) sizeInMegaBytes << 20) / ENTRY_SIZE);
+        int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+        checks = new long[size];
+        counts = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Combine the key of a position with the remaining depth.
+     *
+     * @param positionKey The Zobrist key of the position.
+     * @param depth The remaining depth.
+     * @return The key of the entry.
+     */
+    private static long key(long positionKey, int depth) {
+        return positionKey ^ (depth * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     *
+     * @param positionKey The Zobrist key of the position.
+     * @param depth The remaining depth.
+     * @return The stored number of leaf nodes, or {@link #MISS}.
+     */
+    public long probe(long positionKey, int depth) {
+        long key = key(positionKey, depth);
+        int index = (int) key & mask;
+        long count = counts[index];
+        return ((checks[index] ^ count) == key) ? count : MISS;
+    }
+
+    /**
+     *
+     * @param positionKey The Zobrist key of the position.
+     * @param depth The remaining depth.
+     * @param count The number of leaf nodes.
+     */
+    public void store(long positionKey, int depth, long count) {
+        long key = key(positionKey, depth);
+        int index = (int) key & mask;
+        counts[index] = count;
+        checks[index] = key ^ count;
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.server;
+
+import java.util.Objects;
+
+/**
+ * A request to analyse a position. Requests are equal if they ask for the
+ * same analysis, in which case the server runs only one search for them.
+ *
+ * @author Tom Sandmann
+ */
+public final class AnalysisRequest {
+
+    /**
+     * The FEN string of the position, with normalised white space.
+     */
+    public final String FEN;
+    /**
+     * The maximum search depth.
+     */
+    public final int depth;
+    /**
+     * The maximum search time in milliseconds, 0 if there is none.
+     */
+    public final long moveTime;
+
+    /**
+     *
+     * @param FEN The FEN string of the position.
+     * @param depth The maximum search depth.
+     * @param moveTime The maximum search time in milliseconds, 0 if there is
+     * none.
+     */
+    public AnalysisRequest(String FEN, int depth, long moveTime) {
+        this.FEN = FEN.trim().replaceAll("\\s+", " ");
+        this.depth = depth;
+        this.moveTime = moveTime;
+    }
+
+    @Override
+    public boolean equals(Object otherObject) {
+        if (!(otherObject instanceof AnalysisRequest)) {
+            return false;
+        }
+        AnalysisRequest other = (AnalysisRequest) otherObject;
+        return FEN.equals(other.FEN) && depth == other.depth && moveTime == other.moveTime;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(FEN, depth, moveTime);
+    }
+
+    @Override
+    public String toString() {
+        return FEN + " depth " + depth + " movetime " + moveTime;
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.server;
+
+import java.util.List;
+
+/**
+ * The outcome of the analysis of a position.
+ *
+ * @author Tom Sandmann
+ */
+public final class AnalysisResult {
+
+    /**
+     * The best move in long algebraic notation, <code>null</code> if the
+     * position has no legal moves.
+     */
+    public final String bestMove;
+    /**
+     * The score of the best move, relative to the side to move.
+     */
+    public final double score;
+    /**
+     * The deepest completed iteration.
+     */
+    public final int depth;
+    /**
+     * The number of searched nodes.
+     */
+    public final long nodes;
+    /**
+     * The duration of the search in milliseconds.
+     */
+    public final long time;
+    /**
+     * The principal variation in long algebraic notation.
+     */
+    public final List<String> principalVariation;
+
+    /**
+     *
+     * @param bestMove The best move in long algebraic notation, or
+     * <code>null</code>.
+     * @param score The score of the best move.
+     * @param depth The deepest completed iteration.
+     * @param nodes The number of searched nodes.
+     * @param time The duration of the search in milliseconds.
+     * @param principalVariation The principal variation.
+     */
+    public AnalysisResult(String bestMove, double score, int depth, long nodes, long time,
+            List<String> principalVariation) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.time = time;
+        this.principalVariation = principalVariation;
+    }
+
+    /**
+     *
+     * @return The result as a JSON object.
+     */
+    public String toJSON() {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"bestmove\":").append((bestMove == null) ? "null" : "\"" + bestMove + "\"");
+        sb.append(",\"score\":").append(Double.isInfinite(score) ? (score > 0 ? "\"Infinity\"" : "\"-Infinity\"") : score);
+        sb.append(",\"depth\":").append(depth);
+        sb.append(",\"nodes\":").append(nodes);
+        sb.append(",\"time\":").append(time);
+        sb.append(",\"pv\":[");
+        for (int i = 0; i < principalVariation.size(); i++) {
+            sb.append((i == 0) ? "" : ",").append('"').append(principalVariation.get(i)).append('"');
+        }
+        return sb.append("]}").toString();
+    }
+
+}
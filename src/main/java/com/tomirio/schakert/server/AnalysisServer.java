@@ -0,0 +1,450 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tomirio.schakert.agent.AI;
+import com.tomirio.schakert.agent.SearchListener;
+import com.tomirio.schakert.agent.SearchMonitor;
+import com.tomirio.schakert.agent.SearchStatistics;
+import com.tomirio.schakert.agent.TranspositionTable;
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.chessboard.Colour;
+import com.tomirio.schakert.moves.Move;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+
+/**
+ * HTTP server that analyses positions on a bounded pool of agents.
+ *
+ * <ul>
+ * <li><code>/analyse?fen=&lt;FEN&gt;&amp;depth=&lt;depth&gt;&amp;movetime=&lt;ms&gt;</code>
+ * (GET, or POST with a form encoded body) returns the best move, score,
+ * depth, number of nodes and principal variation as JSON.</li>
+ * <li><code>/stats</code> returns the queue depth, the number of merged and
+ * rejected requests and the latency percentiles as JSON.</li>
+ * </ul>
+ *
+ * Every worker thread has its own chess board and agent. Requests wait in a
+ * bounded queue; if it is full the server answers 503. Equal requests that
+ * arrive while one of them is queued or searched are merged into a single
+ * search, so bursts of identical requests cost one search.
+ *
+ * @author Tom Sandmann
+ */
+public class AnalysisServer {
+
+    /**
+     * The search depth if a request specifies neither depth nor time.
+     */
+    public static final int DEFAULT_DEPTH = 4;
+    /**
+     * The number of most recent requests used for the latency percentiles.
+     */
+    private static final int LATENCY_WINDOW = 4096;
+
+    /**
+     * The HTTP server.
+     */
+    private final HttpServer server;
+    /**
+     * Runs the HTTP handlers, which never block on a search.
+     */
+    private final ExecutorService handlerExecutor;
+    /**
+     * Runs the searches.
+     */
+    private final ThreadPoolExecutor workers;
+    /**
+     * The agent and chess board of every worker thread.
+     */
+    private final ThreadLocal<AI> agents;
+    /**
+     * The agents of all worker threads, so that a stop can end their
+     * searches.
+     */
+    private final Set<AI> allAgents;
+    /**
+     * The requests that are queued or searched, with their pending result.
+     */
+    private final ConcurrentHashMap<AnalysisRequest, CompletableFuture<AnalysisResult>> inFlight;
+    /**
+     * The latencies of the answered requests.
+     */
+    private final LatencyStatistics latencies;
+    /**
+     * The number of requests merged into a search of an equal request.
+     */
+    private final AtomicLong mergedRequests;
+    /**
+     * The number of requests rejected because the queue was full.
+     */
+    private final AtomicLong rejectedRequests;
+    /**
+     * The number of finished searches.
+     */
+    private final AtomicLong searches;
+    /**
+     * Collects the statistics of the searches of all workers.
+     */
+    private final SearchMonitor monitor;
+
+    /**
+     *
+     * @param port The port to listen on.
+     * @param workerCount The number of searches that run at the same time.
+     * @param queueCapacity The number of searches that can wait for a worker.
+     * @param hashSize The size of the transposition table of each worker in
+     * megabytes.
+     * @throws IOException If the server socket cannot be bound.
+     */
+    public AnalysisServer(int port, int workerCount, int queueCapacity, int hashSize) throws IOException {
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+        monitor = new SearchMonitor();
+        allAgents = ConcurrentHashMap.newKeySet();
+        agents = ThreadLocal.withInitial(() -> {
+            ChessBoard chessBoard = new ChessBoard();
+            AI ai = new AI(chessBoard.getHasTurn(), chessBoard, new TranspositionTable(hashSize));
+            ai.addSearchListener(monitor);
+            allAgents.add(ai);
+            return ai;
+        });
+        inFlight = new ConcurrentHashMap<>();
+        latencies = new LatencyStatistics(LATENCY_WINDOW);
+        mergedRequests = new AtomicLong();
+        rejectedRequests = new AtomicLong();
+        searches = new AtomicLong();
+        handlerExecutor = Executors.newFixedThreadPool(2);
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/analyse", this::handleAnalyse);
+        server.createContext("/stats", this::handleStats);
+        server.setExecutor(handlerExecutor);
+    }
+
+    /**
+     * Start accepting requests and publish the search statistics over JMX as
+     * <code>analysis-server-&lt;port&gt;</code>.
+     */
+    public void start() {
+        server.start();
+        try {
+            monitor.register("analysis-server-" + getPort());
+        } catch (JMException ex) {
+            Logger.getLogger(AnalysisServer.class.getName()).log(Level.WARNING, null, ex);
+        }
+    }
+
+    /**
+     * Stop accepting requests and stop the workers. Running searches end with
+     * the best move found so far, queued requests fail with a
+     * {@link RejectedExecutionException}.
+     */
+    public void stop() {
+        server.stop(0);
+        handlerExecutor.shutdownNow();
+        for (AI ai : allAgents) {
+            ai.stop();
+        }
+        for (Runnable queued : workers.shutdownNow()) {
+            ((SearchTask) queued).fail(new RejectedExecutionException("The server is stopped"));
+        }
+        monitor.unregister();
+    }
+
+    /**
+     *
+     * @return The port the server listens on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Get the result of a request. If an equal request is already queued or
+     * searched, its result is shared instead of starting another search.
+     *
+     * @param request The request.
+     * @return The pending result.
+     * @throws RejectedExecutionException If the queue is full.
+     */
+    public CompletableFuture<AnalysisResult> analyse(AnalysisRequest request) {
+        CompletableFuture<AnalysisResult> created = new CompletableFuture<>();
+        CompletableFuture<AnalysisResult> existing = inFlight.putIfAbsent(request, created);
+        if (existing != null) {
+            mergedRequests.incrementAndGet();
+            return existing;
+        }
+        try {
+            workers.execute(new SearchTask(request, created));
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(request);
+            rejectedRequests.incrementAndGet();
+            created.completeExceptionally(ex);
+        }
+        return created;
+    }
+
+    /**
+     * A queued search and the result it completes.
+     */
+    private class SearchTask implements Runnable {
+
+        private final AnalysisRequest request;
+        private final CompletableFuture<AnalysisResult> result;
+
+        SearchTask(AnalysisRequest request, CompletableFuture<AnalysisResult> result) {
+            this.request = request;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            try {
+                result.complete(search(request));
+            } catch (Throwable ex) {
+                // Also errors, or the response and every merged request
+                // would wait forever.
+                result.completeExceptionally(ex);
+            } finally {
+                inFlight.remove(request);
+            }
+        }
+
+        /**
+         * Fail a search that will never run.
+         *
+         * @param failure The reason.
+         */
+        void fail(Throwable failure) {
+            inFlight.remove(request);
+            result.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * Search a position with the agent of the current worker thread.
+     *
+     * @param request The request.
+     * @return The result.
+     */
+    private AnalysisResult search(AnalysisRequest request) {
+        AI ai = agents.get();
+        try {
+            ai.chessBoard.loadFEN(request.FEN);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid FEN string " + request.FEN, ex);
+        }
+        Colour hasTurn = ai.chessBoard.getHasTurn();
+        ai.playerColour = hasTurn;
+        ai.searchDepth = request.depth;
+        ai.setTimeLimit(request.moveTime);
+        ResultCollector collector = new ResultCollector();
+        ai.addSearchListener(collector);
+        try {
+            Move bestMove = ai.getPlay();
+            SearchStatistics statistics = ai.getStatistics();
+            searches.incrementAndGet();
+            return new AnalysisResult((bestMove == null) ? null : bestMove.toLongAlgebraicString(),
+                    collector.score, statistics.getDepth(), statistics.getTotalNodes(),
+                    statistics.getElapsedTime() / 1000000, collector.principalVariation);
+        } finally {
+            ai.removeSearchListener(collector);
+        }
+    }
+
+    /**
+     * Keeps the score and principal variation of the last completed
+     * iteration.
+     */
+    private static class ResultCollector implements SearchListener {
+
+        private double score;
+        private List<String> principalVariation = new ArrayList<>();
+
+        @Override
+        public void iterationFinished(int depth, double score, List<String> principalVariation, SearchStatistics statistics) {
+            this.score = score;
+            this.principalVariation = principalVariation;
+        }
+
+        @Override
+        public void searchProgress(int depth, SearchStatistics statistics) {
+            // The result is built from the last iteration.
+        }
+
+        @Override
+        public void searchFinished(Move bestMove, SearchStatistics statistics) {
+            // The result is built from the last iteration.
+        }
+    }
+
+    private void handleAnalyse(HttpExchange exchange) throws IOException {
+        long startTime = System.nanoTime();
+        AnalysisRequest request;
+        try {
+            Map<String, String> parameters = parseParameters(exchange);
+            String FEN = parameters.get("fen");
+            if (FEN == null) {
+                respond(exchange, 400, error("Missing parameter fen"));
+                return;
+            }
+            long moveTime = Long.parseLong(parameters.getOrDefault("movetime", "0"));
+            int defaultDepth = (moveTime > 0) ? AI.MAX_DEPTH : DEFAULT_DEPTH;
+            int depth = Integer.parseInt(parameters.getOrDefault("depth", Integer.toString(defaultDepth)));
+            request = new AnalysisRequest(FEN, Math.max(1, Math.min(depth, AI.MAX_DEPTH)), Math.max(0, moveTime));
+        } catch (NumberFormatException ex) {
+            respond(exchange, 400, error("Invalid number: " + ex.getMessage()));
+            return;
+        }
+        analyse(request).whenComplete((result, failure) -> {
+            try {
+                if (failure == null) {
+                    respond(exchange, 200, result.toJSON());
+                } else {
+                    Throwable cause = (failure instanceof CompletionException) ? failure.getCause() : failure;
+                    if (cause instanceof RejectedExecutionException) {
+                        respond(exchange, 503, error("The queue is full"));
+                    } else if (cause instanceof IllegalArgumentException) {
+                        respond(exchange, 400, error(cause.getMessage()));
+                    } else {
+                        Logger.getLogger(AnalysisServer.class.getName()).log(Level.SEVERE, null, cause);
+                        respond(exchange, 500, error(String.valueOf(cause)));
+                    }
+                }
+            } catch (IOException ex) {
+                Logger.getLogger(AnalysisServer.class.getName()).log(Level.WARNING, null, ex);
+            } finally {
+                latencies.record((System.nanoTime() - startTime) / 1000000);
+            }
+        });
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, getStatisticsJSON());
+    }
+
+    /**
+     *
+     * @return The statistics of the server as a JSON object.
+     */
+    public String getStatisticsJSON() {
+        long[] percentiles = latencies.getPercentiles(50, 90, 99);
+        return "{\"queued\":" + workers.getQueue().size()
+                + ",\"active\":" + workers.getActiveCount()
+                + ",\"workers\":" + workers.getMaximumPoolSize()
+                + ",\"searches\":" + searches.get()
+                + ",\"requests\":" + latencies.getCount()
+                + ",\"merged\":" + mergedRequests.get()
+                + ",\"rejected\":" + rejectedRequests.get()
+                + ",\"latency\":{\"p50\":" + percentiles[0] + ",\"p90\":" + percentiles[1]
+                + ",\"p99\":" + percentiles[2] + "}}";
+    }
+
+    private static String error(String message) {
+        return "{\"error\":\"" + String.valueOf(message).replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+
+    /**
+     * Parse the parameters of the query string and, for POST requests, of the
+     * form encoded body.
+     */
+    private static Map<String, String> parseParameters(HttpExchange exchange) throws IOException {
+        Map<String, String> parameters = new HashMap<>();
+        parseQuery(exchange.getRequestURI().getRawQuery(), parameters);
+        if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] buffer = new byte[1024];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    body.write(buffer, 0, read);
+                }
+            }
+            parseQuery(new String(body.toByteArray(), StandardCharsets.UTF_8), parameters);
+        }
+        return parameters;
+    }
+
+    private static void parseQuery(String query, Map<String, String> parameters) throws UnsupportedEncodingException {
+        if (query == null || query.isEmpty()) {
+            return;
+        }
+        for (String pair : query.split("&")) {
+            int index = pair.indexOf('=');
+            if (index > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, index), "UTF-8"),
+                        URLDecoder.decode(pair.substring(index + 1), "UTF-8"));
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Run the server.
+     *
+     * Usage: <code>AnalysisServer [port] [workers] [queue capacity] [hash
+     * size per worker in MB]</code>
+     *
+     * @param args The command line arguments.
+     * @throws IOException If the server socket cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 8080;
+        int workerCount = (args.length > 1) ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        int queueCapacity = (args.length > 2) ? Integer.parseInt(args[2]) : 64;
+        int hashSize = (args.length > 3) ? Integer.parseInt(args[3]) : AI.DEFAULT_HASH_SIZE;
+        AnalysisServer analysisServer = new AnalysisServer(port, workerCount, queueCapacity, hashSize);
+        analysisServer.start();
+        System.out.println("Listening on port " + analysisServer.getPort() + " with " + workerCount + " workers");
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.server;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the latencies of the most recent requests and computes percentiles
+ * over them.
+ *
+ * @author Tom Sandmann
+ */
+public final class LatencyStatistics {
+
+    /**
+     * The latencies in milliseconds, used as a ring buffer.
+     */
+    private final long[] latencies;
+    /**
+     * The total number of recorded latencies.
+     */
+    private long count;
+
+    /**
+     *
+     * @param window The number of most recent latencies to keep.
+     */
+    public LatencyStatistics(int window) {
+        latencies = new long[window];
+    }
+
+    /**
+     *
+     * @param latency The latency of a request in milliseconds.
+     */
+    public synchronized void record(long latency) {
+        latencies[(int) (count % latencies.length)] = latency;
+        count++;
+    }
+
+    /**
+     *
+     * @return The total number of recorded latencies.
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Compute percentiles over the most recent latencies.
+     *
+     * @param percentiles The percentiles, between 0 and 100.
+     * @return The latency of each percentile in milliseconds, 0 if nothing
+     * was recorded yet.
+     */
+    public long[] getPercentiles(double... percentiles) {
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(latencies, (int) Math.min(count, latencies.length));
+        }
+        Arrays.sort(sorted);
+        long[] result = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length && sorted.length > 0; i++) {
+            int index = (int) Math.ceil(percentiles[i] / 100 * sorted.length) - 1;
+            result[i] = sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+        return result;
+    }
+
+}
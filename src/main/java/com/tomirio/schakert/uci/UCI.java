@@ -0,0 +1,615 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.uci;
+
+import com.tomirio.schakert.agent.AI;
+import com.tomirio.schakert.agent.Evaluation;
+import com.tomirio.schakert.agent.NeuralNetwork;
+import com.tomirio.schakert.agent.NeuralNetworkEvaluation;
+import com.tomirio.schakert.agent.ScoreFormat;
+import com.tomirio.schakert.agent.SearchListener;
+import com.tomirio.schakert.agent.SearchMonitor;
+import com.tomirio.schakert.agent.SearchStatistics;
+import com.tomirio.schakert.book.PolyglotBook;
+import com.tomirio.schakert.chessboard.BoardState;
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.chessboard.Colour;
+import com.tomirio.schakert.game.FENFormatException;
+import com.tomirio.schakert.moves.Move;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Headless front end that speaks the Universal Chess Interface protocol on
+ * standard input and output, so the engine can be used by chess GUIs,
+ * tournament managers and analysis scripts without JavaFX.
+ *
+ * The commands are read on the main thread while searches run on a thread of
+ * their own, so <code>stop</code>, <code>isready</code> and
+ * <code>quit</code> are handled immediately, also during a search. With more
+ * than one thread, helper agents search the same position on their own boards
+ * and share the transposition table with the main agent. The searches of the
+ * main agent are published over JMX by a {@link SearchMonitor} named
+ * <code>uci</code>.
+ *
+ * @see <a href="http://wbec-ridderkerk.nl/html/UCIProtocol.html">
+ * http://wbec-ridderkerk.nl/html/UCIProtocol.html</a>
+ *
+ * @author Tom Sandmann
+ */
+public class UCI {
+
+    /**
+     * The name of the engine.
+     */
+    public static final String NAME = "Schakert";
+    /**
+     * The author of the engine.
+     */
+    public static final String AUTHOR = "Tom Sandmann";
+    /**
+     * The largest transposition table in megabytes.
+     */
+    private static final int MAX_HASH_SIZE = 4096;
+    /**
+     * The largest number of search threads.
+     */
+    private static final int MAX_THREADS = 64;
+    /**
+     * Time in milliseconds kept in reserve for communication.
+     */
+    private static final long MOVE_OVERHEAD = 50;
+    /**
+     * The number of moves the remaining time is divided over if the GUI does
+     * not send <code>movestogo</code>.
+     */
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    /**
+     * The default last full move of a game in which the engine plays from its
+     * book.
+     */
+    private static final int DEFAULT_BOOK_DEPTH = 20;
+    /**
+     * The largest book depth.
+     */
+    private static final int MAX_BOOK_DEPTH = 200;
+
+    /**
+     * The output.
+     */
+    private final PrintStream out;
+    /**
+     * The chess board of the current position.
+     */
+    private final ChessBoard chessBoard;
+    /**
+     * The main agent, which reports the search progress.
+     */
+    private final AI ai;
+    /**
+     * Runs the searches of the main agent and the helpers.
+     */
+    private final ExecutorService executor;
+    /**
+     * The helper agents of the current search.
+     */
+    private final List<AI> helpers;
+    /**
+     * The number of search threads.
+     */
+    private int threads;
+    /**
+     * The network of the evaluation, <code>null</code> for the hand-written
+     * evaluation.
+     */
+    private NeuralNetwork network;
+    /**
+     * The opening book, <code>null</code> if none was loaded.
+     */
+    private PolyglotBook book;
+    /**
+     * <code>True</code> if the engine plays moves from its book.
+     */
+    private boolean ownBook;
+    /**
+     * The last full move of a game in which the engine plays from its book.
+     */
+    private int bookDepth = DEFAULT_BOOK_DEPTH;
+    /**
+     * <code>True</code> to play the book move with the highest weight.
+     */
+    private boolean bookBestMove;
+    /**
+     * The current search, <code>null</code> if there was none yet.
+     */
+    private Future<?> search;
+    /**
+     * Released by <code>stop</code>, an infinite search waits for it before
+     * sending its best move.
+     */
+    private CountDownLatch stopSignal;
+
+    /**
+     *
+     * @param out The stream the responses are written to.
+     */
+    public UCI(PrintStream out) {
+        this.out = out;
+        chessBoard = new ChessBoard();
+        ai = new AI(chessBoard.getHasTurn(), chessBoard);
+        // The table is shared with the helpers, go starts a new search in it.
+        ai.setAgeTable(false);
+        ai.addSearchListener(new InfoWriter());
+        ai.addSearchListener(SearchMonitor.create("uci"));
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "uci-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        helpers = new ArrayList<>();
+        threads = 1;
+        stopSignal = new CountDownLatch(0);
+    }
+
+    /**
+     * Writes <code>info</code> lines for every completed iteration.
+     */
+    private class InfoWriter implements SearchListener {
+
+        @Override
+        public void iterationFinished(int depth, double score, List<String> principalVariation, SearchStatistics statistics) {
+            StringBuilder sb = new StringBuilder("info depth ").append(depth);
+            sb.append(" score ").append(ScoreFormat.toUCI(score, principalVariation.size()));
+            sb.append(" nodes ").append(statistics.getTotalNodes());
+            sb.append(" nps ").append((long) statistics.getNodesPerSecond());
+            sb.append(" time ").append(statistics.getElapsedTime() / 1000000);
+            if (!principalVariation.isEmpty()) {
+                sb.append(" pv ").append(String.join(" ", principalVariation));
+            }
+            out.println(sb);
+        }
+
+        @Override
+        public void searchProgress(int depth, SearchStatistics statistics) {
+            // Only completed iterations are reported.
+        }
+
+        @Override
+        public void searchFinished(Move bestMove, SearchStatistics statistics) {
+            // The best move is sent by the search task.
+        }
+    }
+
+    /**
+     * Read and handle commands until <code>quit</code> or the end of the
+     * input.
+     *
+     * @param in The input.
+     * @throws IOException If reading fails.
+     */
+    public void run(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!handle(line)) {
+                break;
+            }
+        }
+        stop();
+    }
+
+    /**
+     * Handle a single command.
+     *
+     * @param line The command.
+     * @return <code>False</code> if the engine has to quit, <code>True</code>
+     * otherwise.
+     */
+    public boolean handle(String line) {
+        String[] tokens = line.trim().split("\\s+");
+        try {
+            return handle(tokens);
+        } catch (NumberFormatException ex) {
+            out.println("info string Invalid number in " + line);
+            return true;
+        }
+    }
+
+    private boolean handle(String[] tokens) {
+        switch (tokens[0]) {
+            case "uci":
+                out.println("id name " + NAME);
+                out.println("id author " + AUTHOR);
+                out.println("option name Hash type spin default " + AI.DEFAULT_HASH_SIZE
+                        + " min 1 max " + MAX_HASH_SIZE);
+                out.println("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                out.println("option name EvalFile type string default <empty>");
+                out.println("option name OwnBook type check default false");
+                out.println("option name BookFile type string default <empty>");
+                out.println("option name BookDepth type spin default " + DEFAULT_BOOK_DEPTH
+                        + " min 0 max " + MAX_BOOK_DEPTH);
+                out.println("option name BookBestMove type check default false");
+                out.println("uciok");
+                break;
+            case "isready":
+                out.println("readyok");
+                break;
+            case "ucinewgame":
+                waitForSearch();
+                ai.getTranspositionTable().clear();
+                break;
+            case "setoption":
+                setOption(tokens);
+                break;
+            case "position":
+                position(tokens);
+                break;
+            case "go":
+                go(tokens);
+                break;
+            case "stop":
+                stop();
+                break;
+            case "quit":
+                stop();
+                return false;
+            default:
+                // Unknown commands are ignored, as the protocol requires.
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Handle <code>setoption name &lt;name&gt; value &lt;value&gt;</code>.
+     *
+     * @param tokens The tokens of the command.
+     */
+    private void setOption(String[] tokens) {
+        StringBuilder name = new StringBuilder();
+        String value = null;
+        for (int i = 1; i < tokens.length; i++) {
+            if (tokens[i].equals("value") && i + 1 < tokens.length) {
+                // The value may contain spaces, for example in a path.
+                value = String.join(" ", Arrays.copyOfRange(tokens, i + 1, tokens.length));
+                break;
+            } else if (!tokens[i].equals("name")) {
+                name.append((name.length() == 0) ? "" : " ").append(tokens[i]);
+            }
+        }
+        if (value == null) {
+            return;
+        }
+        try {
+            switch (name.toString().toLowerCase()) {
+                case "hash":
+                    waitForSearch();
+                    ai.setHashSize(clamp(Integer.parseInt(value), 1, MAX_HASH_SIZE));
+                    break;
+                case "threads":
+                    threads = clamp(Integer.parseInt(value), 1, MAX_THREADS);
+                    break;
+                case "evalfile":
+                    waitForSearch();
+                    setEvalFile(value);
+                    break;
+                case "ownbook":
+                    ownBook = Boolean.parseBoolean(value);
+                    break;
+                case "bookfile":
+                    setBookFile(value);
+                    break;
+                case "bookdepth":
+                    bookDepth = clamp(Integer.parseInt(value), 0, MAX_BOOK_DEPTH);
+                    break;
+                case "bookbestmove":
+                    bookBestMove = Boolean.parseBoolean(value);
+                    break;
+                default:
+                    out.println("info string Unknown option " + name);
+                    break;
+            }
+        } catch (NumberFormatException ex) {
+            out.println("info string Invalid value " + value + " for option " + name);
+        }
+    }
+
+    /**
+     * Switch to the network in a file, or back to the hand-written evaluation
+     * for <code>&lt;empty&gt;</code>.
+     *
+     * @param file The network file.
+     */
+    private void setEvalFile(String file) {
+        if (file.equals("<empty>")) {
+            network = null;
+            ai.setEvaluator(new Evaluation());
+            chessBoard.setAccumulator(null);
+            return;
+        }
+        try {
+            network = NeuralNetwork.load(Paths.get(file));
+            ai.setEvaluator(new NeuralNetworkEvaluation(network));
+            out.println("info string Loaded network " + file + " with " + network.getHiddenSize()
+                    + " hidden neurons");
+        } catch (IOException ex) {
+            out.println("info string Could not load network " + file + ": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Open the book in a file, or close the book for
+     * <code>&lt;empty&gt;</code>.
+     *
+     * @param file The book file.
+     */
+    private void setBookFile(String file) {
+        if (file.equals("<empty>")) {
+            book = null;
+            return;
+        }
+        try {
+            book = new PolyglotBook(Paths.get(file));
+            out.println("info string Loaded book " + file + " with " + book.size() + " entries");
+        } catch (IOException ex) {
+            out.println("info string Could not load book " + file + ": " + ex.getMessage());
+        }
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Handle <code>position [fen &lt;FEN&gt; | startpos] [moves
+     * &lt;move1&gt; ...]</code>.
+     *
+     * @param tokens The tokens of the command.
+     */
+    private void position(String[] tokens) {
+        waitForSearch();
+        int i = 1;
+        String FEN;
+        if (tokens.length > 1 && tokens[1].equals("fen")) {
+            StringBuilder sb = new StringBuilder();
+            for (i = 2; i < tokens.length && !tokens[i].equals("moves"); i++) {
+                sb.append(tokens[i]).append(' ');
+            }
+            FEN = sb.toString().trim();
+        } else {
+            FEN = ChessBoard.START_POSITION;
+            i = 2;
+        }
+        // The position is set up on a board of its own, so that an invalid FEN
+        // or an illegal move leaves the current position as it was.
+        ChessBoard newBoard = new ChessBoard();
+        try {
+            newBoard.loadFEN(FEN);
+        } catch (FENFormatException ex) {
+            out.println("info string Invalid FEN " + FEN + ": " + ex.getMessage());
+            return;
+        }
+        if (i < tokens.length && tokens[i].equals("moves")) {
+            for (i++; i < tokens.length; i++) {
+                Move move = findMove(newBoard, tokens[i]);
+                if (move == null) {
+                    out.println("info string Illegal move " + tokens[i]);
+                    return;
+                }
+                move.doMove();
+            }
+        }
+        BoardState state = new BoardState();
+        state.copyFrom(newBoard);
+        chessBoard.loadState(state);
+        chessBoard.copyHistory(newBoard);
+    }
+
+    /**
+     *
+     * @param board The chess board.
+     * @param notation A move in long algebraic notation.
+     * @return The legal move, or <code>null</code> if it is not legal.
+     */
+    private static Move findMove(ChessBoard board, String notation) {
+        for (Move move : board.getPossibleMoves(board.getHasTurn())) {
+            if (move.toLongAlgebraicString().equals(notation)) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Handle <code>go</code> with the limits <code>depth</code>,
+     * <code>movetime</code>, <code>wtime</code>, <code>btime</code>,
+     * <code>winc</code>, <code>binc</code>, <code>movestogo</code> and
+     * <code>infinite</code>.
+     *
+     * @param tokens The tokens of the command.
+     */
+    private void go(String[] tokens) {
+        waitForSearch();
+        int depth = AI.MAX_DEPTH;
+        long moveTime = 0;
+        long[] time = new long[2];
+        long[] increment = new long[2];
+        int movesToGo = DEFAULT_MOVES_TO_GO;
+        boolean infinite = false;
+        for (int i = 1; i < tokens.length; i++) {
+            String value = (i + 1 < tokens.length) ? tokens[i + 1] : "0";
+            switch (tokens[i]) {
+                case "depth":
+                    depth = clamp(Integer.parseInt(value), 1, AI.MAX_DEPTH);
+                    break;
+                case "movetime":
+                    moveTime = Long.parseLong(value);
+                    break;
+                case "wtime":
+                    time[0] = Long.parseLong(value);
+                    break;
+                case "btime":
+                    time[1] = Long.parseLong(value);
+                    break;
+                case "winc":
+                    increment[0] = Long.parseLong(value);
+                    break;
+                case "binc":
+                    increment[1] = Long.parseLong(value);
+                    break;
+                case "movestogo":
+                    movesToGo = Math.max(1, Integer.parseInt(value));
+                    break;
+                case "infinite":
+                    infinite = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        Colour hasTurn = chessBoard.getHasTurn();
+        int side = (hasTurn == Colour.White) ? 0 : 1;
+        long timeLimit = 0;
+        if (!infinite) {
+            if (moveTime > 0) {
+                timeLimit = Math.max(1, moveTime - MOVE_OVERHEAD);
+            } else if (time[side] > 0) {
+                long available = time[side] / movesToGo + increment[side] / 2;
+                timeLimit = Math.max(1, Math.min(available, time[side] - MOVE_OVERHEAD));
+            }
+        }
+
+        ai.playerColour = hasTurn;
+        ai.searchDepth = depth;
+        ai.setTimeLimit(timeLimit);
+        ai.setBook(ownBook ? book : null, bookDepth, bookBestMove);
+        ai.resetStop();
+        helpers.clear();
+        BoardState state = new BoardState();
+        state.copyFrom(chessBoard);
+        for (int i = 1; i < threads; i++) {
+            ChessBoard helperBoard = new ChessBoard(state);
+            helperBoard.copyHistory(chessBoard);
+            AI helper = new AI(hasTurn, helperBoard, ai.getTranspositionTable());
+            helper.setAgeTable(false);
+            helper.searchDepth = depth;
+            helper.setTimeLimit(timeLimit);
+            if (network != null) {
+                helper.setEvaluator(new NeuralNetworkEvaluation(network));
+            }
+            helpers.add(helper);
+        }
+        stopSignal = new CountDownLatch(infinite ? 1 : 0);
+        CountDownLatch signal = stopSignal;
+        List<AI> searchHelpers = new ArrayList<>(helpers);
+        // Once, before any agent stores an entry of this search.
+        ai.getTranspositionTable().newSearch();
+        search = executor.submit(() -> {
+            List<Future<?>> helperSearches = new ArrayList<>();
+            for (AI helper : searchHelpers) {
+                helperSearches.add(executor.submit(helper::getPlay));
+            }
+            Move bestMove = ai.getPlay();
+            for (AI helper : searchHelpers) {
+                helper.stop();
+            }
+            waitForHelpers(helperSearches);
+            try {
+                signal.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            out.println("bestmove " + ((bestMove == null) ? "0000" : bestMove.toLongAlgebraicString()));
+        });
+    }
+
+    /**
+     * Stop the current search, if any. The search sends its best move.
+     */
+    private void stop() {
+        stopSignal.countDown();
+        ai.stop();
+        for (AI helper : helpers) {
+            helper.stop();
+        }
+    }
+
+    /**
+     * Wait until the helpers have stopped searching, so that none of them is
+     * still using the shared table when the next search starts.
+     *
+     * @param helperSearches The searches of the helpers.
+     */
+    private static void waitForHelpers(List<Future<?>> helperSearches) {
+        for (Future<?> helperSearch : helperSearches) {
+            try {
+                helperSearch.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ex) {
+                Logger.getLogger(UCI.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
+    }
+
+    /**
+     * Stop the current search and wait until it has sent its best move. The
+     * search only ends after its helpers.
+     */
+    private void waitForSearch() {
+        if (search == null) {
+            return;
+        }
+        if (!search.isDone()) {
+            stop();
+        }
+        try {
+            search.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            Logger.getLogger(UCI.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        search = null;
+    }
+
+    /**
+     * Run the engine in UCI mode on standard input and output.
+     *
+     * @param args The command line arguments, which are ignored.
+     * @throws IOException If reading standard input fails.
+     */
+    public static void main(String[] args) throws IOException {
+        UCI uci = new UCI(new PrintStream(System.out, true, "UTF-8"));
+        uci.run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+    }
+
+}
@@ -153,6 +153,13 @@ public class Log extends GridPane {
             this.add(whiteIsWinner, 0, moveCounter + 1, 2, 1);
             this.moveStrings.add(whiteIsWinner);
             return true;
+        } else if (chessBoard.isThreefoldRepetition() || chessBoard.isFiftyMoveRuleDraw()) {
+            // Draw by repetition or the fifty-move rule.
+            Label draw = new Label("½-½");
+            draw.setTextFill(Color.BLACK);
+            this.add(draw, 0, moveCounter + 1, 2, 1);
+            this.moveStrings.add(draw);
+            return true;
         }
         return false;
     }
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.view;
+
+import com.tomirio.schakert.agent.AI;
+import com.tomirio.schakert.agent.ScoreFormat;
+import com.tomirio.schakert.agent.SearchListener;
+import com.tomirio.schakert.agent.SearchStatistics;
+import com.tomirio.schakert.chessboard.Colour;
+import com.tomirio.schakert.moves.Move;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.layout.GridPane;
+
+/**
+ * Shows the search of an {@link AI} while it thinks: the depth, the score from
+ * the point of view of white, the number of nodes, the speed and the principal
+ * variation.
+ *
+ * The search calls the listener methods on its own thread. They only store
+ * the values; the labels are updated on the JavaFX application thread at most
+ * {@link #UPDATES_PER_SECOND} times per second, and an update shows the latest
+ * values, so the application thread is never flooded.
+ *
+ * @author Tom Sandmann
+ */
+public class SearchInfo extends GridPane implements SearchListener {
+
+    /**
+     * The maximum number of updates of the labels per second.
+     */
+    public static final int UPDATES_PER_SECOND = 4;
+    /**
+     * The minimum time between two updates in nanoseconds.
+     */
+    private static final long UPDATE_INTERVAL = 1000000000L / UPDATES_PER_SECOND;
+
+    private final Label depthLabel;
+    private final Label scoreLabel;
+    private final Label nodesLabel;
+    private final Label speedLabel;
+    private final Label principalVariationLabel;
+
+    /**
+     * The colour of the player that searches.
+     */
+    private volatile Colour colour;
+    /**
+     * The depth of the running iteration.
+     */
+    private volatile int depth;
+    /**
+     * The depth of the last completed iteration, 0 if there is none.
+     */
+    private volatile int completedDepth;
+    /**
+     * The score of the last completed iteration, relative to the side to move.
+     */
+    private volatile double score;
+    /**
+     * The principal variation of the last completed iteration.
+     */
+    private volatile List<String> principalVariation;
+    private volatile long nodes;
+    private volatile double nodesPerSecond;
+    /**
+     * <code>True</code> if an update is scheduled on the application thread
+     * that did not start yet.
+     */
+    private final AtomicBoolean updatePending;
+    /**
+     * The moment the last update was scheduled, see {@link System#nanoTime()}.
+     */
+    private volatile long lastUpdate;
+
+    /**
+     * Constructor.
+     */
+    public SearchInfo() {
+        super();
+        depthLabel = new Label();
+        scoreLabel = new Label();
+        nodesLabel = new Label();
+        speedLabel = new Label();
+        principalVariationLabel = new Label();
+        principalVariationLabel.setWrapText(true);
+        updatePending = new AtomicBoolean();
+        principalVariation = Collections.emptyList();
+        colour = Colour.White;
+
+        this.setHgap(10);
+        this.setVgap(5);
+        this.setPadding(new Insets(10, 10, 10, 10));
+        add(new Label("Depth:"), 0, 0);
+        add(depthLabel, 1, 0);
+        add(new Label("Score:"), 2, 0);
+        add(scoreLabel, 3, 0);
+        add(new Label("Nodes:"), 4, 0);
+        add(nodesLabel, 5, 0);
+        add(new Label("Speed:"), 6, 0);
+        add(speedLabel, 7, 0);
+        add(new Label("PV:"), 0, 1);
+        add(principalVariationLabel, 1, 1, 7, 1);
+        update();
+    }
+
+    /**
+     * Clear the shown search before a new search starts. Must be called on the
+     * JavaFX application thread.
+     *
+     * @param colour The colour of the player that searches.
+     */
+    public void searchStarted(Colour colour) {
+        this.colour = colour;
+        depth = 0;
+        completedDepth = 0;
+        score = 0;
+        principalVariation = Collections.emptyList();
+        nodes = 0;
+        nodesPerSecond = 0;
+        update();
+    }
+
+    /**
+     * Clear the shown search after it failed without a move, so that its
+     * partial results are not taken for those of a finished search. Must be
+     * called on the JavaFX application thread.
+     */
+    public void searchFailed() {
+        searchStarted(colour);
+    }
+
+    @Override
+    public void iterationFinished(int depth, double score, List<String> principalVariation, SearchStatistics statistics) {
+        completedDepth = depth;
+        this.score = score;
+        this.principalVariation = principalVariation;
+        setStatistics(statistics);
+        requestUpdate(false);
+    }
+
+    @Override
+    public void searchProgress(int depth, SearchStatistics statistics) {
+        this.depth = depth;
+        setStatistics(statistics);
+        requestUpdate(false);
+    }
+
+    @Override
+    public void searchFinished(Move bestMove, SearchStatistics statistics) {
+        setStatistics(statistics);
+        // The final values are always shown
+        requestUpdate(true);
+    }
+
+    private void setStatistics(SearchStatistics statistics) {
+        nodes = statistics.getTotalNodes();
+        nodesPerSecond = statistics.getNodesPerSecond();
+    }
+
+    /**
+     * Schedule an update on the application thread, unless one is pending or
+     * the last one was scheduled less than the update interval ago.
+     *
+     * @param force <code>True</code> to ignore the update interval.
+     */
+    private void requestUpdate(boolean force) {
+        long now = System.nanoTime();
+        if ((force || now - lastUpdate >= UPDATE_INTERVAL) && updatePending.compareAndSet(false, true)) {
+            lastUpdate = now;
+            Platform.runLater(this::update);
+        }
+    }
+
+    /**
+     * Show the latest values. Called on the application thread.
+     */
+    private void update() {
+        updatePending.set(false);
+        int shownCompletedDepth = completedDepth;
+        List<String> shownPrincipalVariation = principalVariation;
+        depthLabel.setText(Integer.toString(Math.max(depth, shownCompletedDepth)));
+        if (shownCompletedDepth == 0) {
+            scoreLabel.setText("-");
+        } else {
+            double whiteScore = (colour == Colour.White) ? score : -score;
+            scoreLabel.setText(ScoreFormat.toPawns(whiteScore, shownPrincipalVariation.size())
+                    + "/" + shownCompletedDepth);
+        }
+        nodesLabel.setText(Long.toString(nodes));
+        speedLabel.setText((long) nodesPerSecond + " nps");
+        principalVariationLabel.setText(String.join(" ", shownPrincipalVariation));
+    }
+
+}
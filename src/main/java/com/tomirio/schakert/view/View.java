@@ -101,6 +101,10 @@ public final class View {
      * the mainWindow.
      */
     public Stage mainWindow;
+    /**
+     * Shows the search of the agent that has turn.
+     */
+    public SearchInfo searchInfo;
     /**
      * The mouse listener, will be set on mouse clicked to every visual tile.
      */
@@ -287,6 +291,7 @@ public final class View {
 
         game = new Game(chessBoard, this);
         log = game.getLog();
+        searchInfo = game.getSearchInfo();
         chessBoard = game.getBoard();
 
         mouseListener = new MouseListener(this, game);
@@ -331,6 +336,7 @@ public final class View {
         scrollableLog.vvalueProperty().bind(log.heightProperty());
 
         borderPane.setRight(scrollableLog);
+        borderPane.setBottom(searchInfo);
         root.getChildren().add(borderPane);
         Scene mainWindowScene = new Scene(root);
 
@@ -374,23 +380,15 @@ public final class View {
     }
 
     /**
-     * Draws the current board on the screen.
+     * Draws the current board on the screen. The visual tiles are kept, only
+     * the tiles whose chess piece changed are repainted.
      */
     public void drawBoard() {
-        removeChessboard();
-        double currentSize = visualBoard[0][0].getPrefWidth();
-        visualBoard = new VisualTile[ChessBoard.ROWS][ChessBoard.COLS];
         for (int row = 0; row < ChessBoard.ROWS; row++) {
             for (int column = 0; column < ChessBoard.COLS; column++) {
-                VisualTile t = new VisualTile(row, column,
-                        chessBoard.getPiece(row, column), currentSize, currentSize);
-                t.updateTileImage(currentSize);
-                t.setOnMouseClicked(mouseListener);
-                visualBoard[row][column] = t;
-                chessboardGrid.add(t, column + 1, row + 1);
+                visualBoard[row][column].setChessPiece(chessBoard.getPiece(row, column));
             }
         }
-        updateLabelSize(currentSize);
     }
 
     public void enableMoveButtons() {
@@ -525,14 +523,15 @@ public final class View {
     }
 
     /**
-     * Updates all the labels to the new size.
+     * Update the view after a move was applied or undone. Only the tiles of
+     * the positions changed by the move are repainted.
      *
-     * @param newSize The new size of the labels.
+     * @param move The move.
      */
-    private void updateLabelSize(double newSize) {
-        labels.stream().forEach((l) -> {
-            l.setPrefSize(newSize, newSize);
-        });
+    public void update(Move move) {
+        for (Position pos : move.getChangedPositions()) {
+            visualBoard[pos.getRow()][pos.getColumn()].setChessPiece(chessBoard.getPiece(pos));
+        }
     }
 
 }
@@ -167,6 +167,27 @@ public class VisualTile extends Button {
         return chessPiece;
     }
 
+    /**
+     * Show another chess piece on this tile, after a move or when a position
+     * is loaded. The image is only replaced if the type or colour of the piece
+     * differs from the shown one, and the highlight of the tile is removed.
+     *
+     * @param piece The chess piece, or <code>null</code> for an empty tile.
+     */
+    public void setChessPiece(ChessPiece piece) {
+        if (piece == chessPiece) {
+            return;
+        }
+        chessPiece = piece;
+        Image icon = (piece == null) ? null : getChessIcon(piece);
+        Image shownIcon = (getGraphic() instanceof ImageView)
+                ? ((ImageView) getGraphic()).getImage() : null;
+        if (icon != shownIcon) {
+            setGraphic((icon == null) ? null : new ImageView(icon));
+        }
+        setStyle("");
+    }
+
     /**
      * Shows that the tile is selected when it was clicked by the user. This is
      * done by setting the background to dark green.
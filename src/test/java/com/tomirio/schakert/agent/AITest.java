@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.agent;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.moves.Move;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * The search at a fixed depth: mates are found and scored by their distance,
+ * and the transposition table does not change the result.
+ *
+ * @author Tom Sandmann
+ */
+public class AITest {
+
+    /**
+     * A table that never stores anything, so every node is searched.
+     */
+    private static class NoTable extends TranspositionTable {
+
+        NoTable() {
+            super(0);
+        }
+
+        @Override
+        public TranspositionEntry probe(long key) {
+            return null;
+        }
+
+        @Override
+        public void store(long key, int depth, double score, int bound, int move) {
+            // Nothing is stored.
+        }
+    }
+
+    /**
+     * Keeps the score and principal variation of the last iteration.
+     */
+    private static class ScoreCollector implements SearchListener {
+
+        private double score;
+        private List<String> principalVariation;
+
+        @Override
+        public void iterationFinished(int depth, double score, List<String> principalVariation, SearchStatistics statistics) {
+            this.score = score;
+            this.principalVariation = principalVariation;
+        }
+
+        @Override
+        public void searchProgress(int depth, SearchStatistics statistics) {
+        }
+
+        @Override
+        public void searchFinished(Move bestMove, SearchStatistics statistics) {
+        }
+    }
+
+    private ChessBoard chessBoard;
+    private ScoreCollector collector;
+
+    private Move search(String FEN, int depth, TranspositionTable table) {
+        chessBoard = new ChessBoard();
+        chessBoard.loadFEN(FEN);
+        AI ai = new AI(chessBoard.getHasTurn(), chessBoard, table);
+        ai.searchDepth = depth;
+        collector = new ScoreCollector();
+        ai.addSearchListener(collector);
+        Move move = ai.getPlay();
+        assertNotNull(FEN, move);
+        assertEquals(FEN, chessBoard.getFEN());
+        return move;
+    }
+
+    @Test
+    public void mateInOne() {
+        String FEN = "7k/5Q2/6K1/8/8/8/8/8 w - - 0 1";
+        Move move = search(FEN, 3, new TranspositionTable(1));
+        move.doMove();
+        assertTrue(move.toLongAlgebraicString(), chessBoard.inCheckmate(chessBoard.getHasTurn()));
+        assertEquals(AI.MATE_SCORE - 1, collector.score, 0);
+        assertEquals(1, ScoreFormat.mateInMoves(collector.score, collector.principalVariation.size()));
+    }
+
+    @Test
+    public void mateInTwo() {
+        // Nf6+ gxf6 Bxf7#.
+        String FEN = "r2qkb1r/pp2nppp/3p4/2pNN1B1/2BnP3/3P4/PPP2PPP/R2bK2R w KQkq - 1 1";
+        Move move = search(FEN, 4, new TranspositionTable(1));
+        assertEquals("d5f6", move.toLongAlgebraicString());
+        assertEquals(AI.MATE_SCORE - 3, collector.score, 0);
+        assertEquals(2, ScoreFormat.mateInMoves(collector.score, collector.principalVariation.size()));
+        // One ply less is not enough to see the mate.
+        search(FEN, 3, new TranspositionTable(1));
+        assertEquals(0, ScoreFormat.mateInMoves(collector.score, collector.principalVariation.size()));
+    }
+
+    @Test
+    public void tableDoesNotChangeTheResult() {
+        String[] FENs = {
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "4k3/8/8/8/8/2n5/8/R3K2R b KQ - 0 1",
+            "r2qkb1r/pp2nppp/3p4/2pNN1B1/2BnP3/3P4/PPP2PPP/R2bK2R w KQkq - 1 1"
+        };
+        for (String FEN : FENs) {
+            for (int depth = 1; depth <= 4; depth++) {
+                String context = FEN + " depth " + depth;
+                Move withTable = search(FEN, depth, new TranspositionTable(1));
+                double scoreWithTable = collector.score;
+                Move withoutTable = search(FEN, depth, new NoTable());
+                assertEquals(context, withoutTable.toLongAlgebraicString(), withTable.toLongAlgebraicString());
+                assertEquals(context, collector.score, scoreWithTable, 0);
+            }
+        }
+    }
+
+}
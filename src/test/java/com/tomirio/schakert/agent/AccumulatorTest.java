@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.agent;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.chessboard.Colour;
+import com.tomirio.schakert.moves.Move;
+import com.tomirio.schakert.moves.SAN;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The accumulator that the board updates through doMove and undoMove must
+ * equal one that is built from scratch for the same position.
+ *
+ * @author Tom Sandmann
+ */
+public class AccumulatorTest {
+
+    private static final int HIDDEN_SIZE = 16;
+
+    private NeuralNetwork network;
+    private ChessBoard chessBoard;
+    private Accumulator accumulator;
+
+    /**
+     * Build a small random network. The feature weights are small and the
+     * biases lie in the middle of the clipping range, so the accumulators of
+     * every position stay inside it and every difference in an accumulator
+     * changes the output.
+     */
+    @Before
+    public void createNetwork() {
+        Random random = new Random(20160707);
+        short[] featureWeights = new short[NeuralNetwork.INPUTS * HIDDEN_SIZE];
+        for (int i = 0; i < featureWeights.length; i++) {
+            featureWeights[i] = (short) (random.nextInt(7) - 3);
+        }
+        short[] featureBiases = new short[HIDDEN_SIZE];
+        for (int i = 0; i < featureBiases.length; i++) {
+            featureBiases[i] = (short) (NeuralNetwork.QA / 2);
+        }
+        short[] outputWeights = new short[2 * HIDDEN_SIZE];
+        for (int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = (short) (random.nextInt(4001) - 2000);
+        }
+        network = new NeuralNetwork(featureWeights, featureBiases, outputWeights, (short) 0);
+    }
+
+    private void load(String FEN) {
+        chessBoard = new ChessBoard();
+        chessBoard.loadFEN(FEN);
+        accumulator = new Accumulator(network);
+        chessBoard.setAccumulator(accumulator);
+    }
+
+    /**
+     * Compare the accumulator of the board with one that is attached to a
+     * fresh board of the same position.
+     */
+    private void assertRebuilt(String context) {
+        ChessBoard rebuilt = new ChessBoard();
+        rebuilt.loadFEN(chessBoard.getFEN());
+        Accumulator expected = new Accumulator(network);
+        rebuilt.setAccumulator(expected);
+        assertEquals(context, expected.evaluate(Colour.White), accumulator.evaluate(Colour.White));
+        assertEquals(context, expected.evaluate(Colour.Black), accumulator.evaluate(Colour.Black));
+    }
+
+    private void verifyMoves(int depth) {
+        for (Move move : chessBoard.getPossibleMoves(chessBoard.getHasTurn())) {
+            String FEN = chessBoard.getFEN();
+            move.doMove();
+            assertRebuilt(FEN + " " + move.toLongAlgebraicString());
+            if (depth > 1) {
+                verifyMoves(depth - 1);
+            }
+            move.undoMove();
+            assertRebuilt(FEN + " undo " + move.toLongAlgebraicString());
+        }
+    }
+
+    @Test
+    public void allMovesKeepTheAccumulator() {
+        String[] FENs = {
+            ChessBoard.START_POSITION,
+            // Castling on both sides and captures.
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            // Promotions with and without a capture.
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1",
+            // En passant.
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3"
+        };
+        for (String FEN : FENs) {
+            load(FEN);
+            assertRebuilt(FEN);
+            verifyMoves(2);
+        }
+    }
+
+    @Test
+    public void gameWithEverySpecialMove() {
+        String FEN = "r3k2r/1P1p4/8/4P3/8/8/6p1/R3K2R w KQkq - 0 1";
+        load(FEN);
+        String[] moves = "O-O-O d5 exd6 O-O bxa8=Q Rxa8 d7 gxh1=Q Rxh1 Kf7 d8=N+ Rxd8".split(" ");
+        List<Move> played = new ArrayList<>();
+        for (String san : moves) {
+            Move move = SAN.parse(chessBoard, san);
+            assertNotNull("Illegal move " + san, move);
+            move.doMove();
+            played.add(move);
+            assertRebuilt(san);
+        }
+        for (int i = played.size() - 1; i >= 0; i--) {
+            played.get(i).undoMove();
+            assertRebuilt("undo " + moves[i]);
+        }
+        assertEquals(FEN, chessBoard.getFEN());
+    }
+
+}
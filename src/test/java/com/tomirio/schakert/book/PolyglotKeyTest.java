@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.book;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.moves.Move;
+import com.tomirio.schakert.moves.SAN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import org.junit.Test;
+
+/**
+ * The reference keys of the Polyglot book format.
+ *
+ * @see <a href="http://hgm.nubati.net/book_format.html">
+ * http://hgm.nubati.net/book_format.html</a>
+ *
+ * @author Tom Sandmann
+ */
+public class PolyglotKeyTest {
+
+    /**
+     * The reference positions with their keys. Every position follows from
+     * the one before it by the move on the same line, except for the second
+     * game that starts again from the initial position.
+     */
+    private static final String[][] REFERENCE_KEYS = {
+        {"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", "463b96181691fc9c", ""},
+        {"rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", "823c9b50fd114196", "e4"},
+        {"rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2", "0756b94461c50fb0", "d5"},
+        {"rnbqkbnr/ppp1pppp/8/3pP3/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 2", "662fafb965db29d4", "e5"},
+        {"rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3", "22a48b5a8e47ff78", "f5"},
+        {"rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR b kq - 0 3", "652a607ca3f242c1", "Ke2"},
+        {"rnbq1bnr/ppp1pkpp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR w - - 0 4", "00fdd303c946bdd9", "Kf7"}
+    };
+
+    private static final String[][] SECOND_GAME = {
+        {"rnbqkbnr/p1pppppp/8/8/PpP4P/8/1P1PPPP1/RNBQKBNR b KQkq c3 0 3", "3c8123ea7b067637", "a4 b5 h4 b4 c4"},
+        {"rnbqkbnr/p1pppppp/8/8/P6P/R1p5/1P1PPPP1/1NBQKBNR b Kkq - 0 4", "5c3f9b829b279560", "bxc3 Ra3"}
+    };
+
+    private static long parseKey(String hex) {
+        return Long.parseUnsignedLong(hex, 16);
+    }
+
+    private void play(ChessBoard chessBoard, String moves) {
+        for (String san : moves.split(" ")) {
+            if (!san.isEmpty()) {
+                Move move = SAN.parse(chessBoard, san);
+                assertNotNull("Illegal move " + san, move);
+                move.doMove();
+            }
+        }
+    }
+
+    @Test
+    public void keysOfReferencePositions() {
+        for (String[] reference : REFERENCE_KEYS) {
+            ChessBoard chessBoard = new ChessBoard();
+            chessBoard.loadFEN(reference[0]);
+            assertEquals(reference[0], parseKey(reference[1]), PolyglotKey.key(chessBoard));
+        }
+        for (String[] reference : SECOND_GAME) {
+            ChessBoard chessBoard = new ChessBoard();
+            chessBoard.loadFEN(reference[0]);
+            assertEquals(reference[0], parseKey(reference[1]), PolyglotKey.key(chessBoard));
+        }
+    }
+
+    @Test
+    public void keysAfterPlayingTheReferenceGames() {
+        ChessBoard chessBoard = new ChessBoard();
+        chessBoard.loadFEN(ChessBoard.START_POSITION);
+        for (String[] reference : REFERENCE_KEYS) {
+            play(chessBoard, reference[2]);
+            assertEquals(reference[0], parseKey(reference[1]), PolyglotKey.key(chessBoard));
+        }
+        chessBoard = new ChessBoard();
+        chessBoard.loadFEN(ChessBoard.START_POSITION);
+        for (String[] reference : SECOND_GAME) {
+            play(chessBoard, reference[2]);
+            assertEquals(reference[0], parseKey(reference[1]), PolyglotKey.key(chessBoard));
+        }
+    }
+
+    @Test
+    public void enPassantFileOnlyCountsIfCaptureIsPossible() {
+        // After 1. e4 no black pawn can capture en passant, so the key must
+        // equal the key of the same position without an en passant square.
+        ChessBoard withSquare = new ChessBoard();
+        withSquare.loadFEN("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        ChessBoard withoutSquare = new ChessBoard();
+        withoutSquare.loadFEN("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1");
+        assertEquals(PolyglotKey.key(withoutSquare), PolyglotKey.key(withSquare));
+    }
+
+}
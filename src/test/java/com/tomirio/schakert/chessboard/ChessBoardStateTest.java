@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.chessboard;
+
+import com.tomirio.schakert.moves.Move;
+import com.tomirio.schakert.moves.SAN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+/**
+ * The castling rights, en passant square and move counters that the board
+ * keeps in one state word, through doMove and undoMove.
+ *
+ * @author Tom Sandmann
+ */
+public class ChessBoardStateTest {
+
+    private ChessBoard chessBoard;
+
+    private void load(String FEN) {
+        chessBoard = new ChessBoard();
+        chessBoard.loadFEN(FEN);
+    }
+
+    private Move play(String san) {
+        Move move = SAN.parse(chessBoard, san);
+        assertNotNull("Illegal move " + san, move);
+        move.doMove();
+        return move;
+    }
+
+    /**
+     * Play every legal move to the given depth and check that undoMove
+     * restores the state word, the keys and the position, and that doMove
+     * gives the same state as loading the resulting position.
+     */
+    private void verifyMoves(int depth) {
+        String FEN = chessBoard.getFEN();
+        int castlingRights = chessBoard.getCastlingRights();
+        Position enPassant = chessBoard.getEnPassantTargetSquare();
+        int halfMoveClock = chessBoard.getHalfMoveClock();
+        int fullMoveNumber = chessBoard.getFullMoveNumber();
+        long key = chessBoard.getZobristKey();
+        long pawnKey = chessBoard.getPawnKey();
+        for (Move move : chessBoard.getPossibleMoves(chessBoard.getHasTurn())) {
+            move.doMove();
+            ChessBoard loaded = new ChessBoard();
+            loaded.loadFEN(chessBoard.getFEN());
+            assertEquals(chessBoard.getFEN(), loaded.getCastlingRights(), chessBoard.getCastlingRights());
+            assertEquals(chessBoard.getFEN(), loaded.getZobristKey(), chessBoard.getZobristKey());
+            assertEquals(chessBoard.getFEN(), loaded.getPawnKey(), chessBoard.getPawnKey());
+            if (depth > 1) {
+                verifyMoves(depth - 1);
+            }
+            move.undoMove();
+            String context = FEN + " " + move.toLongAlgebraicString();
+            assertEquals(context, FEN, chessBoard.getFEN());
+            assertEquals(context, castlingRights, chessBoard.getCastlingRights());
+            assertEquals(context, enPassant, chessBoard.getEnPassantTargetSquare());
+            assertEquals(context, halfMoveClock, chessBoard.getHalfMoveClock());
+            assertEquals(context, fullMoveNumber, chessBoard.getFullMoveNumber());
+            assertEquals(context, key, chessBoard.getZobristKey());
+            assertEquals(context, pawnKey, chessBoard.getPawnKey());
+        }
+    }
+
+    @Test
+    public void allMovesRestoreTheState() {
+        String[] FENs = {
+            ChessBoard.START_POSITION,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 3 17",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1"
+        };
+        for (String FEN : FENs) {
+            load(FEN);
+            verifyMoves(2);
+        }
+    }
+
+    @Test
+    public void castling() {
+        load("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 5 10");
+        Move move = play("O-O");
+        assertEquals(BoardState.BLACK_KING_SIDE | BoardState.BLACK_QUEEN_SIDE, chessBoard.getCastlingRights());
+        assertEquals(6, chessBoard.getHalfMoveClock());
+        assertEquals(10, chessBoard.getFullMoveNumber());
+        move.undoMove();
+        assertEquals(BoardState.WHITE_KING_SIDE | BoardState.WHITE_QUEEN_SIDE
+                | BoardState.BLACK_KING_SIDE | BoardState.BLACK_QUEEN_SIDE, chessBoard.getCastlingRights());
+        assertEquals("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 5 10", chessBoard.getFEN());
+
+        // A rook move only gives up the right of that rook, capturing a rook
+        // takes the right away from the opponent.
+        play("Rh7");
+        assertEquals(BoardState.WHITE_QUEEN_SIDE | BoardState.BLACK_KING_SIDE | BoardState.BLACK_QUEEN_SIDE,
+                chessBoard.getCastlingRights());
+        play("O-O-O");
+        assertEquals(BoardState.WHITE_QUEEN_SIDE, chessBoard.getCastlingRights());
+        assertEquals(11, chessBoard.getFullMoveNumber());
+        play("Rxh8");
+        assertEquals("2kr3R/8/8/8/8/8/8/R3K3 b Q - 0 11", chessBoard.getFEN());
+    }
+
+    @Test
+    public void enPassant() {
+        load("4k3/8/8/8/5p2/8/4P3/4K3 w - - 7 30");
+        Move push = play("e4");
+        assertEquals("e3", chessBoard.getEnPassantTargetSquare().toString());
+        assertEquals(0, chessBoard.getHalfMoveClock());
+        Move capture = play("fxe3");
+        assertNull(chessBoard.getEnPassantTargetSquare());
+        assertEquals("4k3/8/8/8/8/4p3/8/4K3 w - - 0 31", chessBoard.getFEN());
+        capture.undoMove();
+        assertEquals("e3", chessBoard.getEnPassantTargetSquare().toString());
+        assertEquals("4k3/8/8/8/4Pp2/8/8/4K3 b - e3 0 30", chessBoard.getFEN());
+        // Another move gives up the en passant capture.
+        Move other = play("Kd7");
+        assertNull(chessBoard.getEnPassantTargetSquare());
+        assertEquals(1, chessBoard.getHalfMoveClock());
+        other.undoMove();
+        push.undoMove();
+        assertNull(chessBoard.getEnPassantTargetSquare());
+        assertEquals("4k3/8/8/8/5p2/8/4P3/4K3 w - - 7 30", chessBoard.getFEN());
+    }
+
+}
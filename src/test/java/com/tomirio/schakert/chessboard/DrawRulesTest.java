@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.chessboard;
+
+import com.tomirio.schakert.agent.AI;
+import com.tomirio.schakert.moves.Move;
+import com.tomirio.schakert.moves.SAN;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Threefold repetition and the fifty-move rule.
+ *
+ * @author Tom Sandmann
+ */
+public class DrawRulesTest {
+
+    private ChessBoard chessBoard;
+
+    private final List<Move> played = new ArrayList<>();
+
+    private void load(String FEN) {
+        chessBoard = new ChessBoard();
+        chessBoard.loadFEN(FEN);
+        played.clear();
+    }
+
+    private void play(String moves) {
+        for (String san : moves.split(" ")) {
+            Move move = SAN.parse(chessBoard, san);
+            assertNotNull("Illegal move " + san, move);
+            move.doMove();
+            played.add(move);
+        }
+    }
+
+    private void undo(int plies) {
+        for (int i = 0; i < plies; i++) {
+            played.remove(played.size() - 1).undoMove();
+        }
+    }
+
+    @Test
+    public void threefoldRepetition() {
+        load(ChessBoard.START_POSITION);
+        assertEquals(0, chessBoard.getRepetitions());
+        play("Nf3 Nf6 Ng1 Ng8");
+        assertEquals(1, chessBoard.getRepetitions());
+        assertTrue(chessBoard.isRepetition());
+        assertFalse(chessBoard.isThreefoldRepetition());
+        play("Nf3 Nf6 Ng1");
+        assertFalse(chessBoard.isThreefoldRepetition());
+        play("Ng8");
+        assertEquals(2, chessBoard.getRepetitions());
+        assertTrue(chessBoard.isThreefoldRepetition());
+        // Taking moves back forgets the repetitions.
+        undo(4);
+        assertEquals(1, chessBoard.getRepetitions());
+        undo(4);
+        assertEquals(0, chessBoard.getRepetitions());
+        assertEquals(ChessBoard.START_POSITION, chessBoard.getFEN());
+    }
+
+    @Test
+    public void positionsWithOtherCastlingRightsDoNotRepeat() {
+        load("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        // The kings return, but without their castling rights.
+        play("Ke2 Ke7 Ke1 Ke8");
+        assertEquals(0, chessBoard.getRepetitions());
+        play("Ke2 Ke7 Ke1 Ke8");
+        assertEquals(1, chessBoard.getRepetitions());
+    }
+
+    @Test
+    public void positionsWithAnEnPassantCaptureDoNotRepeat() {
+        load("4k3/8/8/8/5p2/8/4P3/4K2N w - - 0 1");
+        // After e4 black can capture en passant, later in the same position
+        // it cannot.
+        play("e4 Kd7 Ng3 Ke8 Nh1 Kd7 Ng3 Ke8 Nh1");
+        assertEquals(1, chessBoard.getRepetitions());
+        assertFalse(chessBoard.isThreefoldRepetition());
+    }
+
+    @Test
+    public void captureOrPawnMoveResetsTheHistory() {
+        load(ChessBoard.START_POSITION);
+        play("Nf3 Nf6 Ng1 Ng8 e4");
+        assertEquals(0, chessBoard.getRepetitions());
+        assertEquals(0, chessBoard.getHalfMoveClock());
+    }
+
+    @Test
+    public void fiftyMoveRule() {
+        load("4k3/8/8/8/8/8/8/R3K3 w - - 98 80");
+        assertFalse(chessBoard.isFiftyMoveRuleDraw());
+        play("Ra2");
+        assertEquals(99, chessBoard.getHalfMoveClock());
+        assertFalse(chessBoard.isFiftyMoveRuleDraw());
+        play("Kd7");
+        assertEquals(100, chessBoard.getHalfMoveClock());
+        assertTrue(chessBoard.isFiftyMoveRuleDraw());
+        undo(1);
+        assertFalse(chessBoard.isFiftyMoveRuleDraw());
+        // A capture resets the clock.
+        load("4k3/8/8/8/8/8/r7/R3K3 w - - 99 80");
+        play("Rxa2");
+        assertEquals(0, chessBoard.getHalfMoveClock());
+        assertFalse(chessBoard.isFiftyMoveRuleDraw());
+    }
+
+    @Test
+    public void checkmateOnTheLastMoveBeforeTheFiftyMoveRule() {
+        // Ra8 is mate and the hundredth halfmove, the mate counts.
+        load("6k1/5ppp/8/8/8/8/8/R3K3 w - - 99 80");
+        AI ai = new AI(Colour.White, chessBoard);
+        ai.searchDepth = 2;
+        Move move = ai.getPlay();
+        assertNotNull(move);
+        assertEquals("a1a8", move.toLongAlgebraicString());
+        move.doMove();
+        assertTrue(chessBoard.isFiftyMoveRuleDraw());
+        assertTrue(chessBoard.inCheckmate(Colour.Black));
+    }
+
+}
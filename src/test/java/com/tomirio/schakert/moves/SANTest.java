@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.moves;
+
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.chessboard.PieceType;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author Tom Sandmann
+ */
+public class SANTest {
+
+    private ChessBoard load(String FEN) {
+        ChessBoard chessBoard = new ChessBoard();
+        chessBoard.loadFEN(FEN);
+        return chessBoard;
+    }
+
+    /**
+     * Parses a move, writes it again with and without the legal moves of the
+     * position and checks that the board did not change.
+     *
+     * @param FEN The position.
+     * @param san The move in SAN.
+     * @return The parsed move.
+     */
+    private Move roundTrip(String FEN, String san) {
+        ChessBoard chessBoard = load(FEN);
+        String before = chessBoard.getFEN();
+        Move move = SAN.parse(chessBoard, san);
+        assertNotNull(san, move);
+        List<Move> legalMoves = chessBoard.getPossibleMoves(chessBoard.getHasTurn());
+        assertEquals(san, SAN.format(move, legalMoves));
+        assertEquals(san, SAN.format(move));
+        assertEquals(before, chessBoard.getFEN());
+        return move;
+    }
+
+    @Test
+    public void pawnAndPieceMoves() {
+        roundTrip(ChessBoard.START_POSITION, "e4");
+        roundTrip(ChessBoard.START_POSITION, "Nf3");
+        roundTrip("rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2", "exd5");
+    }
+
+    @Test
+    public void disambiguationByFile() {
+        String FEN = "4k3/8/8/8/8/2N3N1/8/4K3 w - - 0 1";
+        roundTrip(FEN, "Nce4");
+        roundTrip(FEN, "Nge4");
+        assertNull(SAN.parse(load(FEN), "Ne4"));
+    }
+
+    @Test
+    public void disambiguationByRank() {
+        String FEN = "4k3/8/8/R7/8/8/8/R3K3 w - - 0 1";
+        roundTrip(FEN, "R1a3");
+        roundTrip(FEN, "R5a3");
+        assertNull(SAN.parse(load(FEN), "Ra3"));
+    }
+
+    @Test
+    public void disambiguationByFileAndRank() {
+        // Queens on e4, h4 and h1 can all move to e1.
+        String FEN = "8/8/k7/8/4Q2Q/8/8/K6Q w - - 0 1";
+        roundTrip(FEN, "Qee1");
+        roundTrip(FEN, "Qh4e1");
+        roundTrip(FEN, "Q1e1");
+        // Without the queen on e4, the file is shared and the rank is not.
+        roundTrip("8/8/k7/8/7Q/8/8/K6Q w - - 0 1", "Q4e1");
+    }
+
+    @Test
+    public void enPassant() {
+        String FEN = "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2";
+        Move move = roundTrip(FEN, "exd6");
+        assertTrue(move instanceof EnPassantMove);
+        assertTrue(SAN.parse(load(FEN), "exd6 e.p.") instanceof EnPassantMove);
+        assertTrue(SAN.parse(load(FEN), "exd6e.p.") instanceof EnPassantMove);
+    }
+
+    @Test
+    public void promotions() {
+        String FEN = "r6k/1P6/8/8/8/8/8/4K3 w - - 0 1";
+        assertEquals(PieceType.Queen, SAN.getPromotionType(roundTrip(FEN, "b8=Q+")));
+        assertEquals(PieceType.Rook, SAN.getPromotionType(roundTrip(FEN, "b8=R+")));
+        assertEquals(PieceType.Bishop, SAN.getPromotionType(roundTrip(FEN, "b8=B")));
+        assertEquals(PieceType.Knight, SAN.getPromotionType(roundTrip(FEN, "b8=N")));
+        assertTrue(roundTrip(FEN, "bxa8=Q+") instanceof CapturePromotionMove);
+        assertTrue(roundTrip(FEN, "bxa8=N") instanceof CapturePromotionMove);
+        // Read leniently: without '=' and without the check suffix.
+        assertEquals(PieceType.Queen, SAN.getPromotionType(SAN.parse(load(FEN), "b8Q")));
+        assertNull(SAN.parse(load(FEN), "b8=K"));
+    }
+
+    @Test
+    public void checkAndMateSuffixes() {
+        roundTrip("6k1/5ppp/8/8/8/8/8/R3K3 w - - 0 1", "Ra8#");
+        roundTrip("6k1/5pp1/8/8/8/8/8/R3K3 w - - 0 1", "Ra8+");
+        roundTrip("r3k3/8/8/8/8/8/8/5K2 b q - 0 1", "O-O-O");
+        roundTrip("4k3/8/8/8/8/8/8/4K2R w K - 0 1", "O-O");
+        roundTrip("5k2/8/8/8/8/8/8/4K2R w K - 0 1", "O-O+");
+        // The suffixes are not needed to read a move.
+        assertNotNull(SAN.parse(load("6k1/5ppp/8/8/8/8/8/R3K3 w - - 0 1"), "Ra8"));
+        assertNotNull(SAN.parse(load("4k3/8/8/8/8/8/8/4K2R w K - 0 1"), "0-0"));
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2016 Tom Sandmann
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.tomirio.schakert.parsing;
+
+import com.tomirio.schakert.chessboard.BoardState;
+import com.tomirio.schakert.chessboard.ChessBoard;
+import com.tomirio.schakert.chessboard.Colour;
+import com.tomirio.schakert.game.EPDParser;
+import com.tomirio.schakert.game.FENFormatException;
+import java.util.Arrays;
+import java.util.Collections;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Tom Sandmann
+ */
+public class EPDParserTest {
+
+    private final EPDParser parser = new EPDParser();
+
+    /**
+     * Parses an invalid record and returns the offset of the error.
+     *
+     * @param record The record.
+     * @param message The expected start of the error message.
+     * @return The offset of the error.
+     */
+    private int errorOffset(String record, String message) {
+        try {
+            parser.parse(record);
+        } catch (FENFormatException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith(message));
+            return ex.getErrorOffset();
+        }
+        fail("The record should not be valid: " + record);
+        return -1;
+    }
+
+    /**
+     * Checks whether castling availability is correctly set on the chess
+     * board.
+     *
+     * @param chessBoard The chess board.
+     * @param castlingAvailability The castling availability field of a FEN
+     * string.
+     * @return <code>True</code> if castling availability is correctly set,
+     * <code>False</code> otherwise.
+     */
+    private boolean castlingAvailabilityIsCorrectlySet(ChessBoard chessBoard, String castlingAvailability) {
+        int expected = 0;
+        for (int i = 0; i < castlingAvailability.length(); i++) {
+            switch (castlingAvailability.charAt(i)) {
+                case 'K':
+                    expected |= BoardState.WHITE_KING_SIDE;
+                    break;
+                case 'Q':
+                    expected |= BoardState.WHITE_QUEEN_SIDE;
+                    break;
+                case 'k':
+                    expected |= BoardState.BLACK_KING_SIDE;
+                    break;
+                case 'q':
+                    expected |= BoardState.BLACK_QUEEN_SIDE;
+                    break;
+            }
+        }
+        return chessBoard.getCastlingRights() == expected
+                && chessBoard.getKing(Colour.White).getCastlingPossible()
+                == ((expected & (BoardState.WHITE_KING_SIDE | BoardState.WHITE_QUEEN_SIDE)) != 0)
+                && chessBoard.getKing(Colour.Black).getCastlingPossible()
+                == ((expected & (BoardState.BLACK_KING_SIDE | BoardState.BLACK_QUEEN_SIDE)) != 0);
+    }
+
+    @Test
+    public void testInitialFENParse() {
+        ChessBoard chessBoard = new ChessBoard();
+        parser.parse(ChessBoard.START_POSITION, chessBoard);
+        for (int row = 2; row < 6; row++) {
+            for (int col = 0; col < ChessBoard.COLS; col++) {
+                assertEquals(chessBoard.isOccupiedPosition(row, col), false);
+            }
+        }
+        assertTrue(castlingAvailabilityIsCorrectlySet(chessBoard, "KQkq"));
+        assertEquals(ChessBoard.START_POSITION, chessBoard.getFEN());
+    }
+
+    @Test
+    public void castlingAvailability() {
+        ChessBoard chessBoard = new ChessBoard();
+        for (String castling : Arrays.asList("K", "Qk", "q", "-")) {
+            parser.parse("r3k2r/8/8/8/8/8/8/R3K2R w " + castling + " - 0 1", chessBoard);
+            assertTrue(castling, castlingAvailabilityIsCorrectlySet(chessBoard, castling));
+        }
+    }
+
+    @Test
+    public void moveCounters() {
+        ChessBoard chessBoard = new ChessBoard();
+        String FEN = "8/1p6/1P1p4/1B1Pk2p/8/7K/8/4r3 b - - 13 52";
+        parser.parse(FEN, chessBoard);
+        assertEquals(13, parser.getHalfMoveClock());
+        assertEquals(52, parser.getFullMoveNumber());
+        assertEquals(FEN, chessBoard.getFEN());
+        // Without the counters the clock starts at 0 and the first move.
+        parser.parse("8/1p6/1P1p4/1B1Pk2p/8/7K/8/4r3 b - -");
+        assertEquals(0, parser.getHalfMoveClock());
+        assertEquals(1, parser.getFullMoveNumber());
+    }
+
+    @Test
+    public void operations() {
+        parser.parse("1k1r4/pp1b1R2/3q2pp/4p3/2B5/4Q3/PPP2B2/2K5 b - - bm Qd1+; id \"BK.01\";");
+        assertEquals(Collections.singletonList("Qd1+"), parser.getBestMoves());
+        assertTrue(parser.getAvoidMoves().isEmpty());
+        assertEquals("BK.01", parser.getId());
+        assertEquals(EPDParser.NO_EVALUATION, parser.getCentipawnEvaluation());
+
+        parser.parse("r1b1k2r/ppppnppp/2n2q2/2b5/3NP3/2P1B3/PP3PPP/RN1QKB1R w KQkq - "
+                + "am Nb5 Nf5; bm Be2 Qd2; ce -35; c0 \"skipped; operation\"; id WAC.x;");
+        assertEquals(Arrays.asList("Be2", "Qd2"), parser.getBestMoves());
+        assertEquals(Arrays.asList("Nb5", "Nf5"), parser.getAvoidMoves());
+        assertEquals("WAC.x", parser.getId());
+        assertEquals(-35, parser.getCentipawnEvaluation());
+
+        // The operations of the previous record do not carry over.
+        parser.parse(ChessBoard.START_POSITION);
+        assertTrue(parser.getBestMoves().isEmpty());
+        assertTrue(parser.getAvoidMoves().isEmpty());
+        assertNull(parser.getId());
+        assertEquals(EPDParser.NO_EVALUATION, parser.getCentipawnEvaluation());
+    }
+
+    @Test
+    public void errorOffsets() {
+        assertEquals(17, errorOffset("4k3/8/8/8/8/8/8/8 w - -", "Both sides need a king"));
+        assertEquals(2, errorOffset("4kX2/8/8/8/8/8/8/4K3 w - -", "Invalid piece letter 'X'"));
+        assertEquals(6, errorOffset("4k3/5N3/8/8/8/8/8/4K3 w - -", "Rank 7 has more than 8 squares"));
+        assertEquals(20, errorOffset("4k3/8/8/8/8/8/8/4K3 x - -", "Expected 'w' or 'b'"));
+        assertEquals(22, errorOffset("4k3/8/8/8/8/8/8/4K3 w K -", "Castling right 'K' without"));
+        assertEquals(24, errorOffset("4k3/8/8/8/8/8/8/4K3 w - e3", "Invalid en passant target square"));
+        assertEquals(32, errorOffset("4k3/8/8/8/8/8/8/4K3 w - - bm Ke2", "Missing ';'"));
+        assertEquals(29, errorOffset("4k3/8/8/8/8/8/8/4K3 w - - id \"open;", "Unterminated string"));
+        assertEquals(29, errorOffset("4k3/8/8/8/8/8/8/4K3 w - - ce x;", "Expected a number"));
+    }
+
+    @Test
+    public void sideNotToMoveInCheck() {
+        assertEquals(19, errorOffset("k7/8/8/8/8/8/8/K6Q w - -", "The side not to move is in check"));
+        assertEquals(22, errorOffset("4k3/8/2B5/8/8/8/8/4K3 w - -", "The side not to move is in check"));
+        assertEquals(22, errorOffset("4k3/3P4/8/8/8/8/8/4K3 w - -", "The side not to move is in check"));
+        // The side to move may be in check.
+        assertTrue(parser.isValid("k7/8/8/8/8/8/8/K6Q b - -"));
+        // A piece in between blocks the check.
+        assertTrue(parser.isValid("4k3/4p3/8/8/8/8/8/4R1K1 w - -"));
+    }
+
+    @Test
+    public void negativeMoveCounters() {
+        assertEquals(26, errorOffset("4k3/8/8/8/8/8/8/4K3 w - - -1 1", "Negative halfmove clock"));
+        assertEquals(28, errorOffset("4k3/8/8/8/8/8/8/4K3 w - - 0 -3", "Negative fullmove number"));
+    }
+
+    @Test
+    public void invalidRecordLeavesBoardUntouched() {
+        ChessBoard chessBoard = new ChessBoard();
+        parser.parse(ChessBoard.START_POSITION, chessBoard);
+        try {
+            parser.parse("k7/8/8/8/8/8/8/K6Q w - -", chessBoard);
+            fail("The record should not be valid");
+        } catch (FENFormatException ex) {
+            assertEquals(ChessBoard.START_POSITION, chessBoard.getFEN());
+        }
+    }
+}
@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
@@ -270,6 +271,19 @@ public class PerftTest {
         assertTrue(verify(results, FEN, 1));
     }
 
+    @Test
+    public void hashedPerftWithBulkCounting() {
+        chessBoard = new ChessBoard();
+        chessBoard.loadFEN("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+        Perft hashedPerft = new Perft(chessBoard, new PerftTable(16));
+        long[] results = {14, 191, 2812, 43238, 674624};
+        for (int depth = 1; depth <= results.length; depth++) {
+            assertEquals(results[depth - 1], hashedPerft.perft(depth));
+        }
+        // The board must be unchanged after the perft walk.
+        assertEquals("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", chessBoard.getFEN());
+    }
+
     /**
      * Verifies a FEN string with this chess engine.
      *